@@ -50,4 +50,12 @@ public interface TableGroupService {
      */
     List<TableGroup> getTableGroupAll(String mappingId);
 
+    /**
+     * 异步统计数据源表精确总数
+     *
+     * @param id
+     * @return 已在统计中返回false
+     */
+    boolean refreshCount(String id);
+
 }
\ No newline at end of file
@@ -92,8 +92,23 @@ public class MappingChecker extends AbstractChecker {
         // 全量配置
         mapping.setReadNum(NumberUtil.toInt(params.get("readNum"), mapping.getReadNum()));
         mapping.setBatchNum(NumberUtil.toInt(params.get("batchNum"), mapping.getBatchNum()));
+        mapping.setSplitNum(NumberUtil.toInt(params.get("splitNum"), mapping.getSplitNum()));
+        mapping.setThreadNum(NumberUtil.toInt(params.get("threadNum"), mapping.getThreadNum()));
+        mapping.setPipelineQueueSize(Math.max(1, NumberUtil.toInt(params.get("pipelineQueueSize"), mapping.getPipelineQueueSize())));
+        String bulkLoad = params.get("bulkLoad");
+        if (StringUtil.isNotBlank(bulkLoad)) {
+            mapping.setBulkLoad(Boolean.parseBoolean(bulkLoad));
+        }
 
         // 增量配置(日志/定时)
+        mapping.setLaneNum(NumberUtil.toInt(params.get("laneNum"), mapping.getLaneNum()));
+        mapping.setLaneQueueSize(NumberUtil.toInt(params.get("laneQueueSize"), mapping.getLaneQueueSize()));
+        String spool = params.get("spool");
+        if (StringUtil.isNotBlank(spool)) {
+            mapping.setSpool(Boolean.parseBoolean(spool));
+        }
+        mapping.setCoalesceWindow(Math.max(0, NumberUtil.toInt(params.get("coalesceWindow"), mapping.getCoalesceWindow())));
+        mapping.setTransactionSize(Math.max(0, NumberUtil.toInt(params.get("transactionSize"), mapping.getTransactionSize())));
         String incrementStrategy = params.get("incrementStrategy");
         Assert.hasText(incrementStrategy, "MappingChecker check params incrementStrategy is empty");
         String type = StringUtil.toLowerCaseFirstOne(incrementStrategy).concat("ConfigChecker");
@@ -0,0 +1,30 @@
+package org.dbsyncer.biz.checker.impl.mapping;
+
+import org.dbsyncer.biz.checker.MappingConfigChecker;
+import org.dbsyncer.listener.config.ListenerConfig;
+import org.dbsyncer.listener.enums.ListenerTypeEnum;
+import org.dbsyncer.parser.model.Mapping;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.util.Map;
+
+/**
+ * 变更跟踪配置
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/23 21:10
+ */
+@Component
+public class TrackingConfigChecker implements MappingConfigChecker {
+
+    @Override
+    public void modify(Mapping mapping, Map<String, String> params) {
+        ListenerConfig listener = mapping.getListener();
+        Assert.notNull(listener, "ListenerConfig can not be null.");
+
+        listener.setListenerType(ListenerTypeEnum.TRACKING.getType());
+    }
+
+}
@@ -117,9 +117,15 @@ public class TableGroupChecker extends AbstractChecker {
         Map<String, String> command = manager.getCommand(mapping, group);
         tableGroup.setCommand(command);
 
-        // 获取数据源总数
-        long count = ModelEnum.isFull(mapping.getModel()) && !CollectionUtils.isEmpty(command) ? manager.getCount(mapping.getSourceConnectorId(), command) : 0;
-        tableGroup.getSourceTable().setCount(count);
+        // 获取数据源估算总数(读取统计信息), 不支持时保留上次统计的总数, 精确总数按需异步统计
+        if (!ModelEnum.isFull(mapping.getModel()) || CollectionUtils.isEmpty(command)) {
+            tableGroup.getSourceTable().setCount(0);
+            return;
+        }
+        long count = manager.getCountEstimate(mapping.getSourceConnectorId(), command);
+        if (count >= 0) {
+            tableGroup.getSourceTable().setCount(count);
+        }
     }
 
     public void dealIncrementStrategy(Mapping mapping, TableGroup tableGroup) {
@@ -5,8 +5,10 @@ import org.dbsyncer.biz.checker.Checker;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.config.Field;
+import org.dbsyncer.parser.enums.ModelEnum;
 import org.dbsyncer.parser.logger.LogType;
 import org.dbsyncer.parser.model.Mapping;
+import org.dbsyncer.parser.model.Meta;
 import org.dbsyncer.parser.model.TableGroup;
 import org.dbsyncer.storage.constant.ConfigConstant;
 import org.slf4j.Logger;
@@ -16,6 +18,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 /**
@@ -31,6 +35,14 @@ public class TableGroupServiceImpl extends BaseServiceImpl implements TableGroup
     @Autowired
     private Checker tableGroupChecker;
 
+    @Autowired
+    private Executor taskExecutor;
+
+    /**
+     * 正在统计总数的表关系
+     */
+    private final Set<String> counting = ConcurrentHashMap.newKeySet();
+
     @Override
     public String add(Map<String, String> params) {
         String mappingId = params.get("mappingId");
@@ -101,6 +113,46 @@ public class TableGroupServiceImpl extends BaseServiceImpl implements TableGroup
         return manager.getTableGroupAll(mappingId);
     }
 
+    @Override
+    public boolean refreshCount(String id) {
+        TableGroup tableGroup = getTableGroup(id);
+        Mapping mapping = manager.getMapping(tableGroup.getMappingId());
+        Assert.notNull(mapping, "mapping not exist.");
+        Assert.notEmpty(tableGroup.getCommand(), "TableGroup command can not be empty.");
+        if (!counting.add(id)) {
+            return false;
+        }
+
+        // 精确统计可能扫描全表, 后台执行后缓存到表关系
+        taskExecutor.execute(() -> {
+            try {
+                long count = manager.getCount(mapping.getSourceConnectorId(), tableGroup.getCommand());
+                TableGroup group = manager.getTableGroup(id);
+                if (null == group) {
+                    return;
+                }
+                long before = group.getSourceTable().getCount();
+                group.getSourceTable().setCount(count);
+                manager.editTableGroup(group);
+
+                // 修正全量同步总数
+                Meta meta = manager.getMeta(mapping.getMetaId());
+                if (ModelEnum.isFull(mapping.getModel()) && null != meta) {
+                    synchronized (meta.getMap()) {
+                        meta.getTotal().getAndAdd(count - before);
+                        manager.editMeta(meta);
+                    }
+                }
+                logger.info("统计总数完成:{}, {}", group.getSourceTable().getName(), count);
+            } catch (Exception e) {
+                logger.error("统计总数异常:{}, {}", tableGroup.getSourceTable().getName(), e.getMessage());
+            } finally {
+                counting.remove(id);
+            }
+        });
+        return true;
+    }
+
     private void mergeMappingColumn(String mappingId) {
         List<TableGroup> groups = manager.getTableGroupAll(mappingId);
 
@@ -1,5 +1,6 @@
 package org.dbsyncer.common.event;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,6 +17,15 @@ public interface Event {
      */
     void changedEvent(RowChangedEvent event);
 
+    /**
+     * 数据变更事件(同一源库事务)
+     *
+     * @param events
+     */
+    default void changedEvent(List<RowChangedEvent> events) {
+        events.forEach(e -> changedEvent(e));
+    }
+
     /**
      * 写入增量点事件
      *
@@ -0,0 +1,31 @@
+package org.dbsyncer.common.event;
+
+import java.io.Serializable;
+
+/**
+ * 延迟解析的行数据值(如未解码字符集的字符串), 读取字段时再解析
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/20 21:10
+ */
+public interface LazyValue extends Serializable {
+
+    /**
+     * 获取解析后的值
+     *
+     * @return
+     */
+    Object getValue();
+
+    /**
+     * 解析延迟值, 其他值原样返回
+     *
+     * @param value
+     * @return
+     */
+    static Object resolve(Object value) {
+        return value instanceof LazyValue ? ((LazyValue) value).getValue() : value;
+    }
+
+}
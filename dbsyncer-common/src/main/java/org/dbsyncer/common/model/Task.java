@@ -4,7 +4,7 @@ public class Task {
 
     private String id;
 
-    private StateEnum state;
+    private volatile StateEnum state;
 
     private long beginTime;
 
@@ -3,6 +3,7 @@ package org.dbsyncer.connector;
 import org.dbsyncer.common.model.Result;
 import org.dbsyncer.connector.config.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -74,6 +75,24 @@ public interface Connector<M, C> {
      */
     long getCount(M connectorMapper, Map<String, String> command);
 
+    /**
+     * 获取估算总数(读取统计信息, 不扫描数据)，不支持时返回-1
+     *
+     * @param connectorMapper
+     * @param command
+     * @return
+     */
+    long getCountEstimate(M connectorMapper, Map<String, String> command);
+
+    /**
+     * 获取主键区间[MIN, MAX]，不支持拆分读取时返回null
+     *
+     * @param connectorMapper
+     * @param command
+     * @return
+     */
+    Object[] getRangeBoundary(M connectorMapper, Map<String, String> command);
+
     /**
      * 分页获取数据源数据
      *
@@ -82,6 +101,15 @@ public interface Connector<M, C> {
      */
     Result reader(M connectorMapper, ReaderConfig config);
 
+    /**
+     * 流式获取数据源数据(一次查询，逐行回调，不缓存结果集)
+     *
+     * @param connectorMapper
+     * @param config
+     * @param callback
+     */
+    void reader(M connectorMapper, ReaderConfig config, ReaderCallback callback);
+
     /**
      * 批量写入目标源数据
      *
@@ -90,6 +118,20 @@ public interface Connector<M, C> {
      */
     Result writer(M connectorMapper, WriterBatchConfig config);
 
+    /**
+     * 在同一事务中依次批量写入目标源数据, 任一批失败时全部回滚
+     * <p>不支持事务的连接器依次写入
+     *
+     * @param connectorMapper
+     * @param configs
+     * @return 每批的写入结果
+     */
+    default List<Result> writer(M connectorMapper, List<WriterBatchConfig> configs) {
+        List<Result> results = new ArrayList<>(configs.size());
+        configs.forEach(config -> results.add(writer(connectorMapper, config)));
+        return results;
+    }
+
     /**
      * 写入目标源数据
      *
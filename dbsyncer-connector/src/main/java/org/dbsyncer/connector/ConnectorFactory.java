@@ -128,18 +128,51 @@ public class ConnectorFactory implements DisposableBean {
         return getConnector(config).getCount(config, command);
     }
 
+    /**
+     * 获取估算总数
+     *
+     * @param config
+     * @param command
+     * @return
+     */
+    public long getCountEstimate(ConnectorMapper config, Map<String, String> command) {
+        return getConnector(config).getCountEstimate(config, command);
+    }
+
+    /**
+     * 获取主键区间
+     *
+     * @param config
+     * @param command
+     * @return
+     */
+    public Object[] getRangeBoundary(ConnectorMapper config, Map<String, String> command) {
+        return getConnector(config).getRangeBoundary(config, command);
+    }
+
     public Result reader(ConnectorMapper connectionMapper, ReaderConfig config) {
         Result result = getConnector(connectionMapper).reader(connectionMapper, config);
         Assert.notNull(result, "Connector reader result can not null");
         return result;
     }
 
+    public void reader(ConnectorMapper connectionMapper, ReaderConfig config, ReaderCallback callback) {
+        Assert.notNull(callback, "Connector reader callback can not null");
+        getConnector(connectionMapper).reader(connectionMapper, config, callback);
+    }
+
     public Result writer(ConnectorMapper connectionMapper, WriterBatchConfig config) {
         Result result = getConnector(connectionMapper).writer(connectionMapper, config);
         Assert.notNull(result, "Connector writer batch result can not null");
         return result;
     }
 
+    public List<Result> writer(ConnectorMapper connectionMapper, List<WriterBatchConfig> configs) {
+        List<Result> results = getConnector(connectionMapper).writer(connectionMapper, configs);
+        Assert.isTrue(null != results && results.size() == configs.size(), "Connector writer transaction result can not null");
+        return results;
+    }
+
     public Result writer(ConnectorMapper connectionMapper, WriterSingleConfig config) {
         Result result = getConnector(connectionMapper).writer(connectionMapper, config);
         Assert.notNull(result, "Connector writer single result can not null");
@@ -0,0 +1,22 @@
+package org.dbsyncer.connector;
+
+import java.util.Map;
+
+/**
+ * 流式读取回调(逐行处理数据源数据)
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/11/28 20:36
+ */
+public interface ReaderCallback {
+
+    /**
+     * 处理一行数据
+     *
+     * @param row 例如{ID=123, NAME=张三}
+     * @return false 停止读取
+     */
+    boolean apply(Map row);
+
+}
@@ -1,14 +1,29 @@
 package org.dbsyncer.connector.config;
 
+import java.util.Collections;
+import java.util.List;
+
 public class PageSqlConfig {
 
     private String querySql;
 
     private String pk;
 
+    /**
+     * 主键(带引号, 支持联合主键)
+     */
+    private List<String> primaryKeys;
+
     public PageSqlConfig(String querySql, String pk) {
         this.querySql = querySql;
         this.pk = pk;
+        this.primaryKeys = Collections.EMPTY_LIST;
+    }
+
+    public PageSqlConfig(String querySql, String pk, List<String> primaryKeys) {
+        this.querySql = querySql;
+        this.pk = pk;
+        this.primaryKeys = primaryKeys;
     }
 
     public String getQuerySql() {
@@ -18,4 +33,8 @@ public class PageSqlConfig {
     public String getPk() {
         return pk;
     }
-}
\ No newline at end of file
+
+    public List<String> getPrimaryKeys() {
+        return primaryKeys;
+    }
+}
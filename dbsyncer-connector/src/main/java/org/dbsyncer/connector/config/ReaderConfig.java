@@ -9,6 +9,14 @@ public class ReaderConfig {
     private List<Object> args;
     private int pageIndex;
     private int pageSize;
+    /**
+     * 上一页最后一行的主键值(按主键续读)
+     */
+    private Object[] cursors;
+    /**
+     * 主键区间(左开右闭)，例如[0, 10000]表示 ID > 0 AND ID <= 10000
+     */
+    private Object[] range;
 
     public ReaderConfig(Map<String,String> command, List<Object> args, int pageIndex, int pageSize) {
         this.command = command;
@@ -17,6 +25,11 @@ public class ReaderConfig {
         this.pageSize = pageSize;
     }
 
+    public ReaderConfig(Map<String,String> command, List<Object> args, int pageIndex, int pageSize, Object[] cursors) {
+        this(command, args, pageIndex, pageSize);
+        this.cursors = cursors;
+    }
+
     public Map<String, String> getCommand() {
         return command;
     }
@@ -52,4 +65,22 @@ public class ReaderConfig {
         this.pageSize = pageSize;
         return this;
     }
-}
\ No newline at end of file
+
+    public Object[] getCursors() {
+        return cursors;
+    }
+
+    public ReaderConfig setCursors(Object[] cursors) {
+        this.cursors = cursors;
+        return this;
+    }
+
+    public Object[] getRange() {
+        return range;
+    }
+
+    public ReaderConfig setRange(Object[] range) {
+        this.range = range;
+        return this;
+    }
+}
@@ -11,6 +11,8 @@ public class SqlBuilderConfig {
     private String      tableName;
     // 主键
     private String      pk;
+    // 主键(支持联合主键)
+    private List<String> primaryKeys;
     // 字段
     private List<Field> fields;
     // 过滤条件
@@ -33,6 +35,12 @@ public class SqlBuilderConfig {
         this.quotation = quotation;
     }
 
+    public SqlBuilderConfig(Database database, String tableName, String pk, List<String> primaryKeys, List<Field> fields,
+                            String queryFilter, String quotation) {
+        this(database, tableName, pk, fields, queryFilter, quotation);
+        this.primaryKeys = primaryKeys;
+    }
+
     public Database getDatabase() {
         return database;
     }
@@ -45,6 +53,10 @@ public class SqlBuilderConfig {
         return pk;
     }
 
+    public List<String> getPrimaryKeys() {
+        return primaryKeys;
+    }
+
     public List<Field> getFields() {
         return fields;
     }
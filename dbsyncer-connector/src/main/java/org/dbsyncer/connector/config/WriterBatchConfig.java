@@ -10,6 +10,21 @@ public class WriterBatchConfig extends WriterConfig {
      */
     private List<Map> data;
 
+    /**
+     * 原生批量导入(失败时转为批量写入)
+     */
+    private boolean bulkLoad;
+
+    /**
+     * 事件(为空时插入, DELETE时按主键删除)
+     */
+    private String event;
+
+    /**
+     * 按主键插入或更新(增量和重试时使用, 全量同步直接插入)
+     */
+    private boolean upsert;
+
     public WriterBatchConfig(Map<String, String> command, List<Field> fields, List<Map> data) {
         setCommand(command);
         setFields(fields);
@@ -24,4 +39,31 @@ public class WriterBatchConfig extends WriterConfig {
         this.data = data;
         return this;
     }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public WriterBatchConfig setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+        return this;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public WriterBatchConfig setEvent(String event) {
+        this.event = event;
+        return this;
+    }
+
+    public boolean isUpsert() {
+        return upsert;
+    }
+
+    public WriterBatchConfig setUpsert(boolean upsert) {
+        this.upsert = upsert;
+        return this;
+    }
 }
\ No newline at end of file
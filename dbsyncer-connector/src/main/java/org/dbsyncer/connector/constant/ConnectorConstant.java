@@ -22,11 +22,36 @@ public class ConnectorConstant {
      */
     public static final String OPERTION_DELETE = "DELETE";
 
+    /**
+     * 插入或更新
+     */
+    public static final String OPERTION_UPSERT = "UPSERT";
+
     /**
      * 查询
      */
     public static final String OPERTION_QUERY = "QUERY";
 
+    /**
+     * 游标查询(按主键续读)
+     */
+    public static final String OPERTION_QUERY_CURSOR = "QUERY_CURSOR";
+
+    /**
+     * 范围查询(按主键区间拆分读取)
+     */
+    public static final String OPERTION_QUERY_RANGE = "QUERY_RANGE";
+
+    /**
+     * 流式查询(不分页)
+     */
+    public static final String OPERTION_QUERY_STREAM = "QUERY_STREAM";
+
+    /**
+     * 查询主键区间(MIN/MAX)
+     */
+    public static final String OPERTION_QUERY_RANGE_BOUNDARY = "QUERY_RANGE_BOUNDARY";
+
     /**
      * 查询过滤条件
      */
@@ -37,9 +62,19 @@ public class ConnectorConstant {
      */
     public static final String OPERTION_QUERY_COUNT = "QUERY_COUNT";
 
+    /**
+     * 查询估算总数(统计信息)
+     */
+    public static final String OPERTION_QUERY_COUNT_ESTIMATE = "QUERY_COUNT_ESTIMATE";
+
     /**
      * 查询数据行是否存在
      */
     public static final String OPERTION_QUERY_COUNT_EXIST = "QUERY_COUNT_EXIST";
 
+    /**
+     * 原生批量导入
+     */
+    public static final String OPERTION_BULK_LOAD = "BULK_LOAD";
+
 }
\ No newline at end of file
@@ -8,6 +8,39 @@ public class DatabaseConstant {
      */
     public static final String MYSQL_PAGE_SQL = " LIMIT ?,?";
 
+    /**
+     * Mysql游标分页语句
+     */
+    public static final String MYSQL_PAGE_CURSOR_SQL = " LIMIT ?";
+
+    /**
+     * Mysql游标读取参数(未开启时按行流式读取)
+     */
+    public static final String MYSQL_USE_CURSOR_FETCH = "useCursorFetch=true";
+
+    /**
+     * Mysql批量重写参数(已开启时驱动自动合并为多行插入)
+     */
+    public static final String MYSQL_REWRITE_BATCHED_STATEMENTS = "rewriteBatchedStatements=true";
+
+    /**
+     * Mysql单条语句最大参数个数
+     */
+    public static final int MYSQL_MAX_PARAMETERS = 65535;
+
+    /**
+     * Mysql估算总数语句(InnoDB统计信息)
+     */
+    public static final String MYSQL_COUNT_ESTIMATE_SQL = "SELECT TABLE_ROWS FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '%s'";
+
+    /**
+     * Mysql原生导入语句(驱动需开启allowLoadLocalInfile, 服务端需开启local_infile)
+     * <pre>
+     *  load data local infile 'dbsyncer' into table `my_user` character set utf8mb4 (`id`,`name`)
+     * </pre>
+     */
+    public static final String MYSQL_BULK_LOAD_SQL = "LOAD DATA LOCAL INFILE 'dbsyncer' INTO TABLE %s CHARACTER SET utf8mb4 (%s)";
+
     //*********************************** Oracle **************************************//
     /**
      * Oracle分页语句开始
@@ -19,6 +52,34 @@ public class DatabaseConstant {
      */
     public static final String ORACLE_PAGE_SQL_END = ")A WHERE ROWNUM <= ?) WHERE RN > ?";
 
+    /**
+     * Oracle游标分页语句开始
+     */
+    public static final String ORACLE_PAGE_CURSOR_SQL_START = "SELECT * FROM (";
+
+    /**
+     * Oracle游标分页语句结束
+     */
+    public static final String ORACLE_PAGE_CURSOR_SQL_END = ") WHERE ROWNUM <= ?";
+
+    /**
+     * Oracle直接路径插入提示(11gR2版本支持)
+     */
+    public static final String ORACLE_BULK_LOAD_HINT = "INSERT /*+ APPEND_VALUES */ INTO";
+
+    /**
+     * Oracle估算总数语句(未收集统计信息时为空), 未指定用户时按当前schema查询
+     * <pre>
+     *  select num_rows from all_tables where owner = sys_context('USERENV', 'CURRENT_SCHEMA') and table_name = 'MY_USER'
+     * </pre>
+     */
+    public static final String ORACLE_COUNT_ESTIMATE_SQL = "SELECT NUM_ROWS FROM ALL_TABLES WHERE OWNER = %s AND TABLE_NAME = '%s'";
+
+    /**
+     * Oracle当前schema
+     */
+    public static final String ORACLE_CURRENT_SCHEMA = "SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')";
+
     //*********************************** SqlServer **************************************//
     /**
      * SqlServer分页语句(2008版本支持)
@@ -30,4 +91,27 @@ public class DatabaseConstant {
      */
     public static final String SQLSERVER_PAGE_SQL = "SELECT * FROM (SELECT ROW_NUMBER() OVER(ORDER BY %s) AS SQLSERVER_ROW_ID, * FROM (%s) S) A WHERE A.SQLSERVER_ROW_ID BETWEEN ? AND ?";
 
+    /**
+     * SqlServer游标分页语句
+     * <pre>
+     *  select top (10) * from (select * from my_user where id > ?) s order by id
+     * </pre>
+     */
+    public static final String SQLSERVER_PAGE_CURSOR_SQL = "SELECT TOP (?) * FROM (%s) S ORDER BY %s";
+
+    /**
+     * SqlServer单条语句最大参数个数
+     */
+    public static final int SQLSERVER_MAX_PARAMETERS = 2100;
+
+    /**
+     * SqlServer单条INSERT VALUES最大行数
+     */
+    public static final int SQLSERVER_MAX_INSERT_ROWS = 1000;
+
+    /**
+     * SqlServer估算总数语句(分区统计, 堆表或聚集索引), 未指定schema时与查询语句一致, 按默认schema解析表名
+     */
+    public static final String SQLSERVER_COUNT_ESTIMATE_SQL = "SELECT SUM(ROW_COUNT) FROM SYS.DM_DB_PARTITION_STATS WHERE OBJECT_ID = OBJECT_ID('%s') AND INDEX_ID IN (0, 1)";
+
 }
\ No newline at end of file
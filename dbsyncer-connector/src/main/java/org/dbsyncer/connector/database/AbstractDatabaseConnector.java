@@ -7,6 +7,7 @@ import org.dbsyncer.connector.AbstractConnector;
 import org.dbsyncer.connector.Connector;
 import org.dbsyncer.connector.ConnectorException;
 import org.dbsyncer.connector.ConnectorMapper;
+import org.dbsyncer.connector.ReaderCallback;
 import org.dbsyncer.connector.config.*;
 import org.dbsyncer.connector.constant.ConnectorConstant;
 import org.dbsyncer.connector.enums.OperationEnum;
@@ -16,17 +17,24 @@ import org.dbsyncer.connector.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.util.Assert;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
+import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public abstract class AbstractDatabaseConnector extends AbstractConnector implements Connector<DatabaseConnectorMapper, DatabaseConfig>, Database {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    /**
+     * 多行插入语句缓存, key=行数:插入语句
+     */
+    private final Map<String, String> multiInsertSql = new ConcurrentHashMap<>();
+
     protected abstract String getTableSql();
 
     @Override
@@ -41,6 +49,7 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
 
     @Override
     public void disconnect(DatabaseConnectorMapper connectorMapper) {
+        connectorMapper.closeTransaction();
         DatabaseUtil.close(connectorMapper.getConnection());
     }
 
@@ -82,14 +91,66 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         return connectorMapper.execute(databaseTemplate -> databaseTemplate.queryForObject(queryCountSql, Long.class));
     }
 
+    @Override
+    public long getCountEstimate(DatabaseConnectorMapper connectorMapper, Map<String, String> command) {
+        String queryCountEstimateSql = command.get(ConnectorConstant.OPERTION_QUERY_COUNT_ESTIMATE);
+        if (StringUtil.isBlank(queryCountEstimateSql)) {
+            return -1;
+        }
+        try {
+            Long count = connectorMapper.execute(databaseTemplate -> databaseTemplate.queryForObject(queryCountEstimateSql, Long.class));
+            return null == count ? -1 : count;
+        } catch (Exception e) {
+            logger.warn("读取统计信息失败:{}", e.getMessage());
+        }
+        return -1;
+    }
+
+    @Override
+    public Object[] getRangeBoundary(DatabaseConnectorMapper connectorMapper, Map<String, String> command) {
+        String queryRangeBoundarySql = command.get(ConnectorConstant.OPERTION_QUERY_RANGE_BOUNDARY);
+        if (StringUtil.isBlank(queryRangeBoundarySql)) {
+            return null;
+        }
+        return connectorMapper.execute(databaseTemplate -> databaseTemplate.query(queryRangeBoundarySql, (ResultSetExtractor<Object[]>) rs -> {
+            if (rs.next() && null != rs.getObject(1)) {
+                return new Object[] {rs.getObject(1), rs.getObject(2)};
+            }
+            return null;
+        }));
+    }
+
+    @Override
+    public Object[] getPageCursorArgs(Object[] args, int pageSize) {
+        // 分页数在游标条件之前(TOP ?)或之后(LIMIT ?)
+        final boolean first = isPageSizeFirst();
+        Object[] newArgs = new Object[args.length + 1];
+        System.arraycopy(args, 0, newArgs, first ? 1 : 0, args.length);
+        newArgs[first ? 0 : args.length] = pageSize;
+        return newArgs;
+    }
+
     @Override
     public Result reader(DatabaseConnectorMapper connectorMapper, ReaderConfig config) {
-        // 1、获取select SQL
-        String querySql = config.getCommand().get(SqlBuilderEnum.QUERY.getName());
+        // 1、获取select SQL(按主键区间读取/有游标时按主键续读)
+        String querySql;
+        Object[] args;
+        String queryRangeSql = config.getCommand().get(SqlBuilderEnum.QUERY_RANGE.getName());
+        String queryCursorSql = config.getCommand().get(SqlBuilderEnum.QUERY_CURSOR.getName());
+        if (null != config.getRange() && StringUtil.isNotBlank(queryRangeSql)) {
+            querySql = queryRangeSql;
+            args = getPageCursorArgs(config.getRange(), config.getPageSize());
+        } else if (null != config.getCursors() && StringUtil.isNotBlank(queryCursorSql)) {
+            querySql = queryCursorSql;
+            args = getPageCursorArgs(DatabaseUtil.buildCursorArgs(config.getCursors()), config.getPageSize());
+        } else {
+            querySql = config.getCommand().get(SqlBuilderEnum.QUERY.getName());
+            args = getPageArgs(config.getPageIndex(), config.getPageSize());
+        }
         Assert.hasText(querySql, "查询语句不能为空.");
 
         // 2、设置参数
-        Collections.addAll(config.getArgs(), getPageArgs(config.getPageIndex(), config.getPageSize()));
+        Collections.addAll(config.getArgs(), args);
 
         // 3、执行SQL
         List<Map<String, Object>> list = connectorMapper.execute(databaseTemplate -> databaseTemplate.queryForList(querySql, config.getArgs().toArray()));
@@ -98,13 +159,64 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         return new Result(new ArrayList<>(list));
     }
 
+    @Override
+    public void reader(DatabaseConnectorMapper connectorMapper, ReaderConfig config, ReaderCallback callback) {
+        // 1、获取select SQL
+        String queryStreamSql = config.getCommand().get(SqlBuilderEnum.QUERY_STREAM.getName());
+        Assert.hasText(queryStreamSql, "流式查询语句不能为空.");
+
+        // 2、使用独立连接, 避免流式结果集未读完时阻塞共享连接
+        DatabaseConfig cfg = connectorMapper.getConfig();
+        Connection connection = null;
+        try {
+            connection = DatabaseUtil.getConnection(cfg);
+            new DatabaseTemplate(connection).query(con -> {
+                // 只读、单向游标
+                PreparedStatement ps = con.prepareStatement(queryStreamSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(getStreamFetchSize(cfg, config.getPageSize()));
+                List<Object> args = config.getArgs();
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                return ps;
+            }, (ResultSetExtractor<Object>) rs -> {
+                // 3、逐行回调
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                String[] columns = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    columns[i] = JdbcUtils.lookupColumnName(metaData, i + 1);
+                }
+                while (rs.next()) {
+                    Map<String, Object> row = new HashMap<>(columnCount * 2);
+                    for (int i = 0; i < columnCount; i++) {
+                        row.put(columns[i], JdbcUtils.getResultSetValue(rs, i + 1));
+                    }
+                    if (!callback.apply(row)) {
+                        break;
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+            throw new ConnectorException(e.getMessage());
+        } finally {
+            DatabaseUtil.close(connection);
+        }
+    }
+
     @Override
     public Result writer(DatabaseConnectorMapper connectorMapper, WriterBatchConfig config) {
         List<Field> fields = config.getFields();
         List<Map> data = config.getData();
+        if (isDelete(config.getEvent())) {
+            return batchDelete(connectorMapper, config);
+        }
 
-        // 1、获取select SQL
-        String insertSql = config.getCommand().get(SqlBuilderEnum.INSERT.getName());
+        // 1、获取插入SQL(增量合并写入时按主键插入或更新, 重复写入不会主键冲突; 全量同步直接插入)
+        String upsertSql = config.getCommand().get(ConnectorConstant.OPERTION_UPSERT);
+        String insertSql = config.isUpsert() && StringUtil.isNotBlank(upsertSql) ? upsertSql : config.getCommand().get(SqlBuilderEnum.INSERT.getName());
         Assert.hasText(insertSql, "插入语句不能为空.");
         if (CollectionUtils.isEmpty(fields)) {
             logger.error("writer fields can not be empty.");
@@ -115,23 +227,24 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
             throw new ConnectorException("writer data can not be empty.");
         }
         final int size = data.size();
-        final int fSize = fields.size();
 
+        // 原生批量导入, 不支持或失败时转为批量写入
         Result result = new Result();
+        if (config.isBulkLoad() && tryBulkLoad(connectorMapper, config)) {
+            return result;
+        }
         try {
-            // 2、设置参数
+            // 2、设置参数, 按2的幂次行数多行插入(如200行拆分为128+64+8), 减少语句种类以复用缓存
+            final int maxRows = Math.max(1, getMultiInsertRows(connectorMapper, insertSql, fields, data));
             connectorMapper.execute(databaseTemplate -> {
-                databaseTemplate.batchUpdate(insertSql, new BatchPreparedStatementSetter() {
-                    @Override
-                    public void setValues(PreparedStatement preparedStatement, int i) {
-                        batchRowsSetter(databaseTemplate.getConnection(), preparedStatement, fields, fSize, data.get(i));
-                    }
-
-                    @Override
-                    public int getBatchSize() {
-                        return size;
-                    }
-                });
+                int offset = 0;
+                while (offset < size) {
+                    int rows = Integer.highestOneBit(Math.min(maxRows, size - offset));
+                    int groups = (size - offset) / rows;
+                    String sql = rows > 1 ? getMultiInsertSql(insertSql, rows) : insertSql;
+                    batchExecute(databaseTemplate, sql, fields, data, offset, rows, groups);
+                    offset += rows * groups;
+                }
                 return true;
             });
         } catch (Exception e) {
@@ -144,19 +257,66 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         return result;
     }
 
+    @Override
+    public List<Result> writer(DatabaseConnectorMapper connectorMapper, List<WriterBatchConfig> configs) {
+        try {
+            return connectorMapper.executeInTransaction(mapper -> {
+                List<Result> results = new ArrayList<>(configs.size());
+                for (WriterBatchConfig config : configs) {
+                    Result result = writer(mapper, config);
+                    if (0 < result.getFail().get()) {
+                        throw new ConnectorException(result.getError().toString());
+                    }
+                    results.add(result);
+                }
+                return results;
+            });
+        } catch (Exception e) {
+            // 已回滚, 记录所有错误数据
+            logger.error("事务写入失败, 已回滚:{}", e.getMessage());
+            List<Result> results = new ArrayList<>(configs.size());
+            configs.forEach(config -> {
+                Result result = new Result();
+                result.getFailData().addAll(config.getData());
+                result.getFail().set(config.getData().size());
+                result.getError().append(e.getMessage()).append(System.lineSeparator());
+                results.add(result);
+            });
+            return results;
+        }
+    }
+
     @Override
     public Result writer(DatabaseConnectorMapper connectorMapper, WriterSingleConfig config) {
         String event = config.getEvent();
         List<Field> fields = config.getFields();
         Map<String, Object> data = config.getData();
-        // 1、获取 SQL
-        String sql = config.getCommand().get(event);
-        Assert.hasText(sql, "执行语句不能为空.");
         if (CollectionUtils.isEmpty(data) || CollectionUtils.isEmpty(fields)) {
             logger.error("writer data can not be empty.");
             throw new ConnectorException("writer data can not be empty.");
         }
 
+        // 新增和修改支持时按主键插入或更新, 一条语句完成, 失败时按原事件执行(不存在转insert, 存在转update)
+        String upsertSql = config.getCommand().get(ConnectorConstant.OPERTION_UPSERT);
+        if ((isInsert(event) || isUpdate(event)) && StringUtil.isNotBlank(upsertSql) && !config.isRetry()) {
+            try {
+                connectorMapper.execute(databaseTemplate -> databaseTemplate.update(upsertSql, (ps) -> {
+                    Field f = null;
+                    for (int i = 0; i < fields.size(); i++) {
+                        f = fields.get(i);
+                        SetterEnum.getSetter(f.getType()).set(databaseTemplate.getConnection(), ps, i + 1, f.getType(), data.get(f.getName()));
+                    }
+                }));
+                return new Result();
+            } catch (Exception e) {
+                logger.warn("{}表执行插入或更新失败, 尝试执行{}:{}", config.getTable(), event, e.getMessage());
+            }
+        }
+
+        // 1、获取 SQL
+        String sql = config.getCommand().get(event);
+        Assert.hasText(sql, "执行语句不能为空.");
+
         Field pkField = getPrimaryKeyField(fields);
         // Update / Delete
         if (isUpdate(event) || isDelete(event)) {
@@ -225,9 +385,7 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         // 获取查询SQL
         Table table = commandConfig.getTable();
         Map<String, String> map = new HashMap<>();
-
-        String query = ConnectorConstant.OPERTION_QUERY;
-        map.put(query, buildSql(query, table, commandConfig.getOriginalTable(), queryFilterSql));
+        putQueryCommand(map, table, commandConfig.getOriginalTable(), queryFilterSql);
 
         // 获取查询总数SQL
         String quotation = buildSqlWithQuotation();
@@ -242,6 +400,7 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         }
         queryCount.append(") DBSYNCER_T");
         map.put(ConnectorConstant.OPERTION_QUERY_COUNT, queryCount.toString());
+        putQueryCountEstimateCommand(map, table.getName(), queryFilterSql);
         return map;
     }
 
@@ -261,8 +420,17 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         String delete = SqlBuilderEnum.DELETE.getName();
         map.put(delete, buildSql(delete, table, originalTable, null));
 
-        // 获取查询数据行是否存在
+        String upsert = SqlBuilderEnum.UPSERT.getName();
+        String upsertSql = buildSql(upsert, table, originalTable, null);
+        if (StringUtil.isNotBlank(upsertSql)) {
+            map.put(upsert, upsertSql);
+        }
+
+        // 原生批量导入的目标表
         String quotation = buildSqlWithQuotation();
+        map.put(ConnectorConstant.OPERTION_BULK_LOAD, quotation + table.getName() + quotation);
+
+        // 获取查询数据行是否存在
         String pk = DatabaseUtil.findTablePrimaryKey(commandConfig.getOriginalTable(), quotation);
         StringBuilder queryCount = new StringBuilder().append("SELECT COUNT(1) FROM ").append(quotation).append(table.getName()).append(
                 quotation).append(" WHERE ").append(pk).append(" = ?");
@@ -323,6 +491,7 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         String quotation = buildSqlWithQuotation();
         String pk = DatabaseUtil.findTablePrimaryKey(commandConfig.getOriginalTable(), quotation);
         map.put(SqlBuilderEnum.QUERY.getName(), getPageSql(new PageSqlConfig(querySql, pk)));
+        map.put(SqlBuilderEnum.QUERY_STREAM.getName(), querySql);
 
         // 获取查询总数SQL
         StringBuilder queryCount = new StringBuilder();
@@ -432,10 +601,114 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
             pk = DatabaseUtil.findTablePrimaryKey(originalTable, "");
         }
 
-        SqlBuilderConfig config = new SqlBuilderConfig(this, tableName, pk, fields, queryFilterSQL, buildSqlWithQuotation());
+        String quotation = buildSqlWithQuotation();
+        List<String> primaryKeys = DatabaseUtil.findTablePrimaryKeys(originalTable, quotation);
+        SqlBuilderConfig config = new SqlBuilderConfig(this, tableName, pk, primaryKeys, fields, queryFilterSQL, quotation);
         return SqlBuilderEnum.getSqlBuilder(type).buildSql(config);
     }
 
+    /**
+     * 获取估算总数SQL, 不支持时返回null
+     *
+     * @param tableName
+     * @return
+     */
+    protected String getQueryCountEstimateSql(String tableName) {
+        return null;
+    }
+
+    /**
+     * 获取估算总数SQL(统计信息为整表数据, 有过滤条件时不估算)
+     *
+     * @param map
+     * @param tableName
+     * @param queryFilterSql
+     */
+    protected void putQueryCountEstimateCommand(Map<String, String> map, String tableName, String queryFilterSql) {
+        if (StringUtil.isNotBlank(queryFilterSql)) {
+            return;
+        }
+        String sql = getQueryCountEstimateSql(StringUtil.replace(tableName, "'", "''"));
+        if (StringUtil.isNotBlank(sql)) {
+            map.put(ConnectorConstant.OPERTION_QUERY_COUNT_ESTIMATE, sql);
+        }
+    }
+
+    /**
+     * 获取查询SQL(分页查询/游标查询/范围查询)
+     *
+     * @param map
+     * @param table
+     * @param originalTable
+     * @param queryFilterSql
+     */
+    protected void putQueryCommand(Map<String, String> map, Table table, Table originalTable, String queryFilterSql) {
+        String query = ConnectorConstant.OPERTION_QUERY;
+        map.put(query, buildSql(query, table, originalTable, queryFilterSql));
+
+        // 获取游标查询SQL
+        String queryCursor = ConnectorConstant.OPERTION_QUERY_CURSOR;
+        String queryCursorSql = buildSql(queryCursor, table, originalTable, queryFilterSql);
+        if (StringUtil.isNotBlank(queryCursorSql)) {
+            map.put(queryCursor, queryCursorSql);
+        }
+
+        // 获取流式查询SQL
+        String queryStream = ConnectorConstant.OPERTION_QUERY_STREAM;
+        map.put(queryStream, buildSql(queryStream, table, originalTable, queryFilterSql));
+
+        // 获取范围查询SQL(单主键)
+        String queryRange = ConnectorConstant.OPERTION_QUERY_RANGE;
+        String queryRangeSql = buildSql(queryRange, table, originalTable, queryFilterSql);
+        if (StringUtil.isNotBlank(queryRangeSql)) {
+            map.put(queryRange, queryRangeSql);
+
+            // SELECT MIN("ID"),MAX("ID") FROM "USER" WHERE ...
+            String quotation = buildSqlWithQuotation();
+            String pk = DatabaseUtil.findTablePrimaryKeys(originalTable, quotation).get(0);
+            StringBuilder queryRangeBoundary = new StringBuilder();
+            queryRangeBoundary.append("SELECT MIN(").append(pk).append("),MAX(").append(pk).append(") FROM ").append(quotation).append(table.getName()).append(quotation);
+            if (StringUtil.isNotBlank(queryFilterSql)) {
+                queryRangeBoundary.append(queryFilterSql);
+            }
+            map.put(ConnectorConstant.OPERTION_QUERY_RANGE_BOUNDARY, queryRangeBoundary.toString());
+        }
+    }
+
+    /**
+     * 流式读取每次从数据库获取的行数
+     *
+     * @param config
+     * @param pageSize
+     * @return
+     */
+    protected int getStreamFetchSize(DatabaseConfig config, int pageSize) {
+        return pageSize;
+    }
+
+    /**
+     * 游标分页SQL中分页数参数是否在游标条件之前, 例如 SELECT TOP (?) ...
+     *
+     * @return
+     */
+    protected boolean isPageSizeFirst() {
+        return false;
+    }
+
+    /**
+     * 获取主键排序, 例如 ORDER BY "A","B"
+     *
+     * @param config
+     * @return
+     */
+    protected String getOrderByPrimaryKeys(PageSqlConfig config) {
+        List<String> primaryKeys = config.getPrimaryKeys();
+        if (CollectionUtils.isEmpty(primaryKeys)) {
+            return "";
+        }
+        return " ORDER BY " + StringUtil.join(primaryKeys, ",");
+    }
+
     /**
      * 健康检查
      *
@@ -476,6 +749,138 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         return sql.toString();
     }
 
+    /**
+     * 原生批量导入, 不支持时返回false
+     *
+     * @param connectorMapper
+     * @param config
+     * @return
+     * @throws Exception
+     */
+    protected boolean bulkLoad(DatabaseConnectorMapper connectorMapper, WriterBatchConfig config) throws Exception {
+        return false;
+    }
+
+    @Override
+    public String getUpsertSql(SqlBuilderConfig config) {
+        return null;
+    }
+
+    /**
+     * 获取插入或更新的主键字段, 主键未全部映射时返回空
+     *
+     * @param config
+     * @return
+     */
+    protected List<Field> getUpsertPrimaryKeys(SqlBuilderConfig config) {
+        List<Field> pks = config.getFields().stream().filter(Field::isPk).collect(Collectors.toList());
+        List<String> primaryKeys = config.getPrimaryKeys();
+        if (!CollectionUtils.isEmpty(primaryKeys) && primaryKeys.size() != pks.size()) {
+            return Collections.emptyList();
+        }
+        return pks;
+    }
+
+    /**
+     * 获取单条插入语句最多写入的行数, 默认单行插入
+     *
+     * @param connectorMapper
+     * @param insertSql
+     * @param fields
+     * @param data
+     * @return
+     */
+    protected int getMultiInsertRows(DatabaseConnectorMapper connectorMapper, String insertSql, List<Field> fields, List<Map> data) {
+        return 1;
+    }
+
+    /**
+     * 多行插入语句, 在第一组VALUES参数后追加
+     * <pre>
+     *  INSERT INTO "USER"("USERNAME","AGE") VALUES (?,?),(?,?),(?,?)
+     *  INSERT INTO USER(ID,AGE) VALUES (?,?),(?,?) ON DUPLICATE KEY UPDATE AGE=VALUES(AGE)
+     * </pre>
+     *
+     * @param insertSql
+     * @param rows
+     * @return
+     */
+    private String getMultiInsertSql(String insertSql, int rows) {
+        return multiInsertSql.computeIfAbsent(rows + ":" + insertSql, k -> {
+            int start = insertSql.indexOf("VALUES (") + "VALUES ".length();
+            int end = insertSql.indexOf(")", start) + 1;
+            String values = insertSql.substring(start, end);
+            StringBuilder sql = new StringBuilder(insertSql.substring(0, end));
+            for (int i = 1; i < rows; i++) {
+                sql.append(",").append(values);
+            }
+            return sql.append(insertSql.substring(end)).toString();
+        });
+    }
+
+    /**
+     * 按主键批量删除
+     *
+     * @param connectorMapper
+     * @param config
+     * @return
+     */
+    private Result batchDelete(DatabaseConnectorMapper connectorMapper, WriterBatchConfig config) {
+        String deleteSql = config.getCommand().get(SqlBuilderEnum.DELETE.getName());
+        Assert.hasText(deleteSql, "删除语句不能为空.");
+        List<Map> data = config.getData();
+        if (CollectionUtils.isEmpty(data) || CollectionUtils.isEmpty(config.getFields())) {
+            logger.error("writer data can not be empty.");
+            throw new ConnectorException("writer data can not be empty.");
+        }
+        List<Field> pk = Collections.singletonList(getPrimaryKeyField(config.getFields()));
+
+        Result result = new Result();
+        try {
+            connectorMapper.execute(databaseTemplate -> {
+                batchExecute(databaseTemplate, deleteSql, pk, data, 0, 1, data.size());
+                return true;
+            });
+        } catch (Exception e) {
+            // 记录错误数据
+            result.getFailData().addAll(data);
+            result.getFail().set(data.size());
+            result.getError().append(e.getMessage()).append(System.lineSeparator());
+            logger.error(e.getMessage());
+        }
+        return result;
+    }
+
+    private void batchExecute(DatabaseTemplate databaseTemplate, String sql, List<Field> fields, List<Map> data, int offset, int rows, int groups) {
+        final int fSize = fields.size();
+        databaseTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement preparedStatement, int i) {
+                int start = offset + i * rows;
+                for (int r = 0; r < rows; r++) {
+                    batchRowsSetter(databaseTemplate.getConnection(), preparedStatement, fields, fSize, data.get(start + r), r * fSize);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return groups;
+            }
+        });
+    }
+
+    private boolean tryBulkLoad(DatabaseConnectorMapper connectorMapper, WriterBatchConfig config) {
+        if (StringUtil.isBlank(config.getCommand().get(ConnectorConstant.OPERTION_BULK_LOAD))) {
+            return false;
+        }
+        try {
+            return bulkLoad(connectorMapper, config);
+        } catch (Exception e) {
+            logger.warn("原生批量导入失败, 转为批量写入:{}", e.getMessage());
+        }
+        return false;
+    }
+
     /**
      * @param connection 连接
      * @param ps         参数构造器
@@ -483,7 +888,11 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
      * @param fSize      同步字段个数
      * @param row        同步字段对应的值，例如{ID=123, NAME=张三11}
      */
-    private void batchRowsSetter(Connection connection, PreparedStatement ps, List<Field> fields, int fSize, Map row) {
+    protected void batchRowsSetter(Connection connection, PreparedStatement ps, List<Field> fields, int fSize, Map row) {
+        batchRowsSetter(connection, ps, fields, fSize, row, 0);
+    }
+
+    private void batchRowsSetter(Connection connection, PreparedStatement ps, List<Field> fields, int fSize, Map row, int offset) {
         Field f = null;
         int type;
         Object val = null;
@@ -492,7 +901,7 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
             f = fields.get(i);
             type = f.getType();
             val = row.get(f.getName());
-            SetterEnum.getSetter(type).set(connection, ps, i + 1, type, val);
+            SetterEnum.getSetter(type).set(connection, ps, offset + i + 1, type, val);
         }
     }
 
@@ -1,6 +1,7 @@
 package org.dbsyncer.connector.database;
 
 import org.dbsyncer.connector.config.PageSqlConfig;
+import org.dbsyncer.connector.config.SqlBuilderConfig;
 
 public interface Database {
 
@@ -21,4 +22,29 @@ public interface Database {
      */
     Object[] getPageArgs(int pageIndex, int pageSize);
 
+    /**
+     * 获取游标分页SQL(按主键排序, 从上一页最后一行的主键续读)
+     *
+     * @param config
+     * @return
+     */
+    String getPageCursorSql(PageSqlConfig config);
+
+    /**
+     * 获取游标分页SQL参数
+     *
+     * @param args     游标条件参数
+     * @param pageSize
+     * @return
+     */
+    Object[] getPageCursorArgs(Object[] args, int pageSize);
+
+    /**
+     * 获取插入或更新SQL(按主键存在则更新, 否则插入), 参数顺序与插入SQL一致, 不支持时返回null
+     *
+     * @param config
+     * @return
+     */
+    String getUpsertSql(SqlBuilderConfig config);
+
 }
\ No newline at end of file
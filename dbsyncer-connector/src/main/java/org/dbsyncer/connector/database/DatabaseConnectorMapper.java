@@ -3,13 +3,18 @@ package org.dbsyncer.connector.database;
 import org.dbsyncer.connector.ConnectorException;
 import org.dbsyncer.connector.ConnectorMapper;
 import org.dbsyncer.connector.config.DatabaseConfig;
+import org.dbsyncer.connector.util.DatabaseUtil;
 import org.springframework.dao.EmptyResultDataAccessException;
 
 import java.sql.Connection;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Function;
 
 public class DatabaseConnectorMapper implements ConnectorMapper<DatabaseConfig, Connection> {
     protected DatabaseConfig config;
     protected Connection connection;
+    private final Deque<Connection> transactionConnections = new ConcurrentLinkedDeque<>();
 
     public DatabaseConnectorMapper(DatabaseConfig config, Connection connection) {
         this.config = config;
@@ -26,6 +31,85 @@ public class DatabaseConnectorMapper implements ConnectorMapper<DatabaseConfig,
         }
     }
 
+    /**
+     * 在同一事务中执行, 异常时回滚
+     * <p>使用独立连接(非自动提交), 不影响共享连接上其他线程的读写; 多线程并发时各自使用空闲连接
+     *
+     * @param callback
+     * @param <T>
+     * @return
+     */
+    public <T> T executeInTransaction(Function<DatabaseConnectorMapper, T> callback) {
+        Connection conn = transactionConnections.pollFirst();
+        try {
+            if (null == conn) {
+                conn = DatabaseUtil.getConnection(config);
+                conn.setAutoCommit(false);
+            }
+            T apply;
+            try {
+                apply = callback.apply(new DatabaseConnectorMapper(config, conn));
+                conn.commit();
+            } catch (Exception e) {
+                rollback(conn, e);
+                throw e;
+            }
+            transactionConnections.offerFirst(conn);
+            return apply;
+        } catch (ConnectorException e) {
+            // 已回滚, 连接可以复用
+            if (!isClosed(conn)) {
+                transactionConnections.offerFirst(conn);
+            }
+            throw e;
+        } catch (Exception e) {
+            // 回滚失败或连接异常, 关闭连接, 下次重新建立
+            closeQuietly(conn);
+            throw new ConnectorException(e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭事务连接
+     */
+    public void closeTransaction() {
+        Connection conn;
+        while (null != (conn = transactionConnections.pollFirst())) {
+            closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 回滚失败时关闭连接, 保留原始异常
+     *
+     * @param conn
+     * @param e
+     */
+    private void rollback(Connection conn, Exception e) {
+        try {
+            conn.rollback();
+        } catch (Exception rollback) {
+            e.addSuppressed(rollback);
+            closeQuietly(conn);
+        }
+    }
+
+    private boolean isClosed(Connection conn) {
+        try {
+            return conn.isClosed();
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private void closeQuietly(Connection conn) {
+        try {
+            DatabaseUtil.close(conn);
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
     @Override
     public DatabaseConfig getConfig() {
         return config;
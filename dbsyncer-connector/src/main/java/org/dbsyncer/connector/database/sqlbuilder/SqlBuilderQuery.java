@@ -20,15 +20,30 @@ public class SqlBuilderQuery extends AbstractSqlBuilder {
     public String buildSql(SqlBuilderConfig config) {
         // 分页语句
         Database database = config.getDatabase();
-        return database.getPageSql(new PageSqlConfig(buildQuerySql(config), config.getPk()));
+        return database.getPageSql(new PageSqlConfig(buildQuerySql(config), config.getPk(), config.getPrimaryKeys()));
     }
 
     @Override
     public String buildQuerySql(SqlBuilderConfig config) {
+        StringBuilder sql = buildSelectSql(config);
+        // 解析查询条件
+        String queryFilter = config.getQueryFilter();
+        if (StringUtil.isNotBlank(queryFilter)) {
+            sql.append(queryFilter);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 生成不带查询条件的SQL
+     *
+     * @param config
+     * @return
+     */
+    protected StringBuilder buildSelectSql(SqlBuilderConfig config) {
         String tableName = config.getTableName();
         List<Field> fields = config.getFields();
         String quotation = config.getQuotation();
-        String queryFilter = config.getQueryFilter();
 
         StringBuilder sql = new StringBuilder();
         int size = fields.size();
@@ -54,11 +69,7 @@ public class SqlBuilderQuery extends AbstractSqlBuilder {
         }
         // SELECT "ID","NAME" FROM "USER"
         sql.insert(0, "SELECT ").append(" FROM ").append(quotation).append(tableName).append(quotation);
-        // 解析查询条件
-        if (StringUtil.isNotBlank(queryFilter)) {
-            sql.append(queryFilter);
-        }
-        return sql.toString();
+        return sql;
     }
 
 }
\ No newline at end of file
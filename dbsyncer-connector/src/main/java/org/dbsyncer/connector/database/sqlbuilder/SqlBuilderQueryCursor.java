@@ -0,0 +1,70 @@
+package org.dbsyncer.connector.database.sqlbuilder;
+
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.connector.config.Field;
+import org.dbsyncer.connector.config.PageSqlConfig;
+import org.dbsyncer.connector.config.SqlBuilderConfig;
+import org.dbsyncer.connector.database.Database;
+import org.dbsyncer.connector.util.DatabaseUtil;
+
+import java.util.List;
+
+/**
+ * 游标查询SQL生成器(按主键续读，避免OFFSET/ROWNUM深分页重复扫描)
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/11/20 22:16
+ */
+public class SqlBuilderQueryCursor extends SqlBuilderQuery {
+
+    @Override
+    public String buildSql(SqlBuilderConfig config) {
+        // 主键必须在查询字段中，才能记录游标
+        List<String> primaryKeys = config.getPrimaryKeys();
+        if (CollectionUtils.isEmpty(primaryKeys) || !containsPrimaryKeys(config.getFields(), primaryKeys, config.getQuotation())) {
+            return "";
+        }
+
+        // SELECT "ID","NAME" FROM "USER" WHERE (过滤条件) AND ("ID" > ?)
+        StringBuilder sql = buildSelectSql(config);
+        String queryFilter = config.getQueryFilter();
+        if (StringUtil.isNotBlank(queryFilter)) {
+            sql.append(" WHERE (").append(StringUtil.replaceOnce(queryFilter, " WHERE ", "")).append(") AND (");
+        } else {
+            sql.append(" WHERE (");
+        }
+        sql.append(getCursorCondition(primaryKeys)).append(")");
+
+        Database database = config.getDatabase();
+        return database.getPageCursorSql(new PageSqlConfig(sql.toString(), config.getPk(), primaryKeys));
+    }
+
+    /**
+     * 游标条件, 例如 "ID" > ?
+     *
+     * @param primaryKeys
+     * @return
+     */
+    protected String getCursorCondition(List<String> primaryKeys) {
+        return DatabaseUtil.buildCursorCondition(primaryKeys);
+    }
+
+    private boolean containsPrimaryKeys(List<Field> fields, List<String> primaryKeys, String quotation) {
+        for (String pk : primaryKeys) {
+            boolean exist = false;
+            for (Field f : fields) {
+                if (!f.isUnmodifiabled() && StringUtil.isBlank(f.getLabelName()) && StringUtil.equals(pk, quotation + f.getName() + quotation)) {
+                    exist = true;
+                    break;
+                }
+            }
+            if (!exist) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.dbsyncer.connector.database.sqlbuilder;
+
+import org.dbsyncer.connector.config.SqlBuilderConfig;
+
+import java.util.List;
+
+/**
+ * 范围查询SQL生成器(单主键按区间拆分读取，区间内按主键续读)
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/11/27 21:08
+ */
+public class SqlBuilderQueryRange extends SqlBuilderQueryCursor {
+
+    @Override
+    public String buildSql(SqlBuilderConfig config) {
+        // 联合主键不支持区间拆分
+        List<String> primaryKeys = config.getPrimaryKeys();
+        if (null == primaryKeys || 1 != primaryKeys.size()) {
+            return "";
+        }
+        return super.buildSql(config);
+    }
+
+    @Override
+    protected String getCursorCondition(List<String> primaryKeys) {
+        // "ID" > ? AND "ID" <= ?
+        String pk = primaryKeys.get(0);
+        return new StringBuilder(pk).append(" > ? AND ").append(pk).append(" <= ?").toString();
+    }
+
+}
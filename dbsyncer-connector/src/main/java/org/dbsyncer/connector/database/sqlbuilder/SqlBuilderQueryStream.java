@@ -0,0 +1,19 @@
+package org.dbsyncer.connector.database.sqlbuilder;
+
+import org.dbsyncer.connector.config.SqlBuilderConfig;
+
+/**
+ * 流式查询SQL生成器(不分页，一次查询通过只读游标逐行读取)
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/11/28 20:41
+ */
+public class SqlBuilderQueryStream extends SqlBuilderQuery {
+
+    @Override
+    public String buildSql(SqlBuilderConfig config) {
+        return buildQuerySql(config);
+    }
+
+}
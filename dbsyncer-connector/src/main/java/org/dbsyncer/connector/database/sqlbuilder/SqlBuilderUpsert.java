@@ -0,0 +1,20 @@
+package org.dbsyncer.connector.database.sqlbuilder;
+
+import org.dbsyncer.connector.config.SqlBuilderConfig;
+import org.dbsyncer.connector.database.AbstractSqlBuilder;
+
+/**
+ * 插入或更新SQL生成器(按主键存在则更新, 否则插入), 由各数据库方言生成
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/02 21:08
+ */
+public class SqlBuilderUpsert extends AbstractSqlBuilder {
+
+    @Override
+    public String buildSql(SqlBuilderConfig config) {
+        return config.getDatabase().getUpsertSql(config);
+    }
+
+}
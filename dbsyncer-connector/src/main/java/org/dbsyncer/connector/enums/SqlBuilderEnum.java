@@ -25,10 +25,26 @@ public enum SqlBuilderEnum {
      * 删除SQL生成器
      */
     DELETE(ConnectorConstant.OPERTION_DELETE, new SqlBuilderDelete()),
+    /**
+     * 插入或更新SQL生成器
+     */
+    UPSERT(ConnectorConstant.OPERTION_UPSERT, new SqlBuilderUpsert()),
     /**
      * 查询SQL生成器
      */
-    QUERY(ConnectorConstant.OPERTION_QUERY, new SqlBuilderQuery());
+    QUERY(ConnectorConstant.OPERTION_QUERY, new SqlBuilderQuery()),
+    /**
+     * 游标查询SQL生成器
+     */
+    QUERY_CURSOR(ConnectorConstant.OPERTION_QUERY_CURSOR, new SqlBuilderQueryCursor()),
+    /**
+     * 范围查询SQL生成器
+     */
+    QUERY_RANGE(ConnectorConstant.OPERTION_QUERY_RANGE, new SqlBuilderQueryRange()),
+    /**
+     * 流式查询SQL生成器
+     */
+    QUERY_STREAM(ConnectorConstant.OPERTION_QUERY_STREAM, new SqlBuilderQueryStream());
 
     /**
      * SQL构造器名称
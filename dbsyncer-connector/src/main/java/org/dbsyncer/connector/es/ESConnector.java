@@ -8,13 +8,13 @@ import org.dbsyncer.connector.AbstractConnector;
 import org.dbsyncer.connector.Connector;
 import org.dbsyncer.connector.ConnectorException;
 import org.dbsyncer.connector.ConnectorMapper;
+import org.dbsyncer.connector.ReaderCallback;
 import org.dbsyncer.connector.config.*;
 import org.dbsyncer.connector.constant.ConnectorConstant;
 import org.dbsyncer.connector.enums.ESFieldTypeEnum;
 import org.dbsyncer.connector.enums.FilterEnum;
 import org.dbsyncer.connector.enums.OperationEnum;
 import org.dbsyncer.connector.util.ESUtil;
-import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -142,6 +142,39 @@ public final class ESConnector extends AbstractConnector implements Connector<ES
         }
     }
 
+    @Override
+    public long getCountEstimate(ESConnectorMapper connectorMapper, Map<String, String> command) {
+        // 统计命中数不扫描数据
+        return getCount(connectorMapper, command);
+    }
+
+    @Override
+    public void reader(ESConnectorMapper connectorMapper, ReaderConfig config, ReaderCallback callback) {
+        // 不支持只读游标, 按分页逐行回调
+        int pageIndex = config.getPageIndex();
+        for (; ; ) {
+            Result result = reader(connectorMapper, new ReaderConfig(config.getCommand(), new ArrayList<>(), pageIndex++, config.getPageSize()));
+            List<Map> data = result.getData();
+            if (CollectionUtils.isEmpty(data)) {
+                return;
+            }
+            for (Map row : data) {
+                if (!callback.apply(row)) {
+                    return;
+                }
+            }
+            if (data.size() < config.getPageSize()) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Object[] getRangeBoundary(ESConnectorMapper connectorMapper, Map<String, String> command) {
+        // 不支持按主键区间拆分
+        return null;
+    }
+
     @Override
     public Result reader(ESConnectorMapper connectorMapper, ReaderConfig config) {
         ESConfig cfg = connectorMapper.getConfig();
@@ -180,8 +213,14 @@ public final class ESConnector extends AbstractConnector implements Connector<ES
         Field pkField = getPrimaryKeyField(config.getFields());
         try {
             BulkRequest request = new BulkRequest();
+            final boolean delete = isDelete(config.getEvent());
             data.forEach(row -> {
-                IndexRequest r = new IndexRequest(cfg.getIndex(), cfg.getType(), String.valueOf(row.get(pkField.getName())));
+                String id = String.valueOf(row.get(pkField.getName()));
+                if (delete) {
+                    request.add(new DeleteRequest(cfg.getIndex(), cfg.getType(), id));
+                    return;
+                }
+                IndexRequest r = new IndexRequest(cfg.getIndex(), cfg.getType(), id);
                 r.source(row, XContentType.JSON);
                 request.add(r);
             });
@@ -207,29 +246,13 @@ public final class ESConnector extends AbstractConnector implements Connector<ES
         Field pkField = getPrimaryKeyField(config.getFields());
         String pk = String.valueOf(data.get(pkField.getName()));
 
-        if (isUpdate(config.getEvent())) {
-            return execute(connectorMapper, data, pk, (index, type, id) -> {
-                try {
-                    UpdateRequest request = new UpdateRequest(index, type, id);
-                    request.doc(data, XContentType.JSON);
-                    connectorMapper.getConnection().update(request, RequestOptions.DEFAULT);
-                } catch (ElasticsearchStatusException e) {
-                    // 数据不存在则写入
-                    if (RestStatus.NOT_FOUND.getStatus() == e.status().getStatus()) {
-                        IndexRequest r = new IndexRequest(index, type, id);
-                        r.source(data, XContentType.JSON);
-                        connectorMapper.getConnection().index(r, RequestOptions.DEFAULT);
-                        return;
-                    }
-                    throw new ConnectorException(e.getMessage());
-                }
-            });
-        }
-        if (isInsert(config.getEvent())) {
+        // 新增和修改: 文档存在则更新, 否则写入, 一次请求完成
+        if (isInsert(config.getEvent()) || isUpdate(config.getEvent())) {
             return execute(connectorMapper, data, pk, (index, type, id) -> {
-                IndexRequest request = new IndexRequest(index, type, id);
-                request.source(data, XContentType.JSON);
-                connectorMapper.getConnection().index(request, RequestOptions.DEFAULT);
+                UpdateRequest request = new UpdateRequest(index, type, id);
+                request.doc(data, XContentType.JSON);
+                request.docAsUpsert(true);
+                connectorMapper.getConnection().update(request, RequestOptions.DEFAULT);
             });
         }
         if (isDelete(config.getEvent())) {
@@ -1,11 +1,42 @@
 package org.dbsyncer.connector.mysql;
 
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.connector.ConnectorException;
+import org.dbsyncer.connector.config.DatabaseConfig;
+import org.dbsyncer.connector.config.Field;
 import org.dbsyncer.connector.config.PageSqlConfig;
+import org.dbsyncer.connector.config.SqlBuilderConfig;
+import org.dbsyncer.connector.config.WriterBatchConfig;
+import org.dbsyncer.connector.constant.ConnectorConstant;
 import org.dbsyncer.connector.constant.DatabaseConstant;
 import org.dbsyncer.connector.database.AbstractDatabaseConnector;
+import org.dbsyncer.connector.database.DatabaseConnectorMapper;
+import org.dbsyncer.connector.enums.SqlBuilderEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.StatementCallback;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 public final class MysqlConnector extends AbstractDatabaseConnector {
 
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 服务端max_allowed_packet缓存
+     */
+    private final Map<String, Integer> maxAllowedPacket = new ConcurrentHashMap<>();
+
     @Override
     protected String getTableSql() {
         return "show tables";
@@ -13,7 +44,7 @@ public final class MysqlConnector extends AbstractDatabaseConnector {
 
     @Override
     public String getPageSql(PageSqlConfig config) {
-        return config.getQuerySql() + DatabaseConstant.MYSQL_PAGE_SQL;
+        return config.getQuerySql() + getOrderByPrimaryKeys(config) + DatabaseConstant.MYSQL_PAGE_SQL;
     }
 
     @Override
@@ -21,4 +52,169 @@ public final class MysqlConnector extends AbstractDatabaseConnector {
         return new Object[]{(pageIndex - 1) * pageSize, pageSize};
     }
 
-}
\ No newline at end of file
+    @Override
+    public String getPageCursorSql(PageSqlConfig config) {
+        return config.getQuerySql() + getOrderByPrimaryKeys(config) + DatabaseConstant.MYSQL_PAGE_CURSOR_SQL;
+    }
+
+    @Override
+    protected int getStreamFetchSize(DatabaseConfig config, int pageSize) {
+        // 开启useCursorFetch时按fetchSize批量获取, 否则驱动只支持Integer.MIN_VALUE逐行流式读取
+        return StringUtil.contains(config.getUrl(), DatabaseConstant.MYSQL_USE_CURSOR_FETCH) ? pageSize : Integer.MIN_VALUE;
+    }
+
+    @Override
+    protected String getQueryCountEstimateSql(String tableName) {
+        return String.format(DatabaseConstant.MYSQL_COUNT_ESTIMATE_SQL, tableName);
+    }
+
+    @Override
+    public String getUpsertSql(SqlBuilderConfig config) {
+        List<Field> pks = getUpsertPrimaryKeys(config);
+        if (CollectionUtils.isEmpty(pks)) {
+            return null;
+        }
+        // INSERT INTO USER(ID, NAME) VALUES (?, ?) ON DUPLICATE KEY UPDATE NAME=VALUES(NAME)
+        String quotation = config.getQuotation();
+        List<Field> updates = config.getFields().stream().filter(f -> !f.isPk()).collect(Collectors.toList());
+        String updateSql = (updates.isEmpty() ? pks : updates).stream().map(f -> quotation + f.getName() + quotation).map(
+                name -> name + "=VALUES(" + name + ")").collect(Collectors.joining(","));
+        return SqlBuilderEnum.INSERT.getSqlBuilder().buildSql(config) + " ON DUPLICATE KEY UPDATE " + updateSql;
+    }
+
+    @Override
+    protected int getMultiInsertRows(DatabaseConnectorMapper connectorMapper, String insertSql, List<Field> fields, List<Map> data) {
+        DatabaseConfig config = connectorMapper.getConfig();
+        if (StringUtil.contains(config.getUrl(), DatabaseConstant.MYSQL_REWRITE_BATCHED_STATEMENTS)) {
+            return 1;
+        }
+        int maxPacket;
+        try {
+            maxPacket = maxAllowedPacket.computeIfAbsent(getConnectorMapperCacheKey(config),
+                    k -> connectorMapper.execute(databaseTemplate -> databaseTemplate.queryForObject("SELECT @@max_allowed_packet", Integer.class)));
+        } catch (Exception e) {
+            logger.warn("获取max_allowed_packet失败, 使用单行插入:{}", e.getMessage());
+            return 1;
+        }
+
+        // 按本批最大行估算语句长度, 预留1/4空间
+        long maxRowBytes = 1;
+        for (Map row : data) {
+            long rowBytes = 3;
+            for (Field f : fields) {
+                Object val = row.get(f.getName());
+                rowBytes += val instanceof byte[] ? ((byte[]) val).length * 2 + 3 : String.valueOf(val).length() * 3 + 3;
+            }
+            maxRowBytes = Math.max(maxRowBytes, rowBytes);
+        }
+        long rows = (maxPacket / 4 * 3 - insertSql.length()) / maxRowBytes;
+        return (int) Math.max(1, Math.min(rows, DatabaseConstant.MYSQL_MAX_PARAMETERS / fields.size()));
+    }
+
+    @Override
+    protected boolean bulkLoad(DatabaseConnectorMapper connectorMapper, WriterBatchConfig config) {
+        List<Field> fields = config.getFields();
+        List<Map> data = config.getData();
+        String tableName = config.getCommand().get(ConnectorConstant.OPERTION_BULK_LOAD);
+        String columns = fields.stream().map(f -> quote(f.getName())).collect(Collectors.joining(","));
+        String sql = String.format(DatabaseConstant.MYSQL_BULK_LOAD_SQL, quote(tableName), columns);
+
+        // 在内存中生成导入数据, 单条语句导入整批数据
+        byte[] bytes = toLocalInfile(fields, data);
+        // LOCAL模式下主键冲突和转换失败的数据行会被跳过, 在独立事务中导入, 有跳过的行时回滚后转为批量写入, 由批量写入记录失败数据
+        connectorMapper.executeInTransaction(mapper -> mapper.execute(databaseTemplate -> databaseTemplate.execute((StatementCallback<Integer>) statement -> {
+            statement.unwrap(com.mysql.jdbc.Statement.class).setLocalInfileInputStream(new ByteArrayInputStream(bytes));
+            int count = statement.executeUpdate(sql);
+            if (count < data.size()) {
+                throw new ConnectorException(String.format("原生批量导入跳过%s条数据:%s", data.size() - count, tableName));
+            }
+            return count;
+        })));
+        return true;
+    }
+
+    /**
+     * 表名和字段名加反引号, 避免与关键字冲突
+     *
+     * @param name
+     * @return
+     */
+    private String quote(String name) {
+        if (name.startsWith("`") && name.endsWith("`") && name.length() > 1) {
+            return name;
+        }
+        return "`" + name.replace("`", "``") + "`";
+    }
+
+    /**
+     * 转换为导入数据(字段以\t分隔, 行以\n分隔, \N表示null)
+     *
+     * @param fields
+     * @param data
+     * @return
+     */
+    private byte[] toLocalInfile(List<Field> fields, List<Map> data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.size() * fields.size() * 16);
+        final int fSize = fields.size();
+        for (Map row : data) {
+            for (int i = 0; i < fSize; i++) {
+                if (i > 0) {
+                    out.write('\t');
+                }
+                Object val = row.get(fields.get(i).getName());
+                if (null == val) {
+                    out.write('\\');
+                    out.write('N');
+                    continue;
+                }
+                writeEscaped(out, val instanceof byte[] ? (byte[]) val : toText(val).getBytes(StandardCharsets.UTF_8));
+            }
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+    private String toText(Object val) {
+        if (val instanceof Boolean) {
+            return (Boolean) val ? "1" : "0";
+        }
+        if (val instanceof BigDecimal) {
+            return ((BigDecimal) val).toPlainString();
+        }
+        // java.sql.Date/Time/Timestamp格式可直接导入
+        if (val instanceof Date && !(val instanceof java.sql.Date) && !(val instanceof java.sql.Time) && !(val instanceof Timestamp)) {
+            return new Timestamp(((Date) val).getTime()).toString();
+        }
+        return String.valueOf(val);
+    }
+
+    private void writeEscaped(ByteArrayOutputStream out, byte[] bytes) {
+        for (byte b : bytes) {
+            switch (b) {
+                case '\\':
+                    out.write('\\');
+                    out.write('\\');
+                    break;
+                case '\t':
+                    out.write('\\');
+                    out.write('t');
+                    break;
+                case '\n':
+                    out.write('\\');
+                    out.write('n');
+                    break;
+                case '\r':
+                    out.write('\\');
+                    out.write('r');
+                    break;
+                case 0:
+                    out.write('\\');
+                    out.write('0');
+                    break;
+                default:
+                    out.write(b);
+            }
+        }
+    }
+
+}
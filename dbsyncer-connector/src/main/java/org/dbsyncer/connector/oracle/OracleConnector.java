@@ -1,12 +1,20 @@
 package org.dbsyncer.connector.oracle;
 
 import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.connector.config.Field;
 import org.dbsyncer.connector.config.PageSqlConfig;
+import org.dbsyncer.connector.config.SqlBuilderConfig;
 import org.dbsyncer.connector.config.Table;
+import org.dbsyncer.connector.config.WriterBatchConfig;
 import org.dbsyncer.connector.constant.DatabaseConstant;
 import org.dbsyncer.connector.database.AbstractDatabaseConnector;
 import org.dbsyncer.connector.database.DatabaseConnectorMapper;
+import org.dbsyncer.connector.enums.SqlBuilderEnum;
+import org.dbsyncer.connector.util.DatabaseUtil;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Types;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -31,7 +39,7 @@ public final class OracleConnector extends AbstractDatabaseConnector {
 
     @Override
     public String getPageSql(PageSqlConfig config) {
-        return DatabaseConstant.ORACLE_PAGE_SQL_START + config.getQuerySql() + DatabaseConstant.ORACLE_PAGE_SQL_END;
+        return DatabaseConstant.ORACLE_PAGE_SQL_START + config.getQuerySql() + getOrderByPrimaryKeys(config) + DatabaseConstant.ORACLE_PAGE_SQL_END;
     }
 
     @Override
@@ -39,11 +47,92 @@ public final class OracleConnector extends AbstractDatabaseConnector {
         return new Object[]{pageIndex * pageSize, (pageIndex - 1) * pageSize};
     }
 
+    @Override
+    public String getPageCursorSql(PageSqlConfig config) {
+        return DatabaseConstant.ORACLE_PAGE_CURSOR_SQL_START + config.getQuerySql() + getOrderByPrimaryKeys(config) + DatabaseConstant.ORACLE_PAGE_CURSOR_SQL_END;
+    }
+
     @Override
     protected String buildSqlWithQuotation() {
         return "\"";
     }
 
+    @Override
+    protected String getQueryCountEstimateSql(String tableName) {
+        // 指定用户的表, 例如 SCOTT.EMP
+        int index = tableName.lastIndexOf('.');
+        if (0 < index) {
+            String owner = "'" + tableName.substring(0, index) + "'";
+            return String.format(DatabaseConstant.ORACLE_COUNT_ESTIMATE_SQL, owner, tableName.substring(index + 1));
+        }
+        return String.format(DatabaseConstant.ORACLE_COUNT_ESTIMATE_SQL, DatabaseConstant.ORACLE_CURRENT_SCHEMA, tableName);
+    }
+
+    /**
+     * 插入或更新SQL
+     * <pre>
+     *  MERGE INTO "USER" T USING (SELECT ? "ID", ? "NAME" FROM DUAL) S ON (T."ID"=S."ID")
+     *  WHEN MATCHED THEN UPDATE SET T."NAME"=S."NAME" WHEN NOT MATCHED THEN INSERT ("ID","NAME") VALUES (S."ID",S."NAME")
+     * </pre>
+     *
+     * @param config
+     * @return
+     */
+    @Override
+    public String getUpsertSql(SqlBuilderConfig config) {
+        List<Field> pks = getUpsertPrimaryKeys(config);
+        List<Field> fields = config.getFields();
+        // 大字段不能作为查询列绑定参数, 仍按更新或插入执行
+        if (CollectionUtils.isEmpty(pks) || fields.stream().anyMatch(f -> isLob(f.getType()))) {
+            return null;
+        }
+        String q = config.getQuotation();
+        StringBuilder sql = new StringBuilder("MERGE INTO ").append(q).append(config.getTableName()).append(q).append(" T USING (SELECT ");
+        sql.append(fields.stream().map(f -> "? " + q + f.getName() + q).collect(Collectors.joining(", ")));
+        sql.append(" FROM DUAL) S ON (");
+        sql.append(pks.stream().map(f -> "T." + q + f.getName() + q + "=S." + q + f.getName() + q).collect(Collectors.joining(" AND ")));
+        sql.append(")");
+        // 只有主键字段时不需要更新
+        String updateSql = fields.stream().filter(f -> !f.isPk()).map(f -> "T." + q + f.getName() + q + "=S." + q + f.getName() + q).collect(
+                Collectors.joining(","));
+        if (!updateSql.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ").append(updateSql);
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(fields.stream().map(f -> q + f.getName() + q).collect(Collectors.joining(",")));
+        sql.append(") VALUES (").append(fields.stream().map(f -> "S." + q + f.getName() + q).collect(Collectors.joining(","))).append(")");
+        return sql.toString();
+    }
+
+    @Override
+    protected boolean bulkLoad(DatabaseConnectorMapper connectorMapper, WriterBatchConfig config) {
+        String insertSql = config.getCommand().get(SqlBuilderEnum.INSERT.getName());
+        String sql = insertSql.replaceFirst("INSERT INTO", DatabaseConstant.ORACLE_BULK_LOAD_HINT);
+        List<Field> fields = config.getFields();
+        List<Map> data = config.getData();
+        final int fSize = fields.size();
+
+        // 直接路径插入在事务提交前不能再访问该表, 使用事务连接按批提交, 失败时整批回滚
+        return connectorMapper.executeInTransaction(mapper -> mapper.execute(databaseTemplate -> {
+            Connection connection = databaseTemplate.getConnection();
+            PreparedStatement ps = null;
+            try {
+                ps = connection.prepareStatement(sql);
+                for (Map row : data) {
+                    batchRowsSetter(connection, ps, fields, fSize, row);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            } finally {
+                DatabaseUtil.close(ps);
+            }
+            return true;
+        }));
+    }
+
+    private boolean isLob(int type) {
+        return Types.CLOB == type || Types.NCLOB == type || Types.BLOB == type || Types.LONGVARCHAR == type || Types.LONGVARBINARY == type;
+    }
+
     @Override
     protected String getValidationQuery() {
         return "select 1 from dual";
@@ -1,5 +1,6 @@
 package org.dbsyncer.connector.sql;
 
+import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.config.*;
 import org.dbsyncer.connector.constant.DatabaseConstant;
 import org.dbsyncer.connector.database.AbstractDatabaseConnector;
@@ -25,6 +26,17 @@ public final class DQLMysqlConnector extends AbstractDatabaseConnector {
         return new Object[]{(pageIndex - 1) * pageSize, pageSize};
     }
 
+    @Override
+    public String getPageCursorSql(PageSqlConfig config) {
+        return config.getQuerySql() + getOrderByPrimaryKeys(config) + DatabaseConstant.MYSQL_PAGE_CURSOR_SQL;
+    }
+
+    @Override
+    protected int getStreamFetchSize(DatabaseConfig config, int pageSize) {
+        // 开启useCursorFetch时按fetchSize批量获取, 否则驱动只支持Integer.MIN_VALUE逐行流式读取
+        return StringUtil.contains(config.getUrl(), DatabaseConstant.MYSQL_USE_CURSOR_FETCH) ? pageSize : Integer.MIN_VALUE;
+    }
+
     @Override
     public List<Table> getTable(DatabaseConnectorMapper config) {
         return super.getDqlTable(config);
@@ -25,6 +25,11 @@ public final class DQLOracleConnector extends AbstractDatabaseConnector {
         return new Object[] {pageIndex * pageSize, (pageIndex - 1) * pageSize};
     }
 
+    @Override
+    public String getPageCursorSql(PageSqlConfig config) {
+        return DatabaseConstant.ORACLE_PAGE_CURSOR_SQL_START + config.getQuerySql() + getOrderByPrimaryKeys(config) + DatabaseConstant.ORACLE_PAGE_CURSOR_SQL_END;
+    }
+
     @Override
     public List<Table> getTable(DatabaseConnectorMapper config) {
         return super.getDqlTable(config);
@@ -48,6 +48,16 @@ public final class DQLSqlServerConnector extends AbstractDatabaseConnector {
         return new Object[]{(pageIndex - 1) * pageSize + 1, pageIndex * pageSize};
     }
 
+    @Override
+    public String getPageCursorSql(PageSqlConfig config) {
+        return String.format(DatabaseConstant.SQLSERVER_PAGE_CURSOR_SQL, config.getQuerySql(), StringUtil.join(config.getPrimaryKeys(), ","));
+    }
+
+    @Override
+    protected boolean isPageSizeFirst() {
+        return true;
+    }
+
     @Override
     public List<Table> getTable(DatabaseConnectorMapper config) {
         return super.getDqlTable(config);
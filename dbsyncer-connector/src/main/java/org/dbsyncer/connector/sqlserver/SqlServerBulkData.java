@@ -0,0 +1,132 @@
+package org.dbsyncer.connector.sqlserver;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import org.dbsyncer.connector.config.Field;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SqlServer原生导入数据源, 按字段顺序逐行提供数据
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/11/30 22:15
+ */
+public final class SqlServerBulkData implements ISQLServerBulkData {
+
+    /**
+     * 数值类型最大精度
+     */
+    private static final int MAX_PRECISION = 38;
+
+    private final List<Field> fields;
+    private final List<Map> data;
+    private final Set<Integer> columnOrdinals = new LinkedHashSet<>();
+    private final int[] precision;
+    private final int[] scale;
+    private int rowIndex = -1;
+
+    public SqlServerBulkData(List<Field> fields, List<Map> data) {
+        this.fields = fields;
+        this.data = data;
+        int size = fields.size();
+        this.precision = new int[size];
+        this.scale = new int[size];
+        for (int i = 0; i < size; i++) {
+            columnOrdinals.add(i + 1);
+            computePrecision(i, fields.get(i));
+        }
+    }
+
+    @Override
+    public Set<Integer> getColumnOrdinals() {
+        return columnOrdinals;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return fields.get(column - 1).getName();
+    }
+
+    @Override
+    public int getColumnType(int column) {
+        return fields.get(column - 1).getType();
+    }
+
+    @Override
+    public int getPrecision(int column) {
+        return precision[column - 1];
+    }
+
+    @Override
+    public int getScale(int column) {
+        return scale[column - 1];
+    }
+
+    @Override
+    public Object[] getRowData() {
+        Map row = data.get(rowIndex);
+        int size = fields.size();
+        Object[] rowData = new Object[size];
+        for (int i = 0; i < size; i++) {
+            rowData[i] = row.get(fields.get(i).getName());
+        }
+        return rowData;
+    }
+
+    @Override
+    public boolean next() {
+        return ++rowIndex < data.size();
+    }
+
+    /**
+     * 数值类型取最大精度和本批数据的最大小数位, 字符和二进制类型取本批数据的最大长度
+     *
+     * @param index
+     * @param field
+     */
+    private void computePrecision(int index, Field field) {
+        switch (field.getType()) {
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                precision[index] = MAX_PRECISION;
+                for (Map row : data) {
+                    Object val = row.get(field.getName());
+                    if (val instanceof BigDecimal) {
+                        scale[index] = Math.max(scale[index], ((BigDecimal) val).scale());
+                    }
+                }
+                break;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                precision[index] = 1;
+                for (Map row : data) {
+                    Object val = row.get(field.getName());
+                    int length = 0;
+                    if (val instanceof byte[]) {
+                        length = ((byte[]) val).length;
+                    } else if (null != val) {
+                        length = String.valueOf(val).getBytes(StandardCharsets.UTF_8).length;
+                    }
+                    precision[index] = Math.max(precision[index], length);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+}
@@ -1,21 +1,30 @@
 package org.dbsyncer.connector.sqlserver;
 
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.ConnectorException;
 import org.dbsyncer.connector.ConnectorMapper;
 import org.dbsyncer.connector.config.CommandConfig;
 import org.dbsyncer.connector.config.DatabaseConfig;
+import org.dbsyncer.connector.config.Field;
 import org.dbsyncer.connector.config.PageSqlConfig;
+import org.dbsyncer.connector.config.SqlBuilderConfig;
 import org.dbsyncer.connector.config.Table;
+import org.dbsyncer.connector.config.WriterBatchConfig;
 import org.dbsyncer.connector.constant.ConnectorConstant;
 import org.dbsyncer.connector.constant.DatabaseConstant;
 import org.dbsyncer.connector.database.AbstractDatabaseConnector;
+import org.dbsyncer.connector.database.DatabaseConnectorMapper;
 import org.dbsyncer.connector.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public final class SqlServerConnector extends AbstractDatabaseConnector implements SqlServer {
 
@@ -42,7 +51,9 @@ public final class SqlServerConnector extends AbstractDatabaseConnector implemen
             logger.error("Table primary key can not be empty.");
             throw new ConnectorException("Table primary key can not be empty.");
         }
-        return String.format(DatabaseConstant.SQLSERVER_PAGE_SQL, config.getPk(), config.getQuerySql());
+        // 联合主键按所有主键排序
+        String orderBy = CollectionUtils.isEmpty(config.getPrimaryKeys()) ? config.getPk() : StringUtil.join(config.getPrimaryKeys(), ",");
+        return String.format(DatabaseConstant.SQLSERVER_PAGE_SQL, orderBy, config.getQuerySql());
     }
 
     @Override
@@ -50,6 +61,16 @@ public final class SqlServerConnector extends AbstractDatabaseConnector implemen
         return new Object[]{(pageIndex - 1) * pageSize + 1, pageIndex * pageSize};
     }
 
+    @Override
+    public String getPageCursorSql(PageSqlConfig config) {
+        return String.format(DatabaseConstant.SQLSERVER_PAGE_CURSOR_SQL, config.getQuerySql(), StringUtil.join(config.getPrimaryKeys(), ","));
+    }
+
+    @Override
+    protected boolean isPageSizeFirst() {
+        return true;
+    }
+
     @Override
     public Map<String, String> getSourceCommand(CommandConfig commandConfig) {
         // 获取过滤SQL
@@ -58,21 +79,88 @@ public final class SqlServerConnector extends AbstractDatabaseConnector implemen
         // 获取查询SQL
         Table table = commandConfig.getTable();
         Map<String, String> map = new HashMap<>();
-
-        String query = ConnectorConstant.OPERTION_QUERY;
-        map.put(query, this.buildSql(query, table, commandConfig.getOriginalTable(), queryFilterSql));
+        this.putQueryCommand(map, table, commandConfig.getOriginalTable(), queryFilterSql);
 
         // 获取查询总数SQL
         StringBuilder queryCount = new StringBuilder();
+        queryCount.append("SELECT COUNT(*) FROM ").append(table.getName());
         if (StringUtil.isNotBlank(queryFilterSql)) {
-            queryCount.append("SELECT COUNT(*) FROM ").append(table.getName()).append(queryFilterSql);
-        } else {
-            // 从存储过程查询（定时更新总数，可能存在误差）
-            queryCount.append("SELECT ROWS FROM SYSINDEXES WHERE ID = OBJECT_ID('").append("DBO.").append(table.getName()).append(
-                    "') AND INDID IN (0, 1)");
+            queryCount.append(queryFilterSql);
         }
         map.put(ConnectorConstant.OPERTION_QUERY_COUNT, queryCount.toString());
+
+        // 从分区统计查询估算总数（可能存在误差）
+        putQueryCountEstimateCommand(map, table.getName(), queryFilterSql);
         return map;
     }
 
+    @Override
+    protected String getQueryCountEstimateSql(String tableName) {
+        return String.format(DatabaseConstant.SQLSERVER_COUNT_ESTIMATE_SQL, tableName);
+    }
+
+    /**
+     * 插入或更新SQL
+     * <pre>
+     *  MERGE INTO USER WITH (HOLDLOCK) AS T USING (VALUES (?, ?)) AS S(ID,NAME) ON T.ID=S.ID
+     *  WHEN MATCHED THEN UPDATE SET T.NAME=S.NAME WHEN NOT MATCHED THEN INSERT (ID,NAME) VALUES (S.ID,S.NAME);
+     * </pre>
+     *
+     * @param config
+     * @return
+     */
+    @Override
+    public String getUpsertSql(SqlBuilderConfig config) {
+        List<Field> pks = getUpsertPrimaryKeys(config);
+        if (CollectionUtils.isEmpty(pks)) {
+            return null;
+        }
+        List<Field> fields = config.getFields();
+        String columns = fields.stream().map(Field::getName).collect(Collectors.joining(","));
+        StringBuilder sql = new StringBuilder("MERGE INTO ").append(config.getTableName()).append(" WITH (HOLDLOCK) AS T USING (VALUES (");
+        sql.append(fields.stream().map(f -> "?").collect(Collectors.joining(", ")));
+        sql.append(")) AS S(").append(columns).append(") ON ");
+        sql.append(pks.stream().map(f -> "T." + f.getName() + "=S." + f.getName()).collect(Collectors.joining(" AND ")));
+        // 只有主键字段时不需要更新
+        String updateSql = fields.stream().filter(f -> !f.isPk()).map(f -> "T." + f.getName() + "=S." + f.getName()).collect(Collectors.joining(","));
+        if (StringUtil.isNotBlank(updateSql)) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ").append(updateSql);
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(columns).append(") VALUES (");
+        sql.append(fields.stream().map(f -> "S." + f.getName()).collect(Collectors.joining(","))).append(");");
+        return sql.toString();
+    }
+
+    @Override
+    protected int getMultiInsertRows(DatabaseConnectorMapper connectorMapper, String insertSql, List<Field> fields, List<Map> data) {
+        // 单条语句最多2100个参数(预留1个), VALUES最多1000行
+        return Math.min(DatabaseConstant.SQLSERVER_MAX_INSERT_ROWS, (DatabaseConstant.SQLSERVER_MAX_PARAMETERS - 1) / fields.size());
+    }
+
+    @Override
+    protected boolean bulkLoad(DatabaseConnectorMapper connectorMapper, WriterBatchConfig config) {
+        String tableName = config.getCommand().get(ConnectorConstant.OPERTION_BULK_LOAD);
+        List<Field> fields = config.getFields();
+        Boolean loaded = connectorMapper.execute(databaseTemplate -> {
+            // 整批在内部事务中提交, 失败时回滚后转为批量写入
+            SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+            options.setUseInternalTransaction(true);
+            options.setBulkCopyTimeout(0);
+
+            SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(databaseTemplate.getConnection());
+            try {
+                bulkCopy.setBulkCopyOptions(options);
+                bulkCopy.setDestinationTableName(tableName);
+                for (int i = 0; i < fields.size(); i++) {
+                    bulkCopy.addColumnMapping(i + 1, fields.get(i).getName());
+                }
+                bulkCopy.writeToServer(new SqlServerBulkData(fields, config.getData()));
+            } finally {
+                bulkCopy.close();
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(loaded);
+    }
+
 }
\ No newline at end of file
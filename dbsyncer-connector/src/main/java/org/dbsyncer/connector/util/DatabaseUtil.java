@@ -108,6 +108,71 @@ public abstract class DatabaseUtil {
         return "";
     }
 
+    /**
+     * 返回所有主键名称(联合主键按字段顺序)
+     *
+     * @param table
+     * @param quotation
+     * @return
+     */
+    public static List<String> findTablePrimaryKeys(Table table, String quotation) {
+        List<String> primaryKeys = new ArrayList<>();
+        if (null != table && !CollectionUtils.isEmpty(table.getColumn())) {
+            for (Field c : table.getColumn()) {
+                if (c.isPk()) {
+                    primaryKeys.add(new StringBuilder(quotation).append(c.getName()).append(quotation).toString());
+                }
+            }
+        }
+        return primaryKeys;
+    }
+
+    /**
+     * 生成游标条件, 按主键顺序比较
+     * <pre>
+     *     单主键: "ID" > ?
+     *     联合主键: ("A" > ?) OR ("A" = ? AND "B" > ?)
+     * </pre>
+     *
+     * @param primaryKeys
+     * @return
+     */
+    public static String buildCursorCondition(List<String> primaryKeys) {
+        int size = primaryKeys.size();
+        if (1 == size) {
+            return primaryKeys.get(0) + " > ?";
+        }
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append("(");
+            for (int j = 0; j < i; j++) {
+                sql.append(primaryKeys.get(j)).append(" = ? AND ");
+            }
+            sql.append(primaryKeys.get(i)).append(" > ?)");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 展开游标参数, 与{@link #buildCursorCondition(List)}占位符一一对应
+     *
+     * @param cursors
+     * @return
+     */
+    public static Object[] buildCursorArgs(Object[] cursors) {
+        int size = cursors.length;
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j <= i; j++) {
+                args.add(cursors[j]);
+            }
+        }
+        return args.toArray();
+    }
+
     private static boolean isPk(Map<String, List<String>> tables, String tableName, String name) {
         List<String> pk = tables.get(tableName);
         return !CollectionUtils.isEmpty(pk) && pk.contains(name);
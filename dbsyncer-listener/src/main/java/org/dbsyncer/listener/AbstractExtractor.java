@@ -7,9 +7,12 @@ import org.dbsyncer.connector.ConnectorFactory;
 import org.dbsyncer.connector.config.ConnectorConfig;
 import org.dbsyncer.listener.config.ListenerConfig;
 import org.dbsyncer.listener.quartz.ScheduledTaskService;
+import org.dbsyncer.listener.spool.RowChangedEventCodec;
+import org.dbsyncer.listener.spool.Spool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,7 +34,23 @@ public abstract class AbstractExtractor implements Extractor {
     protected ListenerConfig listenerConfig;
     protected Map<String, String> snapshot;
     protected Set<String> filterTable;
+    protected Map<String, int[]> primaryKeyIndex;
+    protected Map<String, int[]> projection;
+    protected int laneNum = 1;
+    protected int laneQueueSize = 1000;
+    protected Spool spool;
+    protected int transactionSize;
     private List<Event> watcher;
+    private volatile LaneDispatcher dispatcher;
+    private volatile TransactionScheduler scheduler;
+    private volatile long dispatchedOffset;
+    private Thread spoolReader;
+    private long[] spoolAckMark;
+    private long spoolAckOffset = -1;
+    private OffsetTracker offsetTracker = new OffsetTracker(null);
+    private Map<String, String> committed;
+    private final Object flushLock = new Object();
+    private static final long SPOOL_POLL_TIMEOUT = 1000;
 
     @Override
     public void addListener(Event event) {
@@ -59,18 +78,20 @@ public abstract class AbstractExtractor implements Extractor {
     }
 
     @Override
-    public void flushEvent() {
-        if (!CollectionUtils.isEmpty(watcher)) {
-            watcher.forEach(w -> w.flushEvent(snapshot));
+    public void changedEvent(List<RowChangedEvent> events) {
+        if (!CollectionUtils.isEmpty(watcher) && !CollectionUtils.isEmpty(events)) {
+            watcher.forEach(w -> w.changedEvent(events));
         }
     }
 
+    @Override
+    public void flushEvent() {
+        flush(false);
+    }
+
     @Override
     public void forceFlushEvent() {
-        if (!CollectionUtils.isEmpty(watcher)) {
-            logger.info("Force flush:{}", snapshot);
-            watcher.forEach(w -> w.forceFlushEvent(snapshot));
-        }
+        flush(true);
     }
 
     @Override
@@ -87,8 +108,201 @@ public abstract class AbstractExtractor implements Extractor {
         }
     }
 
+    /**
+     * 按表名+主键分发到通道异步处理, 同一主键按源顺序生效
+     * <p>开启本地缓存时, 先写入缓存再由读取线程分发
+     *
+     * @param event
+     */
     protected void asynSendRowChangedEvent(RowChangedEvent event) {
-        taskExecutor.execute(() -> changedEvent(event));
+        if (null != spool) {
+            spool.append(RowChangedEventCodec.encode(event));
+            return;
+        }
+        getDispatcher().dispatch(event);
+    }
+
+    /**
+     * 发送同一源库事务的变更
+     * <p>多通道时按写集合调度, 无冲突的事务并行写入, 冲突的事务按提交顺序写入; 单通道时在当前线程处理
+     *
+     * @param events
+     */
+    protected void sendTransaction(List<RowChangedEvent> events) {
+        if (laneNum <= 1) {
+            changedEvent(events);
+            return;
+        }
+        getScheduler().schedule(events);
+    }
+
+    /**
+     * 启动本地缓存读取线程, 从上次确认的位置重放未处理的事件
+     */
+    protected void startSpool() {
+        if (null == spool || null != spoolReader) {
+            return;
+        }
+        // 增量点已重置, 丢弃旧的缓存
+        if (CollectionUtils.isEmpty(snapshot)) {
+            spool.clear();
+        }
+        dispatchedOffset = spool.getReadOffset();
+        spoolReader = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    byte[] data = spool.poll(SPOOL_POLL_TIMEOUT);
+                    if (null != data) {
+                        getDispatcher().dispatch(RowChangedEventCodec.decode(data));
+                        dispatchedOffset = spool.getReadOffset();
+                    }
+                } catch (InterruptedException e) {
+                    break;
+                } catch (Exception e) {
+                    logger.error("读取增量缓存异常:{}", e.getMessage());
+                    interruptException(e);
+                    break;
+                }
+            }
+        });
+        spoolReader.setName(new StringBuilder("spool-reader-").append(connectorConfig.getConnectorType()).toString());
+        spoolReader.setDaemon(true);
+        spoolReader.start();
+    }
+
+    /**
+     * 记录当前增量点, 之前分发的事件全部处理完成后才会提交
+     * <p>开启本地缓存时, 事件写入缓存即可提交
+     */
+    protected void markPosition() {
+        Dispatcher d = getActiveDispatcher();
+        boolean async = null != d && (d == scheduler || null == spool);
+        offsetTracker.mark(async ? d.mark() : null, snapshot);
+    }
+
+    /**
+     * 提交增量点
+     * <ol>
+     * <li>开启本地缓存时先刷盘</li>
+     * <li>只提交之前的事件全部处理完成的增量点(低水位)</li>
+     * <li>监听器先处理缓存的批量数据, 再持久化增量点</li>
+     * <li>上次记录的缓存位置之前的事件已处理完成时, 确认缓存位置</li>
+     * <li>监听器处理失败时停止任务, 不提交增量点和缓存位置</li>
+     * </ol>
+     *
+     * @param force 是否强制持久化
+     */
+    private void flush(boolean force) {
+        if (CollectionUtils.isEmpty(watcher)) {
+            return;
+        }
+        synchronized (flushLock) {
+            final LaneDispatcher d = dispatcher;
+            if (null != spool) {
+                spool.sync();
+            }
+            boolean ack = 0 <= spoolAckOffset && (null == spoolAckMark || (null != d && d.isCompleted(spoolAckMark)));
+
+            Map<String, String> position = offsetTracker.commit(getActiveDispatcher());
+            if (force) {
+                logger.info("Force flush:{}", position);
+            }
+            try {
+                if (force || !position.equals(committed)) {
+                    watcher.forEach(w -> w.forceFlushEvent(position));
+                } else {
+                    watcher.forEach(w -> w.flushEvent(position));
+                }
+            } catch (Exception e) {
+                logger.error("提交增量点异常:{}", e.getMessage());
+                interruptException(e);
+                return;
+            }
+            committed = position;
+
+            if (null != spool) {
+                if (ack) {
+                    spool.ack(spoolAckOffset);
+                }
+                spoolAckOffset = dispatchedOffset;
+                spoolAckMark = null != d ? d.mark() : null;
+            }
+        }
+    }
+
+    private LaneDispatcher getDispatcher() {
+        if (null == dispatcher) {
+            synchronized (this) {
+                if (null == dispatcher) {
+                    dispatcher = new LaneDispatcher(connectorConfig.getConnectorType(), laneNum, laneQueueSize, primaryKeyIndex, this::changedEvent,
+                            this::interruptException);
+                }
+            }
+        }
+        return dispatcher;
+    }
+
+    private TransactionScheduler getScheduler() {
+        if (null == scheduler) {
+            synchronized (this) {
+                if (null == scheduler) {
+                    scheduler = new TransactionScheduler(connectorConfig.getConnectorType(), laneNum, primaryKeyIndex, this::changedEvent,
+                            this::interruptException);
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * 按事务调度时使用事务调度器, 否则使用分发通道
+     *
+     * @return
+     */
+    private Dispatcher getActiveDispatcher() {
+        TransactionScheduler s = scheduler;
+        return null != s ? s : dispatcher;
+    }
+
+    /**
+     * 获取分发通道指标
+     *
+     * @return
+     */
+    public LaneMetric getLaneMetric() {
+        LaneMetric metric = new LaneMetric();
+        LaneDispatcher d = dispatcher;
+        if (null != d) {
+            metric.merge(d.getMetric());
+        }
+        TransactionScheduler s = scheduler;
+        if (null != s) {
+            metric.merge(s.getMetric());
+        }
+        return metric;
+    }
+
+    /**
+     * 停止分发通道、事务调度和本地缓存
+     */
+    protected void closeDispatcher() {
+        synchronized (this) {
+            if (null != spoolReader) {
+                spoolReader.interrupt();
+                spoolReader = null;
+            }
+            if (null != spool) {
+                spool.close();
+            }
+            if (null != dispatcher) {
+                dispatcher.close();
+                dispatcher = null;
+            }
+            if (null != scheduler) {
+                scheduler.close();
+                scheduler = null;
+            }
+        }
     }
 
     public void setTaskExecutor(Executor taskExecutor) {
@@ -113,9 +327,35 @@ public abstract class AbstractExtractor implements Extractor {
 
     public void setSnapshot(Map<String, String> snapshot) {
         this.snapshot = snapshot;
+        this.offsetTracker = new OffsetTracker(snapshot);
+        this.committed = new HashMap<>(snapshot);
     }
 
     public void setFilterTable(Set<String> filterTable) {
         this.filterTable = filterTable;
     }
+
+    public void setPrimaryKeyIndex(Map<String, int[]> primaryKeyIndex) {
+        this.primaryKeyIndex = primaryKeyIndex;
+    }
+
+    public void setProjection(Map<String, int[]> projection) {
+        this.projection = projection;
+    }
+
+    public void setLaneNum(int laneNum) {
+        this.laneNum = laneNum;
+    }
+
+    public void setLaneQueueSize(int laneQueueSize) {
+        this.laneQueueSize = laneQueueSize;
+    }
+
+    public void setSpool(Spool spool) {
+        this.spool = spool;
+    }
+
+    public void setTransactionSize(int transactionSize) {
+        this.transactionSize = transactionSize;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package org.dbsyncer.listener;
+
+/**
+ * 增量事件异步分发, 用于按低水位提交增量点
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/18 20:10
+ */
+public interface Dispatcher {
+
+    /**
+     * 记录已分发的事件数
+     *
+     * @return
+     */
+    long[] mark();
+
+    /**
+     * 标记前分发的事件是否全部处理完成
+     *
+     * @param mark
+     * @return
+     */
+    boolean isCompleted(long[] mark);
+
+    /**
+     * 获取分发指标
+     *
+     * @return
+     */
+    LaneMetric getMetric();
+
+    /**
+     * 停止分发
+     */
+    void close();
+
+}
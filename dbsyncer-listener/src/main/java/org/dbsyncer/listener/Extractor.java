@@ -3,6 +3,8 @@ package org.dbsyncer.listener;
 import org.dbsyncer.common.event.Event;
 import org.dbsyncer.common.event.RowChangedEvent;
 
+import java.util.List;
+
 public interface Extractor {
 
     /**
@@ -34,6 +36,13 @@ public interface Extractor {
      */
     void changedEvent(RowChangedEvent event);
 
+    /**
+     * 数据变更事件(同一源库事务)
+     *
+     * @param events
+     */
+    void changedEvent(List<RowChangedEvent> events);
+
     /**
      * 刷新增量点事件
      */
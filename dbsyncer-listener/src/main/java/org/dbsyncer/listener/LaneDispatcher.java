@@ -0,0 +1,309 @@
+package org.dbsyncer.listener;
+
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.connector.constant.ConnectorConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 增量事件分区分发: 按表名+主键哈希选择通道, 每个通道单线程按序消费
+ * <ol>
+ * <li>同一主键的变更始终进入同一通道, 保证按源顺序生效</li>
+ * <li>不同主键在多个通道并行处理</li>
+ * <li>通道队列有界, 队列已满时阻塞生产者(暂停读取日志), 不丢弃事件</li>
+ * <li>未配置主键的表按表名选择通道</li>
+ * <li>处理失败的事件不计为完成, 该通道停止消费并中断任务, 之后的增量点不会提交</li>
+ * <li>修改主键的变更作为屏障: 等待所有通道处理完成后分发, 该变更处理完成后再分发后续事件, 保证新旧主键的变更顺序</li>
+ * </ol>
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/08 21:30
+ */
+public final class LaneDispatcher implements Dispatcher {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Lane[] lanes;
+
+    private final Map<String, int[]> primaryKeyIndex;
+
+    private final int queueSize;
+
+    /**
+     * 生产者累计阻塞时长(毫秒)
+     */
+    private final AtomicLong stallTime = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    /**
+     * 修改主键的屏障, 生产者等待时由通道处理完成后通知
+     */
+    private final Object barrier = new Object();
+
+    private volatile boolean barrierWaiting;
+
+    /**
+     * @param name            通道名称
+     * @param laneNum         通道数
+     * @param queueSize       每个通道的队列大小
+     * @param primaryKeyIndex 表名 -> 主键在行数据中的下标
+     * @param consumer        事件处理
+     * @param interrupt       处理失败时中断任务
+     */
+    public LaneDispatcher(String name, int laneNum, int queueSize, Map<String, int[]> primaryKeyIndex, Consumer<RowChangedEvent> consumer,
+                          Consumer<Exception> interrupt) {
+        this.primaryKeyIndex = primaryKeyIndex;
+        this.queueSize = Math.max(1, queueSize);
+        this.lanes = new Lane[Math.max(1, laneNum)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(new StringBuilder("lane-").append(name).append("-").append(i).toString(), this.queueSize, consumer, interrupt);
+            lanes[i].start();
+        }
+    }
+
+    /**
+     * 分发事件, 通道队列已满时等待
+     *
+     * @param event
+     */
+    public void dispatch(RowChangedEvent event) {
+        if (lanes.length == 1) {
+            offer(lanes[0], event);
+            return;
+        }
+        final int[] index = null != primaryKeyIndex ? primaryKeyIndex.get(event.getTableName()) : null;
+        if (!isKeyChanged(index, event)) {
+            offer(lanes[(hash(index, event) & Integer.MAX_VALUE) % lanes.length], event);
+            return;
+        }
+
+        // 修改主键, 旧主键的变更可能在其他通道
+        final long start = Instant.now().toEpochMilli();
+        try {
+            awaitCompleted(mark());
+            offer(lanes[(hash(index, event) & Integer.MAX_VALUE) % lanes.length], event);
+            awaitCompleted(mark());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error(e.getMessage());
+        } finally {
+            stallTime.addAndGet(Instant.now().toEpochMilli() - start);
+        }
+    }
+
+    /**
+     * 记录各通道已分发的事件数
+     *
+     * @return
+     */
+    @Override
+    public long[] mark() {
+        long[] mark = new long[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            mark[i] = lanes[i].dispatched.get();
+        }
+        return mark;
+    }
+
+    /**
+     * 标记前分发的事件是否全部处理完成
+     *
+     * @param mark
+     * @return
+     */
+    @Override
+    public boolean isCompleted(long[] mark) {
+        if (null == mark || mark.length != lanes.length) {
+            return false;
+        }
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i].completed.get() < mark[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取通道指标
+     *
+     * @return
+     */
+    @Override
+    public LaneMetric getMetric() {
+        long queueUp = 0;
+        for (Lane lane : lanes) {
+            queueUp += lane.queue.size();
+        }
+        return new LaneMetric().setQueueUp(queueUp).setQueueCapacity((long) queueSize * lanes.length).setStallTime(stallTime.get());
+    }
+
+    /**
+     * 停止所有通道(丢弃未处理的事件, 由增量点重新抽取)
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.interrupt();
+        }
+        signalBarrier();
+    }
+
+    /**
+     * 放入通道, 队列已满时阻塞生产者直到通道有空闲
+     *
+     * @param lane
+     * @param event
+     */
+    private void offer(Lane lane, RowChangedEvent event) {
+        if (lane.queue.offer(event)) {
+            lane.dispatched.incrementAndGet();
+            return;
+        }
+
+        final long start = Instant.now().toEpochMilli();
+        try {
+            while (running) {
+                if (lane.queue.offer(event, 1, TimeUnit.SECONDS)) {
+                    lane.dispatched.incrementAndGet();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error(e.getMessage());
+        } finally {
+            stallTime.addAndGet(Instant.now().toEpochMilli() - start);
+        }
+    }
+
+    /**
+     * 等待标记前分发的事件全部处理完成
+     *
+     * @param mark
+     * @throws InterruptedException
+     */
+    private void awaitCompleted(long[] mark) throws InterruptedException {
+        if (isCompleted(mark)) {
+            return;
+        }
+        synchronized (barrier) {
+            // 先标记等待再检查, 通道完成计数后检查标记, 不会错过通知
+            barrierWaiting = true;
+            try {
+                while (running && !isCompleted(mark)) {
+                    barrier.wait();
+                }
+            } finally {
+                barrierWaiting = false;
+            }
+        }
+    }
+
+    /**
+     * 通知等待屏障的生产者, 没有等待时不加锁
+     */
+    private void signalBarrier() {
+        if (barrierWaiting) {
+            synchronized (barrier) {
+                barrier.notifyAll();
+            }
+        }
+    }
+
+    private boolean isKeyChanged(int[] index, RowChangedEvent event) {
+        if (null == index || index.length == 0 || !StringUtil.equals(ConnectorConstant.OPERTION_UPDATE, event.getEvent())) {
+            return false;
+        }
+        List<Object> before = event.getBeforeData();
+        List<Object> after = event.getAfterData();
+        if (CollectionUtils.isEmpty(before) || CollectionUtils.isEmpty(after)) {
+            return false;
+        }
+        // 兼容二进制主键
+        return !Arrays.deepEquals(getKey(index, before), getKey(index, after));
+    }
+
+    private int hash(int[] index, RowChangedEvent event) {
+        final String tableName = event.getTableName();
+        List<Object> data = StringUtil.equals(ConnectorConstant.OPERTION_DELETE, event.getEvent()) ? event.getBeforeData() : event.getAfterData();
+        if (null == index || index.length == 0 || CollectionUtils.isEmpty(data)) {
+            return null != tableName ? tableName.hashCode() : 0;
+        }
+        Object[] key = getKey(index, data);
+        key[0] = tableName;
+        // 兼容二进制主键
+        return Arrays.deepHashCode(key);
+    }
+
+    /**
+     * 获取主键值, 第一个元素预留给表名
+     *
+     * @param index
+     * @param data
+     * @return
+     */
+    private Object[] getKey(int[] index, List<Object> data) {
+        Object[] key = new Object[index.length + 1];
+        for (int i = 0; i < index.length; i++) {
+            key[i + 1] = index[i] < data.size() ? data.get(index[i]) : null;
+        }
+        return key;
+    }
+
+    final class Lane extends Thread {
+        private final BlockingQueue<RowChangedEvent> queue;
+        private final Consumer<RowChangedEvent> consumer;
+        private final Consumer<Exception> interrupt;
+        private final AtomicLong dispatched = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+
+        Lane(String name, int queueSize, Consumer<RowChangedEvent> consumer, Consumer<Exception> interrupt) {
+            this.queue = new LinkedBlockingQueue<>(queueSize);
+            this.consumer = consumer;
+            this.interrupt = interrupt;
+            setName(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                RowChangedEvent event;
+                try {
+                    event = queue.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+                try {
+                    consumer.accept(event);
+                    completed.incrementAndGet();
+                    signalBarrier();
+                } catch (Exception e) {
+                    // 不再处理该通道后续的事件, 由未提交的增量点重新抽取
+                    logger.error("{} 处理异常:{}", getName(), e.getMessage(), e);
+                    if (running) {
+                        interrupt.accept(e);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+}
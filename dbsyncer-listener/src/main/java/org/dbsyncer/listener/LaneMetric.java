@@ -0,0 +1,114 @@
+package org.dbsyncer.listener;
+
+/**
+ * 增量通道积压指标
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/10 22:18
+ */
+public final class LaneMetric {
+
+    /**
+     * 待处理
+     */
+    private long queueUp;
+
+    /**
+     * 队列容量
+     */
+    private long queueCapacity;
+
+    /**
+     * 读取累计阻塞时长(毫秒)
+     */
+    private long stallTime;
+
+    /**
+     * 已处理的事务数
+     */
+    private long transactions;
+
+    /**
+     * 事务开始处理时正在处理的事务数累计(含自身), 除以事务数为平均并行度
+     */
+    private long concurrency;
+
+    /**
+     * 因写集合冲突等待的事务数
+     */
+    private long conflicts;
+
+    public long getQueueUp() {
+        return queueUp;
+    }
+
+    public LaneMetric setQueueUp(long queueUp) {
+        this.queueUp = queueUp;
+        return this;
+    }
+
+    public long getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public LaneMetric setQueueCapacity(long queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    public long getStallTime() {
+        return stallTime;
+    }
+
+    public LaneMetric setStallTime(long stallTime) {
+        this.stallTime = stallTime;
+        return this;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public LaneMetric setTransactions(long transactions) {
+        this.transactions = transactions;
+        return this;
+    }
+
+    public long getConcurrency() {
+        return concurrency;
+    }
+
+    public LaneMetric setConcurrency(long concurrency) {
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public LaneMetric setConflicts(long conflicts) {
+        this.conflicts = conflicts;
+        return this;
+    }
+
+    /**
+     * 事务平均并行度
+     *
+     * @return
+     */
+    public double getParallelism() {
+        return 0 == transactions ? 0 : (double) concurrency / transactions;
+    }
+
+    public LaneMetric merge(LaneMetric metric) {
+        this.queueUp += metric.getQueueUp();
+        this.queueCapacity += metric.getQueueCapacity();
+        this.stallTime += metric.getStallTime();
+        this.transactions += metric.getTransactions();
+        this.concurrency += metric.getConcurrency();
+        this.conflicts += metric.getConflicts();
+        return this;
+    }
+}
@@ -0,0 +1,77 @@
+package org.dbsyncer.listener;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 增量点低水位跟踪
+ * <ol>
+ * <li>增量点变化时, 记录当前增量点和各通道已分发的事件数</li>
+ * <li>各通道处理完成的事件数都达到记录值时, 该增量点之前的事件已全部处理, 可以提交</li>
+ * <li>只提交连续处理完成的最大增量点(低水位), 重启后不会跳过未处理的事件</li>
+ * </ol>
+ * 适用于Mysql(binlog文件/位置)、SqlServer(Lsn)和定时(Point)等任意形式的增量点
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/14 21:10
+ */
+public final class OffsetTracker {
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+
+    private Map<String, String> committed;
+
+    public OffsetTracker(Map<String, String> snapshot) {
+        this.committed = null != snapshot ? new HashMap<>(snapshot) : new HashMap<>();
+    }
+
+    /**
+     * 记录增量点
+     *
+     * @param dispatched 各通道已分发的事件数, 同步处理时为null
+     * @param snapshot   当前增量点
+     */
+    public synchronized void mark(long[] dispatched, Map<String, String> snapshot) {
+        Map<String, String> position = new HashMap<>(snapshot);
+        Entry last = entries.peekLast();
+        // 没有新的事件, 合并增量点
+        if (null != last && Arrays.equals(last.dispatched, dispatched)) {
+            last.position = position;
+            return;
+        }
+        entries.addLast(new Entry(dispatched, position));
+    }
+
+    /**
+     * 获取可提交的增量点
+     *
+     * @param dispatcher 分发通道, 为空时只能提交同步处理的增量点
+     * @return
+     */
+    public synchronized Map<String, String> commit(Dispatcher dispatcher) {
+        while (!entries.isEmpty()) {
+            Entry entry = entries.peekFirst();
+            if (null != entry.dispatched && (null == dispatcher || !dispatcher.isCompleted(entry.dispatched))) {
+                break;
+            }
+            committed = entry.position;
+            entries.pollFirst();
+        }
+        return new HashMap<>(committed);
+    }
+
+    static final class Entry {
+        private final long[] dispatched;
+        private Map<String, String> position;
+
+        Entry(long[] dispatched, Map<String, String> position) {
+            this.dispatched = dispatched;
+            this.position = position;
+        }
+    }
+
+}
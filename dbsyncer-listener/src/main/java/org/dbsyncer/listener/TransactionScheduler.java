@@ -0,0 +1,312 @@
+package org.dbsyncer.listener;
+
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.connector.constant.ConnectorConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 源库事务并行调度(参考Mysql WRITESET并行复制)
+ * <ol>
+ * <li>写集合: 事务修改的表名+主键(修改主键时包含修改前后的主键)</li>
+ * <li>依赖: 最近一次修改相同写集合的事务序号, 依赖的事务及之前的事务全部完成后才能执行</li>
+ * <li>无冲突的事务在多个线程并行写入, 冲突的事务按源库提交顺序写入</li>
+ * <li>表未配置主键时, 与之前和之后的所有事务串行</li>
+ * <li>写集合历史超过上限时清空, 之后的事务依赖清空时的最后一个事务</li>
+ * <li>处理失败的事务不计为完成, 低水位停在该事务之前, 之后不再调度事务并中断任务</li>
+ * </ol>
+ * 按提交顺序调度, 无空闲线程或依赖未完成时阻塞调用方(暂停读取日志)
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/18 20:30
+ */
+public final class TransactionScheduler implements Dispatcher {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 写集合历史上限
+     */
+    private static final int HISTORY_SIZE = 25000;
+
+    private final Map<String, int[]> primaryKeyIndex;
+
+    private final Consumer<List<RowChangedEvent>> consumer;
+
+    private final Consumer<Exception> interrupt;
+
+    private final ExecutorService executor;
+
+    private final int workers;
+
+    /**
+     * 表名+主键 -> 最近一次修改的事务序号
+     */
+    private final Map<Key, Long> history = new HashMap<>();
+
+    /**
+     * 已完成但之前仍有未完成事务的序号
+     */
+    private final TreeSet<Long> completed = new TreeSet<>();
+
+    private final Object lock = new Object();
+
+    /**
+     * 已分发的事务序号
+     */
+    private long sequence;
+
+    /**
+     * 低水位: 该序号及之前的事务全部完成
+     */
+    private long watermark;
+
+    /**
+     * 之后的事务至少依赖的序号
+     */
+    private long floor;
+
+    private int running;
+
+    /**
+     * 存在处理失败的事务
+     */
+    private boolean failed;
+
+    private long stallTime;
+
+    private long transactions;
+
+    private long concurrency;
+
+    private long conflicts;
+
+    private volatile boolean closed;
+
+    /**
+     * @param name            线程名称
+     * @param workers         并行线程数
+     * @param primaryKeyIndex 表名 -> 主键在行数据中的下标
+     * @param consumer        事务处理
+     * @param interrupt       处理失败时中断任务
+     */
+    public TransactionScheduler(String name, int workers, Map<String, int[]> primaryKeyIndex, Consumer<List<RowChangedEvent>> consumer,
+                                Consumer<Exception> interrupt) {
+        this.workers = Math.max(1, workers);
+        this.primaryKeyIndex = primaryKeyIndex;
+        this.consumer = consumer;
+        this.interrupt = interrupt;
+        final AtomicInteger index = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, r -> {
+            Thread thread = new Thread(r, new StringBuilder("tx-").append(name).append("-").append(index.getAndIncrement()).toString());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 调度事务, 依赖的事务完成且有空闲线程时提交执行
+     *
+     * @param events 同一事务的变更
+     */
+    public void schedule(List<RowChangedEvent> events) {
+        if (CollectionUtils.isEmpty(events)) {
+            return;
+        }
+        final Set<Key> writeSet = getWriteSet(events);
+        synchronized (lock) {
+            final long seq = ++sequence;
+            long dependency = floor;
+            if (null == writeSet) {
+                // 无主键, 与所有事务串行
+                dependency = seq - 1;
+                floor = seq;
+            } else {
+                for (Key key : writeSet) {
+                    Long last = history.put(key, seq);
+                    if (null != last && last > dependency) {
+                        dependency = last;
+                    }
+                }
+                if (history.size() > HISTORY_SIZE) {
+                    history.clear();
+                    floor = seq;
+                }
+            }
+
+            final long start = Instant.now().toEpochMilli();
+            if (watermark < dependency) {
+                conflicts++;
+            }
+            try {
+                while (!closed && !failed && (watermark < dependency || running >= workers)) {
+                    lock.wait(1000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error(e.getMessage());
+                return;
+            } finally {
+                stallTime += Instant.now().toEpochMilli() - start;
+            }
+            if (closed || failed) {
+                return;
+            }
+            running++;
+            transactions++;
+            concurrency += running;
+            executor.execute(() -> apply(seq, events));
+        }
+    }
+
+    @Override
+    public long[] mark() {
+        synchronized (lock) {
+            return new long[]{sequence};
+        }
+    }
+
+    @Override
+    public boolean isCompleted(long[] mark) {
+        if (null == mark || mark.length != 1) {
+            return false;
+        }
+        synchronized (lock) {
+            return watermark >= mark[0];
+        }
+    }
+
+    @Override
+    public LaneMetric getMetric() {
+        synchronized (lock) {
+            return new LaneMetric().setQueueUp(running).setQueueCapacity(workers).setStallTime(stallTime)
+                    .setTransactions(transactions).setConcurrency(concurrency).setConflicts(conflicts);
+        }
+    }
+
+    /**
+     * 停止调度(丢弃未处理的事务, 由增量点重新抽取)
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void apply(long seq, List<RowChangedEvent> events) {
+        Exception error = null;
+        try {
+            if (!closed) {
+                consumer.accept(events);
+            }
+        } catch (Exception e) {
+            error = e;
+        }
+        synchronized (lock) {
+            running--;
+            if (null != error) {
+                // 依赖该事务的事务不再执行, 由未提交的增量点重新抽取
+                failed = true;
+            } else if (!closed) {
+                completed.add(seq);
+                while (!completed.isEmpty() && completed.first() == watermark + 1) {
+                    watermark = completed.pollFirst();
+                }
+            }
+            lock.notifyAll();
+        }
+        if (null != error) {
+            logger.error("{} 处理异常:{}", Thread.currentThread().getName(), error.getMessage(), error);
+            if (!closed) {
+                interrupt.accept(error);
+            }
+        }
+    }
+
+    /**
+     * 获取写集合, 存在无主键的表时返回null
+     *
+     * @param events
+     * @return
+     */
+    private Set<Key> getWriteSet(List<RowChangedEvent> events) {
+        Set<Key> writeSet = new HashSet<>();
+        for (RowChangedEvent event : events) {
+            final String tableName = event.getTableName();
+            int[] index = null != primaryKeyIndex ? primaryKeyIndex.get(tableName) : null;
+            if (null == index || index.length == 0) {
+                return null;
+            }
+            final String e = event.getEvent();
+            if (!StringUtil.equals(ConnectorConstant.OPERTION_INSERT, e) && !addKey(writeSet, tableName, index, event.getBeforeData())) {
+                return null;
+            }
+            if (!StringUtil.equals(ConnectorConstant.OPERTION_DELETE, e) && !addKey(writeSet, tableName, index, event.getAfterData())) {
+                return null;
+            }
+        }
+        return writeSet;
+    }
+
+    private boolean addKey(Set<Key> writeSet, String tableName, int[] index, List<Object> data) {
+        if (CollectionUtils.isEmpty(data)) {
+            return false;
+        }
+        Object[] values = new Object[index.length + 1];
+        values[0] = tableName;
+        for (int i = 0; i < index.length; i++) {
+            values[i + 1] = index[i] < data.size() ? data.get(index[i]) : null;
+        }
+        writeSet.add(new Key(values));
+        return true;
+    }
+
+    /**
+     * 表名+主键, 兼容二进制主键
+     */
+    static final class Key {
+        private final Object[] values;
+        private final int hash;
+
+        Key(Object[] values) {
+            this.values = values;
+            this.hash = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Key && Arrays.deepEquals(values, ((Key) o).values));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -7,10 +7,11 @@ import org.dbsyncer.listener.mysql.MysqlExtractor;
 import org.dbsyncer.listener.oracle.OracleExtractor;
 import org.dbsyncer.listener.quartz.DatabaseQuartzExtractor;
 import org.dbsyncer.listener.quartz.ESQuartzExtractor;
+import org.dbsyncer.listener.sqlserver.SqlServerChangeTrackingExtractor;
 import org.dbsyncer.listener.sqlserver.SqlServerExtractor;
 
 /**
- * 监听器Extractor支持日志和定时模式
+ * 监听器Extractor支持日志、变更跟踪和定时模式
  *
  * @author AE86
  * @version 1.0.0
@@ -30,6 +31,10 @@ public enum ListenerEnum {
      * log_SqlServer
      */
     LOG_SQL_SERVER(ListenerTypeEnum.LOG.getType() + ConnectorEnum.SQL_SERVER.getType(), SqlServerExtractor.class),
+    /**
+     * tracking_SqlServer
+     */
+    TRACKING_SQL_SERVER(ListenerTypeEnum.TRACKING.getType() + ConnectorEnum.SQL_SERVER.getType(), SqlServerChangeTrackingExtractor.class),
     /**
      * timing_Mysql
      */
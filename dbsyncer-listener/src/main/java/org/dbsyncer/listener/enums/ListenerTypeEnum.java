@@ -16,7 +16,11 @@ public enum ListenerTypeEnum {
     /**
      * 日志
      */
-    LOG("log");
+    LOG("log"),
+    /**
+     * 变更跟踪
+     */
+    TRACKING("tracking");
 
     private String type;
 
@@ -32,6 +36,10 @@ public enum ListenerTypeEnum {
         return StringUtil.equals(LOG.getType(), type);
     }
 
+    public static boolean isTracking(String type) {
+        return StringUtil.equals(TRACKING.getType(), type);
+    }
+
     public String getType() {
         return type;
     }
@@ -7,6 +7,7 @@ import com.github.shyiko.mysql.binlog.network.AuthenticationException;
 import com.github.shyiko.mysql.binlog.network.ServerException;
 
 import java.util.Map;
+import java.util.Set;
 
 public interface BinaryLogClient {
 
@@ -92,6 +93,54 @@ public interface BinaryLogClient {
      */
     void setTableMapEventByTableId(Map<Long, TableMapEventData> tableMapEventByTableId);
 
+    /**
+     * @return filterTable
+     */
+    Set<String> getFilterTable();
+
+    /**
+     * 监听的表, 其他表的行事件不解析行数据
+     *
+     * @param filterTable
+     */
+    void setFilterTable(Set<String> filterTable);
+
+    /**
+     * @return projection
+     */
+    Map<String, int[]> getProjection();
+
+    /**
+     * 表名 -> 需要解析的列下标, 其他列不解析
+     *
+     * @param projection
+     */
+    void setProjection(Map<String, int[]> projection);
+
+    /**
+     * @return GTID集合, 非GTID模式返回null
+     */
+    String getGtidSet();
+
+    /**
+     * GTID集合, 不为null时按GTID定位, 可以切换到集群其他节点继续读取
+     *
+     * @param gtidSet
+     */
+    void setGtidSet(String gtidSet);
+
+    /**
+     * @return useBinlogFilenamePositionInGtidMode
+     */
+    boolean isUseBinlogFilenamePositionInGtidMode();
+
+    /**
+     * GTID模式下从指定的binlog文件和位置开始读取
+     *
+     * @param useBinlogFilenamePositionInGtidMode
+     */
+    void setUseBinlogFilenamePositionInGtidMode(boolean useBinlogFilenamePositionInGtidMode);
+
     /**
      * SimpleEventModel
      *
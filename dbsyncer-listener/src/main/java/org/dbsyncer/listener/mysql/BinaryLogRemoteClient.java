@@ -8,6 +8,7 @@ import com.github.shyiko.mysql.binlog.network.*;
 import com.github.shyiko.mysql.binlog.network.protocol.*;
 import com.github.shyiko.mysql.binlog.network.protocol.command.*;
 import org.dbsyncer.listener.mysql.deserializer.DeleteDeserializer;
+import org.dbsyncer.listener.mysql.deserializer.RowsEventFilter;
 import org.dbsyncer.listener.mysql.deserializer.UpdateDeserializer;
 import org.dbsyncer.listener.mysql.deserializer.WriteDeserializer;
 import org.slf4j.Logger;
@@ -68,6 +69,8 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
 
     private EventDeserializer eventDeserializer;
     private Map<Long, TableMapEventData> tableMapEventByTableId;
+    private Set<String> filterTable;
+    private Map<String, int[]> projection;
     private boolean blocking = true;
     private boolean simpleEventModel = false;
     private long serverId = 65535;
@@ -234,9 +237,7 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
                 }
                 Event event;
                 try {
-                    event = eventDeserializer.nextEvent(packetLength == MAX_PACKET_LENGTH ?
-                            new ByteArrayInputStream(readPacketSplitInChunks(inputStream, packetLength - 1)) :
-                            inputStream);
+                    event = nextEvent(inputStream, packetLength);
                     if (event == null) {
                         throw new EOFException();
                     }
@@ -431,17 +432,24 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
         eventDeserializer.setChecksumType(checksumType);
     }
 
-    private byte[] readPacketSplitInChunks(ByteArrayInputStream inputStream, int packetLength) throws IOException {
-        byte[] result = inputStream.read(packetLength);
-        int chunkLength;
-        do {
-            chunkLength = inputStream.readInteger(3);
-            //noinspection ResultOfMethodCallIgnored
-            inputStream.skip(1); // 1 byte for sequence
-            result = Arrays.copyOf(result, result.length + chunkLength);
-            inputStream.fill(result, result.length - chunkLength, chunkLength);
-        } while (chunkLength == Packet.MAX_LENGTH);
-        return result;
+    /**
+     * 从连接输入流直接解析事件, 超过16MB的事件包按块读取, 不拼接完整事件包
+     *
+     * @param inputStream
+     * @param packetLength
+     * @return
+     * @throws IOException
+     */
+    private Event nextEvent(ByteArrayInputStream inputStream, int packetLength) throws IOException {
+        if (packetLength != MAX_PACKET_LENGTH) {
+            return eventDeserializer.nextEvent(inputStream);
+        }
+        SplitPacketInputStream splitPacket = new SplitPacketInputStream(inputStream, packetLength - 1);
+        try {
+            return eventDeserializer.nextEvent(new ByteArrayInputStream(splitPacket));
+        } finally {
+            splitPacket.drain();
+        }
     }
 
     private void updateClientBinlogFilenameAndPosition(Event event) {
@@ -543,20 +551,24 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
         eventDataDeserializers.put(EventType.ROTATE, new RotateEventDataDeserializer());
         eventDataDeserializers.put(EventType.FORMAT_DESCRIPTION, new FormatDescriptionEventDataDeserializer());
         eventDataDeserializers.put(EventType.TABLE_MAP, new TableMapEventDataDeserializer());
-        eventDataDeserializers.put(EventType.UPDATE_ROWS, new UpdateRowsEventDataDeserializer(tableMapEventByTableId));
-        eventDataDeserializers.put(EventType.WRITE_ROWS, new WriteRowsEventDataDeserializer(tableMapEventByTableId));
-        eventDataDeserializers.put(EventType.DELETE_ROWS, new DeleteRowsEventDataDeserializer(tableMapEventByTableId));
-        eventDataDeserializers.put(EventType.EXT_WRITE_ROWS, (new WriteDeserializer(tableMapEventByTableId)).setMayContainExtraInformation(true));
-        eventDataDeserializers.put(EventType.EXT_UPDATE_ROWS, (new UpdateDeserializer(tableMapEventByTableId)).setMayContainExtraInformation(true));
-        eventDataDeserializers.put(EventType.EXT_DELETE_ROWS, (new DeleteDeserializer(tableMapEventByTableId)).setMayContainExtraInformation(true));
+        // 未监听的表只读取表ID, 不解析行数据
+        RowsEventFilter rowsEventFilter = new RowsEventFilter(tableMapEventByTableId, filterTable, projection);
+        eventDataDeserializers.put(EventType.UPDATE_ROWS, new UpdateDeserializer(tableMapEventByTableId, rowsEventFilter));
+        eventDataDeserializers.put(EventType.WRITE_ROWS, new WriteDeserializer(tableMapEventByTableId, rowsEventFilter));
+        eventDataDeserializers.put(EventType.DELETE_ROWS, new DeleteDeserializer(tableMapEventByTableId, rowsEventFilter));
+        eventDataDeserializers.put(EventType.EXT_WRITE_ROWS, (new WriteDeserializer(tableMapEventByTableId, rowsEventFilter)).setMayContainExtraInformation(true));
+        eventDataDeserializers.put(EventType.EXT_UPDATE_ROWS, (new UpdateDeserializer(tableMapEventByTableId, rowsEventFilter)).setMayContainExtraInformation(true));
+        eventDataDeserializers.put(EventType.EXT_DELETE_ROWS, (new DeleteDeserializer(tableMapEventByTableId, rowsEventFilter)).setMayContainExtraInformation(true));
         eventDataDeserializers.put(EventType.XID, new XidEventDataDeserializer());
+        // 非事务引擎以COMMIT语句结束事务
+        eventDataDeserializers.put(EventType.QUERY, new QueryEventDataDeserializer());
+        // GTID定位
+        eventDataDeserializers.put(EventType.GTID, new GtidEventDataDeserializer());
+        eventDataDeserializers.put(EventType.PREVIOUS_GTIDS, new PreviousGtidSetDeserializer());
 
         if (simpleEventModel) {
             eventDataDeserializers.put(EventType.INTVAR, new IntVarEventDataDeserializer());
-            eventDataDeserializers.put(EventType.QUERY, new QueryEventDataDeserializer());
             eventDataDeserializers.put(EventType.ROWS_QUERY, new RowsQueryEventDataDeserializer());
-            eventDataDeserializers.put(EventType.GTID, new GtidEventDataDeserializer());
-            eventDataDeserializers.put(EventType.PREVIOUS_GTIDS, new PreviousGtidSetDeserializer());
             eventDataDeserializers.put(EventType.XA_PREPARE, new XAPrepareEventDataDeserializer());
         }
 
@@ -620,6 +632,26 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
         this.tableMapEventByTableId = tableMapEventByTableId;
     }
 
+    @Override
+    public Set<String> getFilterTable() {
+        return filterTable;
+    }
+
+    @Override
+    public void setFilterTable(Set<String> filterTable) {
+        this.filterTable = filterTable;
+    }
+
+    @Override
+    public Map<String, int[]> getProjection() {
+        return projection;
+    }
+
+    @Override
+    public void setProjection(Map<String, int[]> projection) {
+        this.projection = projection;
+    }
+
     @Override
     public boolean isSimpleEventModel() {
         return simpleEventModel;
@@ -650,6 +682,7 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
      * @return GTID set. Note that this value changes with each received GTID event (provided client is in GTID mode).
      * @see #setGtidSet(String)
      */
+    @Override
     public String getGtidSet() {
         synchronized (gtidSetAccessLock) {
             return gtidSet != null ? gtidSet.toString() : null;
@@ -666,6 +699,7 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
      * @see #getGtidSet()
      * @see #setGtidSetFallbackToPurged(boolean)
      */
+    @Override
     public void setGtidSet(String gtidSet) {
         if (gtidSet != null && this.binlogFilename == null) {
             this.binlogFilename = "";
@@ -693,6 +727,7 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
     /**
      * @see #setUseBinlogFilenamePositionInGtidMode(boolean)
      */
+    @Override
     public boolean isUseBinlogFilenamePositionInGtidMode() {
         return useBinlogFilenamePositionInGtidMode;
     }
@@ -702,6 +737,7 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
      *                                            #getBinlogFilename()} and {@link #getBinlogPosition()} instead of "the oldest known
      *                                            binlog" when {@link #getGtidSet()} is set, false otherwise (default).
      */
+    @Override
     public void setUseBinlogFilenamePositionInGtidMode(boolean useBinlogFilenamePositionInGtidMode) {
         this.useBinlogFilenamePositionInGtidMode = useBinlogFilenamePositionInGtidMode;
     }
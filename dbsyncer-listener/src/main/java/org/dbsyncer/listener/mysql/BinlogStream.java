@@ -0,0 +1,963 @@
+package org.dbsyncer.listener.mysql;
+
+import com.github.shyiko.mysql.binlog.GtidSet;
+import com.github.shyiko.mysql.binlog.event.*;
+import com.github.shyiko.mysql.binlog.network.ServerException;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.connector.config.DatabaseConfig;
+import org.dbsyncer.connector.util.DatabaseUtil;
+import org.dbsyncer.listener.ListenerException;
+import org.dbsyncer.listener.config.Host;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+import static java.util.regex.Pattern.compile;
+
+/**
+ * 同一数据源共享的binlog读取流: 只建立一个复制连接, 读取和解析一次, 按表分发给订阅的驱动
+ * <ol>
+ * <li>监听的表和解析的列为所有订阅者的并集, 订阅者只接收自己监听的表</li>
+ * <li>每个订阅者保留自己的增量点, 从订阅者中最小的增量点开始读取, 已读取过的事件由订阅者跳过</li>
+ * <li>订阅者的增量点早于当前读取位置时, 回退到该增量点重新读取</li>
+ * <li>断线重连和节点切换由读取流统一处理, 通知所有订阅者</li>
+ * <li>按顺序分发给订阅者, 任一订阅者阻塞时暂停读取; 分发时不持有读取流的锁, 不阻塞其他订阅者加入和离开</li>
+ * <li>订阅者处理事件异常时, 只中断该订阅者, 不再向其分发事件</li>
+ * </ol>
+ * 文件+位置增量点只能在主库上比较, GTID增量点可以在任意节点比较, 两种增量点的订阅者不共享读取流
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/22 20:30
+ */
+public final class BinlogStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinlogStream.class);
+
+    static final String BINLOG_FILENAME = "fileName";
+    static final String BINLOG_POSITION = "position";
+    static final String BINLOG_GTID_SET = "gtidSet";
+    private static final int RETRY_TIMES = 10;
+    private static final int MASTER = 0;
+
+    /**
+     * 数据源(连接地址+帐号) -> 读取流
+     */
+    private static final Map<String, List<BinlogStream>> streams = new ConcurrentHashMap<>();
+
+    private final String key;
+    private final DatabaseConfig config;
+    private final List<Host> cluster;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private BinaryLogClient client;
+
+    /**
+     * 当前连接的TABLE_MAP, 每次连接创建(不同节点的表ID不同)
+     */
+    private volatile Map<Long, TableMapEventData> tables = Collections.emptyMap();
+
+    /**
+     * 是否按GTID定位, 创建时确定
+     */
+    private boolean gtidMode;
+
+    /**
+     * GTID集合是否完整(可以切换节点)
+     */
+    private volatile boolean gtidCompleted;
+
+    /**
+     * 连接序号, 忽略已断开连接的事件
+     */
+    private volatile int generation;
+
+    /**
+     * 当前读取位置
+     */
+    private String binlogFilename;
+    private long binlogPosition;
+
+    /**
+     * 最近一次事务提交的位置
+     */
+    private String commitFilename;
+    private long commitPosition;
+
+    private Set<String> filterTable = Collections.emptySet();
+    private Map<String, int[]> projection;
+    private volatile boolean closed;
+
+    private BinlogStream(String key, DatabaseConfig config) {
+        this.key = key;
+        this.config = config;
+        this.cluster = readNodes(config.getUrl());
+        Assert.notEmpty(cluster, "Mysql连接地址有误.");
+    }
+
+    /**
+     * 订阅数据源的读取流, 没有可以共享的读取流时创建
+     *
+     * @param config
+     * @param subscriber
+     * @return
+     * @throws Exception
+     */
+    public static BinlogStream subscribe(DatabaseConfig config, Subscriber subscriber) throws Exception {
+        synchronized (streams) {
+            final String key = String.format("%s-%s", config.getUrl(), config.getUsername());
+            List<BinlogStream> list = streams.computeIfAbsent(key, k -> new ArrayList<>());
+            for (BinlogStream stream : list) {
+                if (stream.join(subscriber)) {
+                    return stream;
+                }
+            }
+            BinlogStream stream = new BinlogStream(key, config);
+            try {
+                stream.start(subscriber);
+            } catch (Exception e) {
+                if (list.isEmpty()) {
+                    streams.remove(key);
+                }
+                throw e;
+            }
+            list.add(stream);
+            logger.info("创建binlog读取流{}, 当前读取流数量:{}", key, list.size());
+            return stream;
+        }
+    }
+
+    /**
+     * 取消订阅, 没有订阅者时关闭读取流
+     *
+     * @param stream
+     * @param subscriber
+     */
+    public static void unsubscribe(BinlogStream stream, Subscriber subscriber) {
+        if (null == stream) {
+            return;
+        }
+        synchronized (streams) {
+            if (!stream.leave(subscriber)) {
+                return;
+            }
+            List<BinlogStream> list = streams.get(stream.key);
+            if (null != list) {
+                list.remove(stream);
+                if (list.isEmpty()) {
+                    streams.remove(stream.key);
+                }
+            }
+        }
+    }
+
+    public String getTableName(long tableId) {
+        TableMapEventData data = tables.get(tableId);
+        return null != data ? data.getTable() : null;
+    }
+
+    /**
+     * 已提交事务的GTID集合, GTID集合不完整时返回null
+     *
+     * @return
+     */
+    public String getGtidSet() {
+        return gtidCompleted && null != client ? client.getGtidSet() : null;
+    }
+
+    private synchronized void start(Subscriber subscriber) throws Exception {
+        Subscription subscription = new Subscription(subscriber);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(this);
+        refreshFilter();
+        final Map<String, String> snapshot = subscriber.getSnapshot();
+        gtidMode = null != snapshot.get(BINLOG_GTID_SET) || StringUtil.isBlank(snapshot.get(BINLOG_FILENAME));
+        try {
+            run(snapshot);
+        } catch (Exception e) {
+            subscriptions.clear();
+            throw e;
+        }
+        // 首次启动时未确定增量点, 按节点是否开启GTID确定
+        gtidMode = gtidMode && gtidCompleted;
+    }
+
+    /**
+     * 加入已启动的读取流
+     *
+     * @param subscriber
+     * @return false: 增量点类型不同, 不能共享
+     * @throws Exception
+     */
+    private synchronized boolean join(Subscriber subscriber) throws Exception {
+        if (closed) {
+            return false;
+        }
+        final Map<String, String> snapshot = subscriber.getSnapshot();
+        final String gtidSet = snapshot.get(BINLOG_GTID_SET);
+        final String fileName = snapshot.get(BINLOG_FILENAME);
+        final boolean fresh = null == gtidSet && StringUtil.isBlank(fileName);
+        if (!fresh && gtidMode != (null != gtidSet)) {
+            return false;
+        }
+
+        Subscription subscription = new Subscription(subscriber);
+        subscriber.onSubscribe(this);
+        Map<String, String> start = null;
+        if (fresh) {
+            subscriber.onConnect(binlogFilename, binlogPosition);
+        } else if (gtidMode) {
+            final String current = client.getGtidSet();
+            subscription.skipGtid.add(new GtidSet(gtidSet));
+            // 订阅者未读取当前读取位置之前的部分事务, 回退到共同读取过的位置
+            if (!new GtidSet(current).isContainedWithin(new GtidSet(gtidSet))) {
+                start = new HashMap<>();
+                start.put(BINLOG_GTID_SET, intersect(new GtidSet(gtidSet), new GtidSet(current)));
+            }
+        } else {
+            final long position = Long.parseLong(snapshot.get(BINLOG_POSITION));
+            if (compare(fileName, position, binlogFilename, binlogPosition) < 0) {
+                start = new HashMap<>();
+                start.put(BINLOG_FILENAME, fileName);
+                start.put(BINLOG_POSITION, String.valueOf(position));
+            } else {
+                subscription.skipFilename = fileName;
+                subscription.skipPosition = position;
+            }
+        }
+
+        subscriptions.add(subscription);
+        // 监听的表或解析的列增加时, 从最近一次事务提交的位置重新读取
+        if (refreshFilter() && null == start) {
+            start = getCommitPosition();
+        }
+        if (null != start) {
+            logger.info("{}回退读取位置:{}", key, start);
+            try {
+                restart(subscription, start);
+            } catch (Exception e) {
+                // 已断开连接, 其他订阅者从提交位置重连
+                subscriptions.remove(subscription);
+                refreshFilter();
+                final int gen = generation;
+                new Thread(() -> reStart(gen), "binlog-restart-" + key).start();
+                throw e;
+            }
+        }
+        logger.info("加入binlog读取流{}, 订阅数量:{}", key, subscriptions.size());
+        return true;
+    }
+
+    /**
+     * 离开读取流
+     *
+     * @param subscriber
+     * @return true: 没有订阅者, 已关闭
+     */
+    private synchronized boolean leave(Subscriber subscriber) {
+        subscriptions.removeIf(s -> s.subscriber == subscriber);
+        if (!subscriptions.isEmpty()) {
+            // 监听的表减少时不重新连接, 下次连接时生效
+            refreshFilter();
+            return false;
+        }
+        closed = true;
+        disconnect();
+        logger.info("关闭binlog读取流{}", key);
+        return true;
+    }
+
+    /**
+     * 从指定位置重新读取, 已订阅的事件由订阅者按读取位置跳过
+     *
+     * @param joined 新加入的订阅者
+     * @param start
+     * @throws Exception
+     */
+    private void restart(Subscription joined, Map<String, String> start) throws Exception {
+        final String current = gtidCompleted ? client.getGtidSet() : null;
+        // 先断开连接, 分发中的旧连接事件在通知重新读取之前处理或丢弃
+        disconnect();
+        for (Subscription s : subscriptions) {
+            if (s == joined) {
+                continue;
+            }
+            if (gtidMode) {
+                s.skipGtid.add(new GtidSet(current));
+            } else if (s.subscriber.isTransactional()) {
+                // 未提交的事务已丢弃, 从提交位置之后重新接收
+                s.skip(commitFilename, commitPosition);
+            } else {
+                s.skip(binlogFilename, binlogPosition);
+            }
+            // 由分发线程在下一个事件之前通知, 等待分发中的旧连接事件处理完成后再切换TABLE_MAP
+            synchronized (s) {
+                s.restarted = true;
+            }
+        }
+        run(start);
+    }
+
+    private void run(Map<String, String> start) throws Exception {
+        // 按优先级连接节点, 失败时切换到下一个节点
+        Exception error = null;
+        for (Node node : getNodes(start)) {
+            try {
+                connect(node, start);
+                return;
+            } catch (Exception e) {
+                error = e;
+                logger.error("连接binlog节点{}:{}失败:{}", node.host.getIp(), node.host.getPort(), e.getMessage());
+                disconnect();
+            }
+        }
+        throw error;
+    }
+
+    private void connect(Node node, Map<String, String> start) throws Exception {
+        final Host host = node.host;
+        final String pos = start.get(BINLOG_POSITION);
+        final String fileName = start.get(BINLOG_FILENAME);
+        String gtidSet = start.get(BINLOG_GTID_SET);
+        // 首次启动, 从节点当前的GTID开始读取
+        if (gtidMode && null == gtidSet && StringUtil.isBlank(fileName) && node.gtid) {
+            gtidSet = node.gtidExecuted;
+        }
+
+        client = new BinaryLogRemoteClient(host.getIp(), host.getPort(), config.getUsername(), config.getPassword());
+        final boolean gtidPosition = gtidMode && null != gtidSet;
+        if (gtidPosition) {
+            client.setGtidSet(gtidSet);
+            gtidCompleted = true;
+        } else {
+            client.setBinlogFilename(fileName);
+            client.setBinlogPosition(StringUtil.isBlank(pos) ? 0 : Long.parseLong(pos));
+            // 文件+位置定位, 读取到新binlog文件的PREVIOUS_GTIDS后记录GTID
+            if (node.gtid) {
+                client.setGtidSet(null != gtidSet ? gtidSet : "");
+                client.setUseBinlogFilenamePositionInGtidMode(true);
+            }
+            gtidCompleted = node.gtid && null != gtidSet;
+        }
+        final Map<Long, TableMapEventData> tableMap = new ConcurrentHashMap<>();
+        client.setTableMapEventByTableId(tableMap);
+        tables = tableMap;
+        client.setFilterTable(filterTable);
+        client.setProjection(projection);
+        final int gen = ++generation;
+        client.registerEventListener(event -> onEvent(gen, event));
+        client.registerLifecycleListener(new StreamLifecycleListener(gen));
+
+        client.connect();
+        logger.info("读取binlog节点{}:{}, {}", host.getIp(), host.getPort(), gtidPosition ? "GTID定位" : "文件位置定位");
+    }
+
+    private void disconnect() {
+        // 忽略断开连接的事件
+        generation++;
+        if (null != client) {
+            try {
+                client.disconnect();
+            } catch (Exception e) {
+                logger.error(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 获取读取binlog的节点, 连接地址中第一个为主库, 其他为从库
+     * <ol>
+     * <li>GTID定位: 优先读取健康的从库(开启binlog、log_slave_updates和GTID, 复制线程正常), 最后读取主库</li>
+     * <li>文件+位置定位: 只读取主库(不同节点的binlog文件和位置不同)</li>
+     * </ol>
+     *
+     * @param start
+     * @return
+     */
+    private List<Node> getNodes(Map<String, String> start) {
+        List<Node> nodes = new ArrayList<>();
+        if (gtidMode) {
+            for (int i = MASTER + 1; i < cluster.size(); i++) {
+                Node node = probe(cluster.get(i));
+                if (node.isHealthyReplica()) {
+                    nodes.add(node);
+                }
+            }
+        }
+        nodes.add(probe(cluster.get(MASTER)));
+        return nodes;
+    }
+
+    /**
+     * 检测节点binlog和复制状态
+     *
+     * @param host
+     * @return
+     */
+    private Node probe(Host host) {
+        Node node = new Node(host);
+        DatabaseConfig nodeConfig = new DatabaseConfig().setUrl(getNodeUrl(config.getUrl(), host)).setUsername(config.getUsername())
+                .setPassword(config.getPassword());
+        Connection connection = null;
+        Statement statement = null;
+        ResultSet rs = null;
+        try {
+            connection = DatabaseUtil.getConnection(nodeConfig);
+            statement = connection.createStatement();
+            rs = statement.executeQuery("SELECT @@GLOBAL.LOG_BIN, @@GLOBAL.LOG_SLAVE_UPDATES, @@GLOBAL.GTID_MODE, @@GLOBAL.GTID_EXECUTED");
+            if (rs.next()) {
+                node.binlog = rs.getBoolean(1);
+                node.slaveUpdates = rs.getBoolean(2);
+                node.gtid = "ON".equalsIgnoreCase(rs.getString(3));
+                String gtidExecuted = rs.getString(4);
+                node.gtidExecuted = null != gtidExecuted ? gtidExecuted.replaceAll("\\s", "") : "";
+            }
+            DatabaseUtil.close(rs);
+            node.replicating = isReplicating(statement);
+        } catch (SQLException e) {
+            logger.warn("检测binlog节点{}:{}失败:{}", host.getIp(), host.getPort(), e.getMessage());
+        } finally {
+            DatabaseUtil.close(rs);
+            DatabaseUtil.close(statement);
+            DatabaseUtil.close(connection);
+        }
+        return node;
+    }
+
+    /**
+     * 复制线程是否正常(Mysql8.0.22开始使用SHOW REPLICA STATUS)
+     *
+     * @param statement
+     * @return
+     */
+    private boolean isReplicating(Statement statement) {
+        String[][] commands = {{"SHOW SLAVE STATUS", "Slave_IO_Running", "Slave_SQL_Running"},
+                {"SHOW REPLICA STATUS", "Replica_IO_Running", "Replica_SQL_Running"}};
+        for (String[] command : commands) {
+            ResultSet rs = null;
+            try {
+                rs = statement.executeQuery(command[0]);
+                return rs.next() && "Yes".equalsIgnoreCase(rs.getString(command[1])) && "Yes".equalsIgnoreCase(rs.getString(command[2]));
+            } catch (SQLException e) {
+                logger.debug(e.getMessage());
+            } finally {
+                DatabaseUtil.close(rs);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * jdbc:mysql://127.0.0.1:3306,127.0.0.1:3307/test?useSSL=false => jdbc:mysql://127.0.0.1:3307/test?useSSL=false
+     *
+     * @param url
+     * @param host
+     * @return
+     */
+    private String getNodeUrl(String url, Host host) {
+        Matcher matcher = compile("(//)(?!(/)).+?(/)").matcher(url);
+        if (matcher.find()) {
+            return new StringBuilder(url.substring(0, matcher.start())).append("//").append(host.getIp()).append(":").append(host.getPort())
+                    .append("/").append(url.substring(matcher.end())).toString();
+        }
+        return url;
+    }
+
+    private List<Host> readNodes(String url) {
+        if (StringUtil.isBlank(url)) {
+            return Collections.EMPTY_LIST;
+        }
+        Matcher matcher = compile("(//)(?!(/)).+?(/)").matcher(url);
+        while (matcher.find()) {
+            url = matcher.group(0);
+            break;
+        }
+        url = StringUtil.replace(url, "/", "");
+
+        List<Host> cluster = new ArrayList<>();
+        String[] arr = StringUtil.split(url, ",");
+        int size = arr.length;
+        for (int i = 0; i < size; i++) {
+            String[] host = StringUtil.split(arr[i], ":");
+            if (2 == host.length) {
+                cluster.add(new Host(host[0], Integer.parseInt(host[1])));
+            }
+        }
+        return cluster;
+    }
+
+    /**
+     * 合并订阅者监听的表和解析的列
+     *
+     * @return true: 监听的表或解析的列增加
+     */
+    private boolean refreshFilter() {
+        Set<String> tables = new HashSet<>();
+        Map<String, int[]> columns = new HashMap<>();
+        Set<String> all = new HashSet<>();
+        for (Subscription s : subscriptions) {
+            Set<String> filter = s.subscriber.getFilterTable();
+            if (null != filter) {
+                tables.addAll(filter);
+            }
+            Map<String, int[]> projection = s.subscriber.getProjection();
+            for (String table : null != filter ? filter : Collections.<String>emptySet()) {
+                int[] index = null != projection ? projection.get(table) : null;
+                if (null == index) {
+                    all.add(table);
+                    continue;
+                }
+                columns.merge(table, index, (a, b) -> {
+                    BitSet bits = new BitSet();
+                    Arrays.stream(a).forEach(bits::set);
+                    Arrays.stream(b).forEach(bits::set);
+                    return bits.stream().toArray();
+                });
+            }
+        }
+        all.forEach(columns::remove);
+
+        boolean expanded = !filterTable.containsAll(tables);
+        if (!expanded) {
+            for (String table : tables) {
+                expanded = isExpanded(table, columns.get(table));
+                if (expanded) {
+                    break;
+                }
+            }
+        }
+        filterTable = tables;
+        projection = columns;
+        return expanded;
+    }
+
+    private boolean isExpanded(String table, int[] index) {
+        int[] current = null != projection ? projection.get(table) : null;
+        if (null == current) {
+            return false;
+        }
+        if (null == index) {
+            return true;
+        }
+        BitSet bits = new BitSet();
+        Arrays.stream(current).forEach(bits::set);
+        return Arrays.stream(index).anyMatch(i -> !bits.get(i));
+    }
+
+    private Map<String, String> getCommitPosition() {
+        Map<String, String> start = new HashMap<>();
+        if (gtidMode) {
+            start.put(BINLOG_GTID_SET, client.getGtidSet());
+            return start;
+        }
+        start.put(BINLOG_FILENAME, commitFilename);
+        start.put(BINLOG_POSITION, String.valueOf(commitPosition));
+        String gtidSet = getGtidSet();
+        if (null != gtidSet) {
+            start.put(BINLOG_GTID_SET, gtidSet);
+        }
+        return start;
+    }
+
+    private void onEvent(int gen, Event event) {
+        for (Subscription s : accept(gen, event)) {
+            deliver(gen, s, event);
+        }
+    }
+
+    /**
+     * 记录读取位置, 返回需要接收该事件的订阅者
+     *
+     * @param gen
+     * @param event
+     * @return
+     */
+    private synchronized List<Subscription> accept(int gen, Event event) {
+        if (gen != generation) {
+            return Collections.emptyList();
+        }
+        // ROTATE > FORMAT_DESCRIPTION > TABLE_MAP > WRITE_ROWS > UPDATE_ROWS > DELETE_ROWS > XID
+        EventHeader header = event.getHeader();
+        final EventType type = header.getEventType();
+        if (type == EventType.ROTATE) {
+            RotateEventData data = event.getData();
+            binlogFilename = data.getBinlogFilename();
+            binlogPosition = data.getBinlogPosition();
+            commit();
+        } else if (header instanceof EventHeaderV4 && 0 < ((EventHeaderV4) header).getNextPosition()) {
+            binlogPosition = ((EventHeaderV4) header).getNextPosition();
+        }
+
+        // 新binlog文件开头记录之前的全部GTID, 从这里开始记录GTID
+        if (type == EventType.PREVIOUS_GTIDS) {
+            if (!gtidCompleted && null != client.getGtidSet()) {
+                PreviousGtidSetEventData data = event.getData();
+                client.setGtidSet(data.getGtidSet());
+                gtidCompleted = true;
+                logger.info("{}记录GTID:{}", key, data.getGtidSet());
+            }
+            return Collections.emptyList();
+        }
+        if (type == EventType.XID) {
+            commit();
+        } else if (type == EventType.QUERY) {
+            QueryEventData data = event.getData();
+            if (null != data && null != data.getSql() && !"BEGIN".equalsIgnoreCase(data.getSql().trim())) {
+                commit();
+            }
+        }
+
+        List<Subscription> list = new ArrayList<>(subscriptions.size());
+        for (Subscription s : subscriptions) {
+            if (!s.isSkip(event, type, binlogFilename, binlogPosition)) {
+                list.add(s);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 分发事件(不持有读取流的锁), 订阅者处理异常时中断该订阅者
+     *
+     * @param gen
+     * @param s
+     * @param event
+     */
+    private void deliver(int gen, Subscription s, Event event) {
+        ListenerException error = null;
+        synchronized (s) {
+            if (s.failed) {
+                return;
+            }
+            if (s.restarted) {
+                s.restarted = false;
+                s.subscriber.onRestart();
+            }
+            if (gen != generation) {
+                return;
+            }
+            try {
+                s.subscriber.onEvent(event);
+            } catch (Exception e) {
+                s.failed = true;
+                error = e instanceof ListenerException ? (ListenerException) e : new ListenerException(e);
+            }
+        }
+        if (null != error) {
+            logger.error("{}分发事件异常:{}", key, error.getMessage(), error);
+            s.subscriber.onInterrupt(error);
+        }
+    }
+
+    private void commit() {
+        commitFilename = binlogFilename;
+        commitPosition = binlogPosition;
+        // 已读取到订阅者跳过的全部事务
+        if (gtidMode && null != client && subscriptions.stream().anyMatch(s -> !s.skipGtid.isEmpty())) {
+            final GtidSet current = new GtidSet(client.getGtidSet());
+            subscriptions.forEach(s -> s.skipGtid.removeIf(g -> g.isContainedWithin(current)));
+        }
+    }
+
+    /**
+     * 断线重连, 从最近一次事务提交的位置重新读取
+     *
+     * @param gen
+     */
+    private void reStart(int gen) {
+        for (int i = 1; i <= RETRY_TIMES; i++) {
+            try {
+                synchronized (this) {
+                    if (closed || gen != generation) {
+                        return;
+                    }
+                    try {
+                        restart(null, getCommitPosition());
+                    } finally {
+                        gen = generation;
+                    }
+                }
+                final ListenerException notice = new ListenerException(String.format("重启成功, %s", client.getWorkerThreadName()));
+                subscriptions.forEach(s -> s.subscriber.onError(notice));
+                logger.error("第{}次重启成功, ThreadName:{} ", i, client.getWorkerThreadName());
+                return;
+            } catch (Exception e) {
+                logger.error("第{}次重启异常, ThreadName:{}, {}", i, client.getWorkerThreadName(), e.getMessage());
+                // 无法连接，关闭任务
+                if (i == RETRY_TIMES) {
+                    interrupt(new ListenerException(String.format("重启异常, %s, %s", client.getWorkerThreadName(), e.getMessage())));
+                    return;
+                }
+            }
+            try {
+                TimeUnit.SECONDS.sleep(i * 2);
+            } catch (InterruptedException e) {
+                logger.error(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 通知所有订阅者关闭任务(不持有锁, 订阅者关闭时取消订阅)
+     *
+     * @param e
+     */
+    private void interrupt(ListenerException e) {
+        subscriptions.forEach(s -> s.subscriber.onInterrupt(e));
+    }
+
+    private static String intersect(GtidSet a, GtidSet b) {
+        List<String> result = new ArrayList<>();
+        for (GtidSet.UUIDSet uuidSet : a.getUUIDSets()) {
+            GtidSet.UUIDSet other = b.getUUIDSet(uuidSet.getUUID());
+            if (null == other) {
+                continue;
+            }
+            StringBuilder intervals = new StringBuilder();
+            for (GtidSet.Interval i : uuidSet.getIntervals()) {
+                for (GtidSet.Interval j : other.getIntervals()) {
+                    long start = Math.max(i.getStart(), j.getStart());
+                    long end = Math.min(i.getEnd(), j.getEnd());
+                    if (start <= end) {
+                        intervals.append(":").append(start).append("-").append(end);
+                    }
+                }
+            }
+            if (0 < intervals.length()) {
+                result.add(uuidSet.getUUID() + intervals);
+            }
+        }
+        return StringUtil.join(result, ",");
+    }
+
+    private static boolean contains(List<GtidSet> gtidSets, String gtid) {
+        int index = gtid.lastIndexOf(":");
+        String uuid = gtid.substring(0, index);
+        long transactionId = Long.parseLong(gtid.substring(index + 1));
+        for (GtidSet gtidSet : gtidSets) {
+            GtidSet.UUIDSet uuidSet = gtidSet.getUUIDSet(uuid);
+            if (null == uuidSet) {
+                continue;
+            }
+            for (GtidSet.Interval interval : uuidSet.getIntervals()) {
+                if (interval.getStart() <= transactionId && transactionId <= interval.getEnd()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 比较文件+位置, binlog文件按序号比较: mysql-bin.000009 < mysql-bin.000010
+     */
+    private static int compare(String fileName, long position, String otherFileName, long otherPosition) {
+        int c = Long.compare(getFileNumber(fileName), getFileNumber(otherFileName));
+        return 0 != c ? c : Long.compare(position, otherPosition);
+    }
+
+    private static long getFileNumber(String fileName) {
+        if (StringUtil.isBlank(fileName)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(fileName.substring(fileName.lastIndexOf(".") + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 订阅者
+     */
+    public interface Subscriber {
+
+        /**
+         * 增量点: fileName/position/gtidSet
+         *
+         * @return
+         */
+        Map<String, String> getSnapshot();
+
+        Set<String> getFilterTable();
+
+        /**
+         * 表名 -> 需要解析的列下标, 未配置的表解析全部列
+         *
+         * @return
+         */
+        Map<String, int[]> getProjection();
+
+        /**
+         * 是否按源库事务提交(重新读取时丢弃未提交的事务)
+         *
+         * @return
+         */
+        boolean isTransactional();
+
+        /**
+         * 加入读取流, 在读取和分发事件之前通知
+         *
+         * @param stream
+         */
+        void onSubscribe(BinlogStream stream);
+
+        void onEvent(Event event);
+
+        /**
+         * 未记录增量点时, 通知开始读取的位置
+         *
+         * @param binlogFilename
+         * @param binlogPosition
+         */
+        void onConnect(String binlogFilename, long binlogPosition);
+
+        /**
+         * 重新读取, 丢弃未提交的事务(在分发线程中, 重新读取的第一个事件之前通知)
+         */
+        void onRestart();
+
+        void onError(ListenerException e);
+
+        void onInterrupt(ListenerException e);
+    }
+
+    /**
+     * 订阅者已读取的位置, 重新读取时跳过
+     */
+    static final class Subscription {
+        private final Subscriber subscriber;
+        private final List<GtidSet> skipGtid = new ArrayList<>();
+        private String skipFilename;
+        private long skipPosition;
+        private boolean skipTransaction;
+        /**
+         * 待通知重新读取
+         */
+        private volatile boolean restarted;
+        /**
+         * 处理事件异常, 已中断
+         */
+        private boolean failed;
+
+        Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void skip(String fileName, long position) {
+            if (null == skipFilename || compare(fileName, position, skipFilename, skipPosition) > 0) {
+                skipFilename = fileName;
+                skipPosition = position;
+            }
+        }
+
+        boolean isSkip(Event event, EventType type, String binlogFilename, long binlogPosition) {
+            if (null != skipFilename) {
+                if (compare(binlogFilename, binlogPosition, skipFilename, skipPosition) <= 0) {
+                    return true;
+                }
+                skipFilename = null;
+            }
+            if (skipGtid.isEmpty()) {
+                return false;
+            }
+            if (type == EventType.GTID) {
+                GtidEventData data = event.getData();
+                skipTransaction = contains(skipGtid, data.getGtid());
+            }
+            return skipTransaction && type != EventType.ROTATE;
+        }
+    }
+
+    static final class Node {
+        private final Host host;
+        private boolean binlog;
+        private boolean slaveUpdates;
+        private boolean gtid;
+        private String gtidExecuted;
+        private boolean replicating;
+
+        Node(Host host) {
+            this.host = host;
+        }
+
+        /**
+         * 从库自身的binlog包含复制的事务, 并且可以按GTID定位
+         *
+         * @return
+         */
+        boolean isHealthyReplica() {
+            return binlog && slaveUpdates && gtid && replicating;
+        }
+    }
+
+    final class StreamLifecycleListener implements BinaryLogRemoteClient.LifecycleListener {
+
+        private final int gen;
+
+        StreamLifecycleListener(int gen) {
+            this.gen = gen;
+        }
+
+        @Override
+        public void onConnect(BinaryLogRemoteClient client) {
+            synchronized (BinlogStream.this) {
+                binlogFilename = client.getBinlogFilename();
+                binlogPosition = client.getBinlogPosition();
+                commit();
+                // 记录未设置增量点的订阅者开始读取的位置
+                for (Subscription s : subscriptions) {
+                    Map<String, String> snapshot = s.subscriber.getSnapshot();
+                    if (null == snapshot.get(BINLOG_GTID_SET) && StringUtil.isBlank(snapshot.get(BINLOG_FILENAME))) {
+                        s.subscriber.onConnect(binlogFilename, binlogPosition);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onCommunicationFailure(BinaryLogRemoteClient client, Exception e) {
+            if (closed || gen != generation) {
+                return;
+            }
+            logger.error(e.getMessage());
+            /**
+             * e:
+             * case1> Due to the automatic expiration and deletion mechanism of MySQL binlog files, the binlog file cannot be found.
+             * case2> Got fatal error 1236 from master when reading data from binary log.
+             * case3> Log event entry exceeded max_allowed_packet; Increase max_allowed_packet on master.
+             */
+            if (e instanceof ServerException) {
+                ServerException serverException = (ServerException) e;
+                if (serverException.getErrorCode() == 1236) {
+                    String log = String.format("线程[%s]执行异常。由于MySQL配置了过期binlog文件自动删除机制，已无法找到原binlog文件%s。建议先保存驱动（加载最新的binlog文件），再启动驱动。",
+                            client.getWorkerThreadName(),
+                            client.getBinlogFilename());
+                    interrupt(new ListenerException(log));
+                    return;
+                }
+            }
+
+            reStart(gen);
+        }
+
+        @Override
+        public void onEventDeserializationFailure(BinaryLogRemoteClient client, Exception ex) {
+        }
+
+        @Override
+        public void onDisconnect(BinaryLogRemoteClient client) {
+        }
+
+    }
+
+}
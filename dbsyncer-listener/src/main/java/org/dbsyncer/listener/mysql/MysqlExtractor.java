@@ -1,29 +1,22 @@
 package org.dbsyncer.listener.mysql;
 
 import com.github.shyiko.mysql.binlog.event.*;
-import com.github.shyiko.mysql.binlog.network.ServerException;
 import org.dbsyncer.common.event.RowChangedEvent;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.config.DatabaseConfig;
 import org.dbsyncer.connector.constant.ConnectorConstant;
 import org.dbsyncer.listener.AbstractExtractor;
 import org.dbsyncer.listener.ListenerException;
-import org.dbsyncer.listener.config.Host;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.Assert;
 
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.regex.Matcher;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static java.util.regex.Pattern.compile;
 
 /**
+ * 订阅数据源共享的binlog读取流, 同一数据源的多个驱动只读取和解析一次binlog
+ *
  * @version 1.0.0
  * @Author AE86
  * @Date 2020-05-12 21:14
@@ -32,15 +25,11 @@ public class MysqlExtractor extends AbstractExtractor {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private static final String          BINLOG_FILENAME = "fileName";
-    private static final String          BINLOG_POSITION = "position";
-    private static final int             RETRY_TIMES     = 10;
-    private static final int             MASTER          = 0;
-    private Map<Long, TableMapEventData> tables          = new HashMap<>();
-    private BinaryLogClient              client;
-    private List<Host>                   cluster;
     private final Lock connectLock = new ReentrantLock();
     private volatile boolean connected;
+    private final List<RowChangedEvent> transaction = new ArrayList<>();
+    private final MysqlSubscriber subscriber = new MysqlSubscriber();
+    private volatile BinlogStream stream;
 
     @Override
     public void start() {
@@ -50,9 +39,12 @@ public class MysqlExtractor extends AbstractExtractor {
                 logger.error("MysqlExtractor is already started");
                 return;
             }
-            run();
+            startSpool();
+            transaction.clear();
             connected = true;
+            BinlogStream.subscribe((DatabaseConfig) connectorConfig, subscriber);
         } catch (Exception e) {
+            connected = false;
             logger.error("启动失败:{}", e.getMessage());
             throw new ListenerException(e);
         } finally {
@@ -65,9 +57,9 @@ public class MysqlExtractor extends AbstractExtractor {
         try {
             connectLock.lock();
             connected = false;
-            if (null != client) {
-                client.disconnect();
-            }
+            closeDispatcher();
+            BinlogStream.unsubscribe(stream, subscriber);
+            stream = null;
         } catch (Exception e) {
             logger.error("关闭失败:{}", e.getMessage());
         } finally {
@@ -75,71 +67,13 @@ public class MysqlExtractor extends AbstractExtractor {
         }
     }
 
-    private void run() throws Exception {
-        final DatabaseConfig config = (DatabaseConfig) connectorConfig;
-        cluster = readNodes(config.getUrl());
-        Assert.notEmpty(cluster, "Mysql连接地址有误.");
-
-        final Host host = cluster.get(MASTER);
-        final String username = config.getUsername();
-        final String password = config.getPassword();
-        final String pos = snapshot.get(BINLOG_POSITION);
-        client = new BinaryLogRemoteClient(host.getIp(), host.getPort(), username, password);
-        client.setBinlogFilename(snapshot.get(BINLOG_FILENAME));
-        client.setBinlogPosition(StringUtil.isBlank(pos) ? 0 : Long.parseLong(pos));
-        client.setTableMapEventByTableId(tables);
-        client.registerEventListener(new MysqlEventListener());
-        client.registerLifecycleListener(new MysqlLifecycleListener());
-
-        client.connect();
-    }
-
-    private List<Host> readNodes(String url) {
-        if (StringUtil.isBlank(url)) {
-            return Collections.EMPTY_LIST;
-        }
-        Matcher matcher = compile("(//)(?!(/)).+?(/)").matcher(url);
-        while (matcher.find()) {
-            url = matcher.group(0);
-            break;
-        }
-        url = StringUtil.replace(url, "/", "");
-
-        List<Host> cluster = new ArrayList<>();
-        String[] arr = StringUtil.split(url, ",");
-        int size = arr.length;
-        for (int i = 0; i < size; i++) {
-            String[] host = StringUtil.split(arr[i], ":");
-            if (2 == host.length) {
-                cluster.add(new Host(host[0], Integer.parseInt(host[1])));
-            }
-        }
-        return cluster;
-    }
-
-    private void reStart() {
-        for (int i = 1; i <= RETRY_TIMES; i++) {
-            try {
-                if (null != client) {
-                    client.disconnect();
-                }
-                run();
-
-                errorEvent(new ListenerException(String.format("重启成功, %s", client.getWorkerThreadName())));
-                logger.error("第{}次重启成功, ThreadName:{} ", i, client.getWorkerThreadName());
-                break;
-            } catch (Exception e) {
-                logger.error("第{}次重启异常, ThreadName:{}, {}", i, client.getWorkerThreadName(), e.getMessage());
-                // 无法连接，关闭任务
-                if (i == RETRY_TIMES) {
-                    interruptException(new ListenerException(String.format("重启异常, %s, %s", client.getWorkerThreadName(), e.getMessage())));
-                }
-            }
-            try {
-                TimeUnit.SECONDS.sleep(i * 2);
-            } catch (InterruptedException e) {
-                logger.error(e.getMessage());
-            }
+    /**
+     * 记录已提交事务的GTID集合
+     */
+    private void refreshGtid() {
+        String gtidSet = stream.getGtidSet();
+        if (null != gtidSet) {
+            snapshot.put(BinlogStream.BINLOG_GTID_SET, gtidSet);
         }
     }
 
@@ -150,106 +84,163 @@ public class MysqlExtractor extends AbstractExtractor {
 
     private void refresh(String binlogFilename, long nextPosition) {
         if (StringUtil.isNotBlank(binlogFilename)) {
-            client.setBinlogFilename(binlogFilename);
-            snapshot.put(BINLOG_FILENAME, binlogFilename);
+            snapshot.put(BinlogStream.BINLOG_FILENAME, binlogFilename);
         }
         if (0 < nextPosition) {
-            client.setBinlogPosition(nextPosition);
-            snapshot.put(BINLOG_POSITION, String.valueOf(nextPosition));
+            snapshot.put(BinlogStream.BINLOG_POSITION, String.valueOf(nextPosition));
         }
+        markPosition();
+    }
+
+    /**
+     * 按源库事务分组时, 增量点只在事务提交后刷新
+     *
+     * @return
+     */
+    private boolean isTransactional() {
+        return 0 < transactionSize;
     }
 
-    final class MysqlLifecycleListener implements BinaryLogRemoteClient.LifecycleListener {
+    private void sendRowChangedEvent(RowChangedEvent event) {
+        if (!isTransactional()) {
+            asynSendRowChangedEvent(event);
+            return;
+        }
+        transaction.add(event);
+        // 超大事务分块提交, 增量点仍停留在事务开始位置, 重启后整个事务重新写入
+        if (transaction.size() >= transactionSize) {
+            flushTransaction();
+        }
+    }
+
+    /**
+     * 发送缓存的事务数据
+     */
+    private void flushTransaction() {
+        if (transaction.isEmpty()) {
+            return;
+        }
+        List<RowChangedEvent> events = new ArrayList<>(transaction);
+        transaction.clear();
+        sendTransaction(events);
+    }
+
+    final class MysqlSubscriber implements BinlogStream.Subscriber {
 
         @Override
-        public void onConnect(BinaryLogRemoteClient client) {
-            // 记录binlog增量点
-            refresh(client.getBinlogFilename(), client.getBinlogPosition());
+        public Map<String, String> getSnapshot() {
+            return snapshot;
         }
 
         @Override
-        public void onCommunicationFailure(BinaryLogRemoteClient client, Exception e) {
-            if (!connected) {
-                return;
-            }
-            logger.error(e.getMessage());
-            /**
-             * e:
-             * case1> Due to the automatic expiration and deletion mechanism of MySQL binlog files, the binlog file cannot be found.
-             * case2> Got fatal error 1236 from master when reading data from binary log.
-             * case3> Log event entry exceeded max_allowed_packet; Increase max_allowed_packet on master.
-             */
-            if (e instanceof ServerException) {
-                ServerException serverException = (ServerException) e;
-                if (serverException.getErrorCode() == 1236) {
-                    close();
-                    String log = String.format("线程[%s]执行异常。由于MySQL配置了过期binlog文件自动删除机制，已无法找到原binlog文件%s。建议先保存驱动（加载最新的binlog文件），再启动驱动。",
-                            client.getWorkerThreadName(),
-                            client.getBinlogFilename());
-                    interruptException(new ListenerException(log));
-                    return;
-                }
-            }
+        public Set<String> getFilterTable() {
+            return filterTable;
+        }
 
-            reStart();
+        @Override
+        public Map<String, int[]> getProjection() {
+            return projection;
         }
 
         @Override
-        public void onEventDeserializationFailure(BinaryLogRemoteClient client, Exception ex) {
+        public boolean isTransactional() {
+            return MysqlExtractor.this.isTransactional();
         }
 
         @Override
-        public void onDisconnect(BinaryLogRemoteClient client) {
+        public void onSubscribe(BinlogStream stream) {
+            MysqlExtractor.this.stream = stream;
         }
 
-    }
+        @Override
+        public void onConnect(String binlogFilename, long binlogPosition) {
+            // 记录binlog增量点
+            refreshGtid();
+            refresh(binlogFilename, binlogPosition);
+        }
+
+        @Override
+        public void onRestart() {
+            // 从上次提交的事务之后重新读取, 丢弃未完成的事务
+            transaction.clear();
+        }
+
+        @Override
+        public void onError(ListenerException e) {
+            errorEvent(e);
+        }
 
-    final class MysqlEventListener implements BinaryLogRemoteClient.EventListener {
+        @Override
+        public void onInterrupt(ListenerException e) {
+            close();
+            interruptException(e);
+        }
 
         @Override
         public void onEvent(Event event) {
+            if (!connected) {
+                return;
+            }
             // ROTATE > FORMAT_DESCRIPTION > TABLE_MAP > WRITE_ROWS > UPDATE_ROWS > DELETE_ROWS > XID
             EventHeader header = event.getHeader();
             if (header.getEventType() == EventType.XID) {
+                flushTransaction();
+                refreshGtid();
                 refresh(header);
                 return;
             }
+            // 非事务引擎(MyISAM)以COMMIT语句结束
+            if (header.getEventType() == EventType.QUERY && isTransactional()) {
+                QueryEventData data = event.getData();
+                if (null != data && null != data.getSql() && "COMMIT".equalsIgnoreCase(data.getSql().trim())) {
+                    flushTransaction();
+                    refreshGtid();
+                    refresh(header);
+                }
+                return;
+            }
 
             if (EventType.isUpdate(header.getEventType())) {
                 UpdateRowsEventData data = event.getData();
                 String tableName = getTableName(data.getTableId());
-                if (isFilterTable(tableName, ConnectorConstant.OPERTION_UPDATE)) {
+                if (isFilterTable(tableName)) {
                     data.getRows().forEach(m -> {
-                        List<Object> before = Stream.of(m.getKey()).collect(Collectors.toList());
-                        List<Object> after = Stream.of(m.getValue()).collect(Collectors.toList());
-                        asynSendRowChangedEvent(new RowChangedEvent(tableName, ConnectorConstant.OPERTION_UPDATE, before, after));
+                        List<Object> before = Arrays.asList((Object[]) m.getKey());
+                        List<Object> after = Arrays.asList((Object[]) m.getValue());
+                        sendRowChangedEvent(new RowChangedEvent(tableName, ConnectorConstant.OPERTION_UPDATE, before, after));
                     });
                 }
-                refresh(header);
+                if (!isTransactional()) {
+                    refresh(header);
+                }
                 return;
             }
             if (EventType.isWrite(header.getEventType())) {
                 WriteRowsEventData data = event.getData();
                 String tableName = getTableName(data.getTableId());
-                if (isFilterTable(tableName, ConnectorConstant.OPERTION_INSERT)) {
+                if (isFilterTable(tableName)) {
                     data.getRows().forEach(m -> {
-                        List<Object> after = Stream.of(m).collect(Collectors.toList());
-                        asynSendRowChangedEvent(new RowChangedEvent(tableName, ConnectorConstant.OPERTION_INSERT, Collections.EMPTY_LIST, after));
+                        List<Object> after = Arrays.asList((Object[]) m);
+                        sendRowChangedEvent(new RowChangedEvent(tableName, ConnectorConstant.OPERTION_INSERT, Collections.EMPTY_LIST, after));
                     });
                 }
-                refresh(header);
+                if (!isTransactional()) {
+                    refresh(header);
+                }
                 return;
             }
             if (EventType.isDelete(header.getEventType())) {
                 DeleteRowsEventData data = event.getData();
                 String tableName = getTableName(data.getTableId());
-                if (isFilterTable(tableName, ConnectorConstant.OPERTION_DELETE)) {
+                if (isFilterTable(tableName)) {
                     data.getRows().forEach(m -> {
-                        List<Object> before = Stream.of(m).collect(Collectors.toList());
-                        asynSendRowChangedEvent(new RowChangedEvent(tableName, ConnectorConstant.OPERTION_DELETE, before, Collections.EMPTY_LIST));
+                        List<Object> before = Arrays.asList((Object[]) m);
+                        sendRowChangedEvent(new RowChangedEvent(tableName, ConnectorConstant.OPERTION_DELETE, before, Collections.EMPTY_LIST));
                     });
                 }
-                refresh(header);
+                if (!isTransactional()) {
+                    refresh(header);
+                }
                 return;
             }
 
@@ -263,17 +254,13 @@ public class MysqlExtractor extends AbstractExtractor {
         }
 
         private String getTableName(long tableId) {
-            return tables.get(tableId).getTable();
+            return stream.getTableName(tableId);
         }
 
-        private boolean isFilterTable(String tableName, String event) {
-            if (!filterTable.contains(tableName)) {
-                logger.info("Table[{}] {}", tableName, event);
-                return false;
-            }
-            return true;
+        private boolean isFilterTable(String tableName) {
+            return filterTable.contains(tableName);
         }
 
     }
 
-}
\ No newline at end of file
+}
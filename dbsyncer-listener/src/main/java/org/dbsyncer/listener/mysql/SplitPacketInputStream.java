@@ -0,0 +1,100 @@
+package org.dbsyncer.listener.mysql;
+
+import com.github.shyiko.mysql.binlog.io.ByteArrayInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 超过16MB的事件包按块拆分传输: [3字节长度][1字节序号][数据], 最后一块长度小于16MB
+ * <p>按块直接从连接读取, 读取时跳过块头, 不拼接完整事件包
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/21 20:30
+ */
+final class SplitPacketInputStream extends InputStream {
+
+    private static final int MAX_PACKET_LENGTH = 16777215;
+
+    private final ByteArrayInputStream inputStream;
+
+    /**
+     * 当前块剩余字节数
+     */
+    private int remaining;
+
+    /**
+     * 当前块是否最后一块
+     */
+    private boolean last;
+
+    /**
+     * @param inputStream 连接输入流
+     * @param remaining   第一块剩余字节数
+     */
+    SplitPacketInputStream(ByteArrayInputStream inputStream, int remaining) {
+        this.inputStream = inputStream;
+        this.remaining = remaining;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!hasRemaining()) {
+            return -1;
+        }
+        remaining--;
+        return inputStream.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (0 == len) {
+            return 0;
+        }
+        if (!hasRemaining()) {
+            return -1;
+        }
+        int length = Math.min(len, remaining);
+        inputStream.fill(b, off, length);
+        remaining -= length;
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return remaining;
+    }
+
+    /**
+     * 跳过未读取的字节, 定位到下一个事件包
+     *
+     * @throws IOException
+     */
+    void drain() throws IOException {
+        while (hasRemaining()) {
+            while (remaining > 0) {
+                long skipped = inputStream.skip(remaining);
+                if (skipped <= 0) {
+                    inputStream.read();
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+        }
+    }
+
+    private boolean hasRemaining() throws IOException {
+        while (0 == remaining) {
+            if (last) {
+                return false;
+            }
+            remaining = inputStream.readInteger(3);
+            // 1 byte for sequence
+            inputStream.skip(1);
+            last = remaining < MAX_PACKET_LENGTH;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.dbsyncer.listener.mysql.deserializer;
+
+import org.dbsyncer.common.event.LazyValue;
+
+import java.util.Arrays;
+
+/**
+ * CHAR/VARCHAR原始字节, 读取时按默认字符集解码(与binlog组件readString一致)
+ * <p>相等和哈希按原始字节计算, 可直接用于按主键分配通道
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/20 21:20
+ */
+public final class LazyString implements LazyValue {
+
+    private final byte[] bytes;
+
+    private transient String value;
+
+    public LazyString(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public String getValue() {
+        if (null == value) {
+            value = new String(bytes);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof LazyString && Arrays.equals(bytes, ((LazyString) o).bytes));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return getValue();
+    }
+
+}
@@ -0,0 +1,202 @@
+package org.dbsyncer.listener.mysql.deserializer;
+
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.ColumnType;
+import com.github.shyiko.mysql.binlog.event.deserialization.MissingTableMapEventException;
+import com.github.shyiko.mysql.binlog.io.ByteArrayInputStream;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 行事件过滤: 按表ID找到TABLE_MAP中的表名
+ * <ol>
+ * <li>直接从事件输入流解析, 不复制事件数据</li>
+ * <li>未监听的表不解析行数据, 只读取6字节表ID, 剩余字节由EventDeserializer按事件长度跳过, 不创建行对象</li>
+ * <li>监听的表只解析需要的列, 其他列的变长值(VARCHAR/BLOB/TEXT/JSON等)直接跳过, 定长值解析后丢弃, 值为null</li>
+ * <li>CHAR/VARCHAR保留原始字节, 读取字段时再解码字符集</li>
+ * </ol>
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/19 20:40
+ */
+public final class RowsEventFilter {
+
+    private static final int TABLE_ID_LENGTH = 6;
+
+    private final Map<Long, TableMapEventData> tableMapEventByTableId;
+
+    private final Set<String> filterTable;
+
+    private final Map<String, BitSet> projection = new HashMap<>();
+
+    /**
+     * @param tableMapEventByTableId 表ID -> TABLE_MAP
+     * @param filterTable            监听的表名, 为空时不过滤
+     * @param projection             表名 -> 需要解析的列下标, 未配置的表解析全部列
+     */
+    public RowsEventFilter(Map<Long, TableMapEventData> tableMapEventByTableId, Set<String> filterTable, Map<String, int[]> projection) {
+        this.tableMapEventByTableId = tableMapEventByTableId;
+        this.filterTable = filterTable;
+        if (null != projection) {
+            projection.forEach((tableName, index) -> {
+                BitSet columns = new BitSet();
+                for (int i : index) {
+                    columns.set(i);
+                }
+                this.projection.put(tableName, columns);
+            });
+        }
+    }
+
+    public long readTableId(ByteArrayInputStream inputStream) throws IOException {
+        return inputStream.readLong(TABLE_ID_LENGTH);
+    }
+
+    /**
+     * 是否跳过该表的行数据(缺少TABLE_MAP时不跳过)
+     *
+     * @param tableId
+     * @return
+     */
+    public boolean isSkip(long tableId) {
+        if (null == filterTable || filterTable.isEmpty()) {
+            return false;
+        }
+        TableMapEventData tableMap = tableMapEventByTableId.get(tableId);
+        return null != tableMap && !filterTable.contains(tableMap.getTable());
+    }
+
+    /**
+     * 读取表ID之后的事件头, 返回列数
+     *
+     * @param inputStream
+     * @param mayContainExtraInformation 是否包含扩展信息(v2行事件)
+     * @return
+     * @throws IOException
+     */
+    public int readColumnCount(ByteArrayInputStream inputStream, boolean mayContainExtraInformation) throws IOException {
+        // reserved
+        skip(inputStream, 2);
+        if (mayContainExtraInformation) {
+            int extraInfoLength = inputStream.readInteger(2);
+            skip(inputStream, extraInfoLength - 2);
+        }
+        return inputStream.readPackedInteger();
+    }
+
+    /**
+     * 按列裁剪解析行数据, 结构与AbstractRowsEventDataDeserializer.deserializeRow一致
+     *
+     * @param tableId
+     * @param includedColumns 行数据包含的列
+     * @param inputStream
+     * @param deserializer    单元格解析
+     * @return
+     * @throws IOException
+     */
+    public Serializable[] deserializeRow(long tableId, BitSet includedColumns, ByteArrayInputStream inputStream, CellDeserializer deserializer) throws IOException {
+        TableMapEventData tableMap = tableMapEventByTableId.get(tableId);
+        if (null == tableMap) {
+            throw new MissingTableMapEventException(String.format("No TableMapEventData has been found for table id:%s.", tableId));
+        }
+        final BitSet columns = projection.get(tableMap.getTable());
+        final byte[] types = tableMap.getColumnTypes();
+        final int[] metadata = tableMap.getColumnMetadata();
+        Serializable[] result = new Serializable[includedColumns.cardinality()];
+        BitSet nullColumns = inputStream.readBitSet(result.length, true);
+        for (int i = 0, skipped = 0; i < types.length; i++) {
+            if (!includedColumns.get(i)) {
+                skipped++;
+                continue;
+            }
+            int index = i - skipped;
+            if (nullColumns.get(index)) {
+                continue;
+            }
+            int typeCode = types[i] & 0xFF;
+            int meta = metadata[i];
+            int length = 0;
+            if (typeCode == ColumnType.STRING.getCode()) {
+                if (meta >= 256) {
+                    int meta0 = meta >> 8;
+                    int meta1 = meta & 0xFF;
+                    if ((meta0 & 0x30) != 0x30) {
+                        typeCode = meta0 | 0x30;
+                        length = meta1 | (((meta0 & 0x30) ^ 0x30) << 4);
+                    } else {
+                        if (meta0 == ColumnType.SET.getCode() || meta0 == ColumnType.ENUM.getCode() || meta0 == ColumnType.STRING.getCode()) {
+                            typeCode = meta0;
+                        }
+                        length = meta1;
+                    }
+                } else {
+                    length = meta;
+                }
+            }
+            result[index] = deserializeCell(ColumnType.byCode(typeCode), meta, length, null == columns || columns.get(i), inputStream, deserializer);
+        }
+        return result;
+    }
+
+    private Serializable deserializeCell(ColumnType type, int meta, int length, boolean picked, ByteArrayInputStream inputStream,
+                                         CellDeserializer deserializer) throws IOException {
+        if (null != type) {
+            switch (type) {
+                case VARCHAR:
+                case VAR_STRING:
+                    return readString(meta < 256 ? inputStream.readInteger(1) : inputStream.readInteger(2), picked, inputStream);
+                case STRING:
+                    return readString(length < 256 ? inputStream.readInteger(1) : inputStream.readInteger(2), picked, inputStream);
+                case BLOB:
+                case JSON:
+                case GEOMETRY:
+                    if (!picked) {
+                        skip(inputStream, inputStream.readInteger(meta));
+                        return null;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        Serializable value = deserializer.deserialize(type, meta, length, inputStream);
+        return picked ? value : null;
+    }
+
+    private Serializable readString(int length, boolean picked, ByteArrayInputStream inputStream) throws IOException {
+        if (!picked) {
+            skip(inputStream, length);
+            return null;
+        }
+        return new LazyString(inputStream.read(length));
+    }
+
+    private void skip(ByteArrayInputStream inputStream, long length) throws IOException {
+        while (length > 0) {
+            long skipped = inputStream.skip(length);
+            if (skipped <= 0) {
+                if (inputStream.read() < 0) {
+                    throw new IOException("Unexpected end of rows event.");
+                }
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    /**
+     * 单元格解析(AbstractRowsEventDataDeserializer.deserializeCell)
+     */
+    public interface CellDeserializer {
+
+        Serializable deserialize(ColumnType type, int meta, int length, ByteArrayInputStream inputStream) throws IOException;
+
+    }
+
+}
@@ -1,20 +1,69 @@
 package org.dbsyncer.listener.mysql.deserializer;
 
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
 import com.github.shyiko.mysql.binlog.event.TableMapEventData;
 import com.github.shyiko.mysql.binlog.event.deserialization.UpdateRowsEventDataDeserializer;
 import com.github.shyiko.mysql.binlog.io.ByteArrayInputStream;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public class UpdateDeserializer extends UpdateRowsEventDataDeserializer {
 
     private DatetimeV2Deserialize datetimeV2Deserialize;
 
+    private RowsEventFilter rowsEventFilter;
+
+    private final RowsEventFilter.CellDeserializer cellDeserializer = this::deserializeCell;
+
+    private boolean mayContainExtraInformation;
+
     public UpdateDeserializer(Map<Long, TableMapEventData> tableMapEventByTableId) {
+        this(tableMapEventByTableId, null);
+    }
+
+    public UpdateDeserializer(Map<Long, TableMapEventData> tableMapEventByTableId, RowsEventFilter rowsEventFilter) {
         super(tableMapEventByTableId);
         datetimeV2Deserialize = new DatetimeV2Deserialize();
+        this.rowsEventFilter = rowsEventFilter;
+    }
+
+    @Override
+    public UpdateRowsEventData deserialize(ByteArrayInputStream inputStream) throws IOException {
+        if (null == rowsEventFilter) {
+            return super.deserialize(inputStream);
+        }
+        // 直接从事件输入流解析, 不复制事件数据
+        UpdateRowsEventData eventData = new UpdateRowsEventData();
+        eventData.setTableId(rowsEventFilter.readTableId(inputStream));
+        if (rowsEventFilter.isSkip(eventData.getTableId())) {
+            // 未监听的表, 剩余字节由EventDeserializer跳过
+            eventData.setRows(Collections.emptyList());
+            return eventData;
+        }
+        int numberOfColumns = rowsEventFilter.readColumnCount(inputStream, mayContainExtraInformation);
+        eventData.setIncludedColumnsBeforeUpdate(inputStream.readBitSet(numberOfColumns, true));
+        eventData.setIncludedColumns(inputStream.readBitSet(numberOfColumns, true));
+        List<Map.Entry<Serializable[], Serializable[]>> rows = new ArrayList<>();
+        while (inputStream.available() > 0) {
+            Serializable[] before = rowsEventFilter.deserializeRow(eventData.getTableId(), eventData.getIncludedColumnsBeforeUpdate(), inputStream, cellDeserializer);
+            Serializable[] after = rowsEventFilter.deserializeRow(eventData.getTableId(), eventData.getIncludedColumns(), inputStream, cellDeserializer);
+            rows.add(new AbstractMap.SimpleEntry<>(before, after));
+        }
+        eventData.setRows(rows);
+        return eventData;
+    }
+
+    @Override
+    public UpdateDeserializer setMayContainExtraInformation(boolean mayContainExtraInformation) {
+        super.setMayContainExtraInformation(mayContainExtraInformation);
+        this.mayContainExtraInformation = mayContainExtraInformation;
+        return this;
     }
 
     protected Serializable deserializeDatetimeV2(int meta, ByteArrayInputStream inputStream) throws IOException {
@@ -28,6 +28,7 @@ public class OracleExtractor extends AbstractExtractor {
             client = new DBChangeNotification(username, password, url);
             client.setFilterTable(filterTable);
             client.addRowEventListener((e) -> asynSendRowChangedEvent(e));
+            startSpool();
             client.start();
         } catch (Exception e) {
             logger.error("启动失败:{}", e.getMessage());
@@ -40,6 +41,7 @@ public class OracleExtractor extends AbstractExtractor {
         if (null != client) {
             client.close();
         }
+        closeDispatcher();
     }
 
 }
\ No newline at end of file
@@ -135,6 +135,7 @@ public abstract class AbstractQuartzExtractor extends AbstractExtractor implemen
         if (point.refreshed()) {
             snapshot.putAll(point.getPosition());
         }
+        markPosition();
 
     }
 
@@ -0,0 +1,252 @@
+package org.dbsyncer.listener.spool;
+
+import org.dbsyncer.common.event.LazyValue;
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.listener.ListenerException;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 增量事件二进制编码
+ * <pre>
+ *     [表名][事件][变更前数据][变更后数据]
+ *     字符串: [长度][UTF-8], 长度-1表示null
+ *     数据: [列数][类型][值]..., 列数-1表示null
+ * </pre>
+ * 常用类型按定长/变长编码, 延迟解析的值解析后编码, 其他可序列化类型使用Java序列化
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/12 16:40
+ */
+public abstract class RowChangedEventCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte SHORT = 4;
+    private static final byte BYTE = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte DECIMAL = 9;
+    private static final byte BIG_INTEGER = 10;
+    private static final byte BYTES = 11;
+    private static final byte TIMESTAMP = 12;
+    private static final byte SQL_DATE = 13;
+    private static final byte TIME = 14;
+    private static final byte DATE = 15;
+    private static final byte BIT_SET = 16;
+    private static final byte SERIALIZABLE = 99;
+
+    public static byte[] encode(RowChangedEvent event) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeString(out, event.getTableName());
+            writeString(out, event.getEvent());
+            writeList(out, event.getBeforeData());
+            writeList(out, event.getAfterData());
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new ListenerException(e);
+        }
+    }
+
+    public static RowChangedEvent decode(byte[] data) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            String tableName = readString(in);
+            String event = readString(in);
+            List<Object> before = readList(in);
+            List<Object> after = readList(in);
+            return new RowChangedEvent(tableName, event, before, after);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new ListenerException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (null == value) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) {
+            return null;
+        }
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] b) throws IOException {
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return b;
+    }
+
+    private static void writeList(DataOutputStream out, List<Object> list) throws IOException {
+        if (null == list) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(list.size());
+        for (Object value : list) {
+            writeValue(out, value);
+        }
+    }
+
+    private static List<Object> readList(DataInputStream in) throws IOException, ClassNotFoundException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readValue(in));
+        }
+        return list;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (null == value) {
+            out.writeByte(NULL);
+        } else if (value instanceof LazyValue) {
+            writeValue(out, ((LazyValue) value).getValue());
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            out.writeByte(DECIMAL);
+            out.writeInt(decimal.scale());
+            writeBytes(out, decimal.unscaledValue().toByteArray());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            writeBytes(out, ((BigInteger) value).toByteArray());
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes(out, (byte[]) value);
+        } else if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            out.writeByte(TIMESTAMP);
+            out.writeLong(timestamp.getTime());
+            out.writeInt(timestamp.getNanos());
+        } else if (value instanceof java.sql.Date) {
+            out.writeByte(SQL_DATE);
+            out.writeLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof Time) {
+            out.writeByte(TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof BitSet) {
+            out.writeByte(BIT_SET);
+            writeBytes(out, ((BitSet) value).toByteArray());
+        } else if (value instanceof Serializable) {
+            out.writeByte(SERIALIZABLE);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(value);
+            }
+            writeBytes(out, bytes.toByteArray());
+        } else {
+            throw new ListenerException(String.format("Unsupported spool value type:%s", value.getClass().getName()));
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case SHORT:
+                return in.readShort();
+            case BYTE:
+                return in.readByte();
+            case BOOLEAN:
+                return in.readBoolean();
+            case FLOAT:
+                return in.readFloat();
+            case DOUBLE:
+                return in.readDouble();
+            case DECIMAL:
+                int scale = in.readInt();
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            case BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case BYTES:
+                return readBytes(in);
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case SQL_DATE:
+                return new java.sql.Date(in.readLong());
+            case TIME:
+                return new Time(in.readLong());
+            case DATE:
+                return new Date(in.readLong());
+            case BIT_SET:
+                return BitSet.valueOf(readBytes(in));
+            case SERIALIZABLE:
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                    return ois.readObject();
+                }
+            default:
+                throw new ListenerException(String.format("Unknown spool value type:%s", type));
+        }
+    }
+
+}
@@ -0,0 +1,326 @@
+package org.dbsyncer.listener.spool;
+
+import org.dbsyncer.listener.ListenerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 增量事件本地缓存: 按段追加写入的内存映射文件
+ * <ol>
+ * <li>记录格式: [长度][CRC32][数据], 长度0表示段内无后续记录, 长度-1表示切换到下一段</li>
+ * <li>偏移量全局递增, 段文件名为段起始偏移量</li>
+ * <li>分组刷盘: 累计一定条数或调用{@link #sync()}时刷盘</li>
+ * <li>确认偏移量持久化到ack文件, 重启后从确认位置重放, 已确认的段文件删除</li>
+ * </ol>
+ * 单写单读, 写入和读取可以在不同线程
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/12 15:20
+ */
+public final class Spool {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String ACK_FILE = "ack";
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8;
+    private static final int ROLL = -1;
+    private static final int SYNC_BATCH = 1000;
+
+    private final File dir;
+
+    private final int segmentSize;
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final Object signal = new Object();
+
+    /**
+     * 写入位置(已写入的记录对读取可见)
+     */
+    private volatile long writeOffset;
+
+    private volatile long readOffset;
+
+    private long ackOffset;
+
+    private int unsynced;
+
+    public Spool(File dir) {
+        this(dir, SEGMENT_SIZE);
+    }
+
+    /**
+     * @param dir         缓存目录
+     * @param segmentSize 段大小
+     */
+    Spool(File dir, int segmentSize) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        try {
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new IOException(String.format("Can not create dir %s", dir.getAbsolutePath()));
+            }
+            open();
+        } catch (IOException e) {
+            throw new ListenerException(e);
+        }
+    }
+
+    /**
+     * 追加记录, 返回记录结束位置
+     *
+     * @param data
+     * @return
+     */
+    public synchronized long append(byte[] data) {
+        try {
+            Segment segment = segments.get(segments.size() - 1);
+            int position = (int) (writeOffset - segment.base);
+            int required = HEADER_SIZE + data.length;
+            if (position + required > segment.size) {
+                if (position + 4 <= segment.size) {
+                    segment.buffer.putInt(position, ROLL);
+                }
+                segment = createSegment(segment.base + segment.size, Math.max(segmentSize, required + 4));
+                segments.add(segment);
+                position = 0;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.position(position + 4);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(data);
+            // 最后写入长度, 读取时长度有效即记录完整
+            segment.buffer.putInt(position, data.length);
+            segment.dirty = true;
+            writeOffset = segment.base + position + required;
+
+            if (++unsynced >= SYNC_BATCH) {
+                sync();
+            }
+        } catch (IOException e) {
+            throw new ListenerException(e);
+        }
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        return writeOffset;
+    }
+
+    /**
+     * 读取下一条记录, 无数据时等待
+     *
+     * @param timeout 毫秒
+     * @return 无数据时返回null
+     * @throws InterruptedException
+     */
+    public byte[] poll(long timeout) throws InterruptedException {
+        if (readOffset >= writeOffset) {
+            synchronized (signal) {
+                if (readOffset >= writeOffset) {
+                    signal.wait(timeout);
+                }
+            }
+            if (readOffset >= writeOffset) {
+                return null;
+            }
+        }
+        Segment segment = findSegment(readOffset);
+        int position = (int) (readOffset - segment.base);
+        int length = position + 4 <= segment.size ? segment.buffer.getInt(position) : ROLL;
+        if (length == ROLL || length == 0) {
+            readOffset = segment.base + segment.size;
+            return poll(timeout);
+        }
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(position + 4);
+        buffer.getInt();
+        byte[] data = new byte[length];
+        buffer.get(data);
+        readOffset += HEADER_SIZE + length;
+        return data;
+    }
+
+    /**
+     * 已读取位置
+     *
+     * @return
+     */
+    public long getReadOffset() {
+        return readOffset;
+    }
+
+    /**
+     * 刷盘
+     */
+    public synchronized void sync() {
+        for (Segment segment : segments) {
+            if (segment.dirty) {
+                segment.buffer.force();
+                segment.dirty = false;
+            }
+        }
+        unsynced = 0;
+    }
+
+    /**
+     * 确认已处理的位置, 删除已确认的段文件
+     *
+     * @param offset
+     */
+    public synchronized void ack(long offset) {
+        if (offset <= ackOffset) {
+            return;
+        }
+        try {
+            File tmp = new File(dir, ACK_FILE + ".tmp");
+            Files.write(tmp.toPath(), String.valueOf(offset).getBytes());
+            Files.move(tmp.toPath(), new File(dir, ACK_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            ackOffset = offset;
+        } catch (IOException e) {
+            logger.error("保存确认位置失败:{}", e.getMessage());
+            return;
+        }
+
+        // 保留当前写入段
+        while (segments.size() > 1 && segments.get(0).base + segments.get(0).size <= ackOffset) {
+            Segment segment = segments.get(0);
+            if (!segment.file.delete()) {
+                logger.warn("删除缓存文件失败:{}", segment.file.getAbsolutePath());
+                break;
+            }
+            segments.remove(0);
+        }
+    }
+
+    /**
+     * 丢弃所有记录
+     */
+    public synchronized void clear() {
+        ack(writeOffset);
+        readOffset = writeOffset;
+    }
+
+    /**
+     * 刷盘并唤醒读取线程
+     */
+    public void close() {
+        sync();
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    private void open() throws IOException {
+        File ack = new File(dir, ACK_FILE);
+        if (ack.exists()) {
+            ackOffset = Long.parseLong(new String(Files.readAllBytes(ack.toPath())).trim());
+        }
+
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (null != files) {
+            Arrays.sort(files, (a, b) -> Long.compare(getBase(a), getBase(b)));
+            for (File file : files) {
+                long base = getBase(file);
+                if (base + file.length() <= ackOffset) {
+                    file.delete();
+                    continue;
+                }
+                segments.add(mapSegment(file, base, (int) file.length()));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(createSegment(ackOffset, segmentSize));
+        }
+
+        // 恢复写入位置: 扫描最后一段, 长度或校验无效时截断
+        Segment last = segments.get(segments.size() - 1);
+        int position = last.base < ackOffset ? (int) (ackOffset - last.base) : 0;
+        while (position + HEADER_SIZE <= last.size) {
+            int length = last.buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > last.size || !isValid(last, position, length)) {
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        if (position + 4 <= last.size) {
+            last.buffer.putInt(position, 0);
+        }
+        writeOffset = last.base + position;
+        readOffset = Math.max(ackOffset, segments.get(0).base);
+        if (writeOffset > readOffset) {
+            logger.info("重放增量缓存:{}, {} bytes", dir.getName(), writeOffset - readOffset);
+        }
+    }
+
+    private boolean isValid(Segment segment, int position, int length) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(position + 4);
+        int crc = buffer.getInt();
+        byte[] data = new byte[length];
+        buffer.get(data);
+        CRC32 crc32 = new CRC32();
+        crc32.update(data);
+        return crc == (int) crc32.getValue();
+    }
+
+    private synchronized Segment findSegment(long offset) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (segment.base <= offset) {
+                return segment;
+            }
+        }
+        throw new ListenerException(String.format("Spool offset %s not found", offset));
+    }
+
+    private Segment createSegment(long base, int size) throws IOException {
+        File file = new File(dir, String.format("%020d%s", base, SEGMENT_SUFFIX));
+        return mapSegment(file, base, size);
+    }
+
+    private Segment mapSegment(File file, long base, int size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(file, base, size, buffer);
+        }
+    }
+
+    private long getBase(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static final class Segment {
+        private final File file;
+        private final long base;
+        private final int size;
+        private final MappedByteBuffer buffer;
+        private volatile boolean dirty;
+
+        Segment(File file, long base, int size, MappedByteBuffer buffer) {
+            this.file = file;
+            this.base = base;
+            this.size = size;
+            this.buffer = buffer;
+        }
+    }
+
+}
@@ -0,0 +1,461 @@
+package org.dbsyncer.listener.sqlserver;
+
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.RandomUtil;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.connector.config.DatabaseConfig;
+import org.dbsyncer.connector.constant.ConnectorConstant;
+import org.dbsyncer.connector.constant.DatabaseConstant;
+import org.dbsyncer.connector.database.DatabaseConnectorMapper;
+import org.dbsyncer.listener.AbstractExtractor;
+import org.dbsyncer.listener.ListenerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于变更跟踪(Change Tracking)抽取增量, 不依赖SQL Server Agent, 只记录变更的主键
+ * <ol>
+ * <li>按版本号读取CHANGETABLE(CHANGES ...)中每行最后一次变更的主键和操作类型</li>
+ * <li>新增和修改按主键分批回表查询完整的行, 删除只包含主键</li>
+ * <li>每次读取到当前版本, 完成后记录版本号</li>
+ * <li>关闭时不禁用变更跟踪, 重启后从记录的版本继续读取</li>
+ * </ol>
+ * 只返回每行最终的状态, 同一行在两次读取之间的多次修改合并为一次
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/23 20:30
+ */
+public class SqlServerChangeTrackingExtractor extends AbstractExtractor {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final String STATEMENTS_PLACEHOLDER = "#";
+    private static final String GET_DATABASE_NAME = "SELECT db_name()";
+    private static final String GET_TABLE_LIST = "SELECT NAME FROM SYS.TABLES WHERE SCHEMA_ID = SCHEMA_ID('DBO') AND IS_MS_SHIPPED = 0";
+    private static final String IS_DB_CT_ENABLED = "SELECT COUNT(*) FROM sys.change_tracking_databases WHERE database_id = DB_ID()";
+    private static final String ENABLE_DB_CT = "ALTER DATABASE [#] SET CHANGE_TRACKING = ON (CHANGE_RETENTION = 2 DAYS, AUTO_CLEANUP = ON)";
+    private static final String IS_TABLE_CT_ENABLED = "SELECT COUNT(*) FROM sys.change_tracking_tables WHERE object_id = OBJECT_ID('dbo.[#]')";
+    private static final String ENABLE_TABLE_CT = "ALTER TABLE dbo.[#] ENABLE CHANGE_TRACKING";
+    private static final String GET_CURRENT_VERSION = "SELECT CHANGE_TRACKING_CURRENT_VERSION()";
+    private static final String GET_MIN_VALID_VERSION = "SELECT CHANGE_TRACKING_MIN_VALID_VERSION(OBJECT_ID('dbo.[#]'))";
+    private static final String GET_COLUMNS = "SELECT * FROM dbo.[#] WHERE 1 = 0";
+    private static final String GET_CHANGES = "SELECT CT.SYS_CHANGE_OPERATION, %s FROM CHANGETABLE(CHANGES dbo.[%s], ?) AS CT WHERE CT.SYS_CHANGE_VERSION <= ? ORDER BY CT.SYS_CHANGE_VERSION";
+    private static final String GET_ROWS = "SELECT * FROM dbo.[%s] WHERE %s";
+
+    private static final String VERSION_POSITION = "version";
+    private static final String OPERATION_DELETE = "D";
+    private static final long MIN_POLL_INTERVAL_MILLIS = 50;
+    private static final long MAX_POLL_INTERVAL_MILLIS = 1000;
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 1000;
+
+    private final Lock connectLock = new ReentrantLock();
+    private volatile boolean connected;
+    private DatabaseConnectorMapper connectorMapper;
+    private List<TrackedTable> tables;
+    private Worker worker;
+    private long lastVersion;
+
+    @Override
+    public void start() {
+        try {
+            connectLock.lock();
+            if (connected) {
+                logger.error("SqlServerChangeTrackingExtractor is already started");
+                return;
+            }
+            connected = true;
+            DatabaseConfig cfg = (DatabaseConfig) connectorConfig;
+            connectorMapper = (DatabaseConnectorMapper) connectorFactory.connect(cfg);
+
+            enableDBChangeTracking();
+            readTables();
+            Assert.isTrue(!CollectionUtils.isEmpty(tables), "No tables available");
+            readLastVersion();
+
+            worker = new Worker();
+            worker.setName(new StringBuilder("ct-parser-").append(cfg.getUrl()).append("_").append(RandomUtil.nextInt(1, 100)).toString());
+            worker.setDaemon(false);
+            worker.start();
+        } catch (Exception e) {
+            close();
+            logger.error("启动失败:{}", e.getMessage());
+            throw new ListenerException(e);
+        } finally {
+            connectLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (connected) {
+            if (null != worker && !worker.isInterrupted()) {
+                worker.interrupt();
+                worker = null;
+            }
+            connected = false;
+        }
+    }
+
+    private void enableDBChangeTracking() {
+        boolean enabled = query(IS_DB_CT_ENABLED, null, rs -> rs.next() && rs.getInt(1) > 0);
+        if (!enabled) {
+            String databaseName = query(GET_DATABASE_NAME, null, rs -> rs.next() ? rs.getString(1) : null);
+            execute(ENABLE_DB_CT.replace(STATEMENTS_PLACEHOLDER, databaseName));
+        }
+    }
+
+    /**
+     * 读取监听的表, 未启用变更跟踪的表启用后从当前版本开始读取
+     */
+    private void readTables() {
+        Set<String> names = query(GET_TABLE_LIST, null, rs -> {
+            Set<String> table = new LinkedHashSet<>();
+            while (rs.next()) {
+                if (filterTable.contains(rs.getString(1))) {
+                    table.add(rs.getString(1));
+                }
+            }
+            return table;
+        });
+        tables = new ArrayList<>();
+        for (String name : names) {
+            boolean enabled = query(IS_TABLE_CT_ENABLED.replace(STATEMENTS_PLACEHOLDER, name), null, rs -> rs.next() && rs.getInt(1) > 0);
+            if (!enabled) {
+                execute(ENABLE_TABLE_CT.replace(STATEMENTS_PLACEHOLDER, name));
+                logger.info("启用变更跟踪表[{}]", name);
+            }
+            tables.add(readTable(name, !enabled));
+        }
+    }
+
+    private TrackedTable readTable(String name, boolean enabled) {
+        List<String> columns = query(GET_COLUMNS.replace(STATEMENTS_PLACEHOLDER, name), null, rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            List<String> list = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                list.add(metaData.getColumnName(i));
+            }
+            return list;
+        });
+        List<String> primaryKeys = connectorMapper.execute(databaseTemplate -> {
+            Map<Short, String> keys = new TreeMap<>();
+            ResultSet rs = null;
+            try {
+                rs = databaseTemplate.getConnection().getMetaData().getPrimaryKeys(null, "dbo", name);
+                while (rs.next()) {
+                    keys.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+                }
+            } finally {
+                close(rs);
+            }
+            return new ArrayList<>(keys.values());
+        });
+        Assert.notEmpty(primaryKeys, String.format("Change tracking requires a primary key on table %s", name));
+        return new TrackedTable(name, columns, primaryKeys, enabled);
+    }
+
+    /**
+     * 读取增量点, 检查记录的版本是否已被清理
+     */
+    private void readLastVersion() {
+        final long currentVersion = getCurrentVersion();
+        if (!snapshot.containsKey(VERSION_POSITION)) {
+            lastVersion = currentVersion;
+            snapshot.put(VERSION_POSITION, String.valueOf(lastVersion));
+            markPosition();
+            return;
+        }
+        lastVersion = Long.parseLong(snapshot.get(VERSION_POSITION));
+        for (TrackedTable table : tables) {
+            Long minValidVersion = query(GET_MIN_VALID_VERSION.replace(STATEMENTS_PLACEHOLDER, table.name), null, rs -> rs.next() ? rs.getLong(1) : null);
+            if (table.enabled) {
+                // 刚启用的表, 之前没有变更记录
+                table.fromVersion = null != minValidVersion ? minValidVersion : currentVersion;
+                continue;
+            }
+            if (null != minValidVersion && minValidVersion > lastVersion) {
+                throw new ListenerException(String.format("表[%s]的变更记录已被清理(最小有效版本%s, 增量点版本%s)。建议先保存驱动（读取最新版本），再启动驱动。",
+                        table.name, minValidVersion, lastVersion));
+            }
+        }
+    }
+
+    private long getCurrentVersion() {
+        Long version = query(GET_CURRENT_VERSION, null, rs -> rs.next() ? rs.getObject(1, Long.class) : null);
+        if (null == version) {
+            throw new ListenerException("Change tracking is not enabled in the database");
+        }
+        return version;
+    }
+
+    /**
+     * 读取表从上次版本到当前版本的变更, 按主键分批回表
+     *
+     * @param table
+     * @param currentVersion
+     */
+    private void pull(TrackedTable table, long currentVersion) {
+        final long fromVersion = Math.max(lastVersion, table.fromVersion);
+        query(table.changesSql, statement -> {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, fromVersion);
+            statement.setLong(2, currentVersion);
+        }, rs -> {
+            final int keySize = table.primaryKeys.size();
+            List<Change> batch = new ArrayList<>(table.batchSize);
+            while (rs.next()) {
+                Object[] key = new Object[keySize];
+                for (int i = 0; i < keySize; i++) {
+                    key[i] = rs.getObject(i + 2);
+                }
+                batch.add(new Change(rs.getString(1), key));
+                if (batch.size() >= table.batchSize) {
+                    parseEvent(table, batch);
+                    batch.clear();
+                }
+            }
+            parseEvent(table, batch);
+            return true;
+        });
+    }
+
+    private void parseEvent(TrackedTable table, List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<List<Object>, List<Object>> rows = getRows(table, changes);
+        for (Change change : changes) {
+            if (StringUtil.equals(OPERATION_DELETE, change.operation)) {
+                List<Object> before = new ArrayList<>(Collections.nCopies(table.columns.size(), null));
+                for (int i = 0; i < change.key.length; i++) {
+                    before.set(table.primaryKeyIndex[i], change.key[i]);
+                }
+                changedEvent(new RowChangedEvent(table.name, ConnectorConstant.OPERTION_DELETE, before, Collections.EMPTY_LIST));
+                continue;
+            }
+            // 行在读取后被删除, 下次读取删除事件
+            List<Object> after = rows.get(toKey(change.key));
+            if (null == after) {
+                continue;
+            }
+            String event = StringUtil.equals("I", change.operation) ? ConnectorConstant.OPERTION_INSERT : ConnectorConstant.OPERTION_UPDATE;
+            changedEvent(new RowChangedEvent(table.name, event, Collections.EMPTY_LIST, after));
+        }
+    }
+
+    /**
+     * 按主键回表查询新增和修改的行
+     *
+     * @param table
+     * @param changes
+     * @return 主键 -> 行
+     */
+    private Map<List<Object>, List<Object>> getRows(TrackedTable table, List<Change> changes) {
+        List<Object[]> keys = new ArrayList<>();
+        for (Change change : changes) {
+            if (!StringUtil.equals(OPERATION_DELETE, change.operation)) {
+                keys.add(change.key);
+            }
+        }
+        if (keys.isEmpty()) {
+            return Collections.EMPTY_MAP;
+        }
+        final String sql = String.format(GET_ROWS, table.name, table.getKeyCondition(keys.size()));
+        return query(sql, statement -> {
+            int index = 1;
+            for (Object[] key : keys) {
+                for (Object value : key) {
+                    statement.setObject(index++, value);
+                }
+            }
+        }, rs -> {
+            final int columnCount = rs.getMetaData().getColumnCount();
+            Map<List<Object>, List<Object>> rows = new HashMap<>(keys.size());
+            while (rs.next()) {
+                List<Object> row = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    row.add(rs.getObject(i));
+                }
+                Object[] key = new Object[table.primaryKeyIndex.length];
+                for (int i = 0; i < key.length; i++) {
+                    key[i] = row.get(table.primaryKeyIndex[i]);
+                }
+                rows.put(toKey(key), row);
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * 主键值, 二进制主键按内容比较
+     */
+    private List<Object> toKey(Object[] values) {
+        List<Object> key = new ArrayList<>(values.length);
+        for (Object value : values) {
+            key.add(value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : value);
+        }
+        return key;
+    }
+
+    private void execute(String sql) {
+        connectorMapper.execute(databaseTemplate -> {
+            logger.info("executing '{}'", sql);
+            databaseTemplate.execute(sql);
+            return true;
+        });
+    }
+
+    private interface ResultSetMapper<T> {
+        T apply(ResultSet rs) throws SQLException;
+    }
+
+    private interface StatementPreparer {
+        void accept(PreparedStatement statement) throws SQLException;
+    }
+
+    private <T> T query(String sql, StatementPreparer statementPreparer, ResultSetMapper<T> mapper) {
+        return connectorMapper.execute(databaseTemplate -> {
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+            try {
+                ps = databaseTemplate.getConnection().prepareStatement(sql);
+                if (null != statementPreparer) {
+                    statementPreparer.accept(ps);
+                }
+                rs = ps.executeQuery();
+                return mapper.apply(rs);
+            } finally {
+                close(rs);
+                close(ps);
+            }
+        });
+    }
+
+    private void close(AutoCloseable closeable) {
+        if (null != closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                logger.error(e.getMessage());
+            }
+        }
+    }
+
+    static final class TrackedTable {
+        private final String name;
+        private final List<String> columns;
+        private final List<String> primaryKeys;
+        private final int[] primaryKeyIndex;
+        private final String changesSql;
+
+        /**
+         * 回表查询的批量条数, 单条语句最多2100个参数(预留1个)
+         */
+        private final int batchSize;
+
+        /**
+         * 本次启动时启用变更跟踪
+         */
+        private final boolean enabled;
+
+        /**
+         * 开始读取的版本
+         */
+        private long fromVersion;
+
+        TrackedTable(String name, List<String> columns, List<String> primaryKeys, boolean enabled) {
+            this.name = name;
+            this.columns = columns;
+            this.primaryKeys = primaryKeys;
+            this.enabled = enabled;
+            this.primaryKeyIndex = new int[primaryKeys.size()];
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < primaryKeys.size(); i++) {
+                primaryKeyIndex[i] = columns.indexOf(primaryKeys.get(i));
+                Assert.isTrue(primaryKeyIndex[i] >= 0, String.format("Primary key %s not found in table %s", primaryKeys.get(i), name));
+                keys.add("CT.[" + primaryKeys.get(i) + "]");
+            }
+            this.changesSql = String.format(GET_CHANGES, StringUtil.join(keys, ", "), name);
+            this.batchSize = Math.max(1, Math.min(BATCH_SIZE, (DatabaseConstant.SQLSERVER_MAX_PARAMETERS - 1) / primaryKeys.size()));
+        }
+
+        /**
+         * 单主键: [id] IN (?, ?), 联合主键: ([a] = ? AND [b] = ?) OR ([a] = ? AND [b] = ?)
+         *
+         * @param size
+         * @return
+         */
+        String getKeyCondition(int size) {
+            if (1 == primaryKeys.size()) {
+                return new StringBuilder("[").append(primaryKeys.get(0)).append("] IN (")
+                        .append(StringUtil.join(Collections.nCopies(size, "?"), ", ")).append(")").toString();
+            }
+            List<String> conditions = new ArrayList<>();
+            for (String key : primaryKeys) {
+                conditions.add("[" + key + "] = ?");
+            }
+            String condition = "(" + StringUtil.join(conditions, " AND ") + ")";
+            return StringUtil.join(Collections.nCopies(size, condition), " OR ");
+        }
+    }
+
+    static final class Change {
+        private final String operation;
+        private final Object[] key;
+
+        Change(String operation, Object[] key) {
+            this.operation = operation;
+            this.key = key;
+        }
+    }
+
+    final class Worker extends Thread {
+
+        @Override
+        public void run() {
+            long interval = MIN_POLL_INTERVAL_MILLIS;
+            while (!isInterrupted() && connected) {
+                try {
+                    final long currentVersion = getCurrentVersion();
+                    if (currentVersion <= lastVersion) {
+                        // 无变更, 逐步增加轮询间隔
+                        TimeUnit.MILLISECONDS.sleep(interval);
+                        interval = Math.min(interval << 1, MAX_POLL_INTERVAL_MILLIS);
+                        continue;
+                    }
+                    interval = MIN_POLL_INTERVAL_MILLIS;
+
+                    for (TrackedTable table : tables) {
+                        pull(table, currentVersion);
+                    }
+
+                    lastVersion = currentVersion;
+                    snapshot.put(VERSION_POSITION, String.valueOf(lastVersion));
+                    markPosition();
+                } catch (InterruptedException e) {
+                    break;
+                } catch (Exception e) {
+                    logger.error("读取变更跟踪异常:{}", e.getMessage());
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(MAX_POLL_INTERVAL_MILLIS);
+                    } catch (InterruptedException ex) {
+                        break;
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -16,12 +16,20 @@ import org.springframework.util.Assert;
 
 import java.sql.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
+ * 按LSN窗口分段读取变更, 每个窗口最多包含{@link #WINDOW_TRANSACTIONS}个事务
+ * <ol>
+ * <li>多个变更表在独立连接上并行读取, 读取的行直接发送, 不在内存中汇总</li>
+ * <li>窗口内的变更表全部读取完成后记录增量点, 读取失败时重新读取该窗口</li>
+ * <li>读取前按变更表索引检测窗口内是否有数据, 只读取有变更的表</li>
+ * <li>无变更时轮询间隔逐步增加, 有变更时恢复最小间隔, 未读取完时立即读取下一个窗口</li>
+ * </ol>
+ *
  * @version 1.0.0
  * @Author AE86
  * @Date 2021-06-18 01:20
@@ -43,20 +51,30 @@ public class SqlServerExtractor extends AbstractExtractor {
     private static final String GET_MAX_LSN = "SELECT sys.fn_cdc_get_max_lsn()";
     private static final String GET_MIN_LSN = "SELECT sys.fn_cdc_get_min_lsn('#')";
     private static final String GET_INCREMENT_LSN = "SELECT sys.fn_cdc_increment_lsn(?)";
+    private static final String GET_WINDOW_STOP_LSN = "SELECT MAX(start_lsn) FROM (SELECT TOP (?) start_lsn FROM cdc.lsn_time_mapping WHERE start_lsn >= ? AND start_lsn <= ? ORDER BY start_lsn) t";
     private static final String GET_ALL_CHANGES_FOR_TABLE = "SELECT * FROM cdc.[fn_cdc_get_all_changes_#](?, ?, N'all update old') order by [__$start_lsn] ASC, [__$seqval] ASC, [__$operation] ASC";
 
     private static final String LSN_POSITION = "position";
-    private static final long DEFAULT_POLL_INTERVAL_MILLIS = 300;
+    private static final long MIN_POLL_INTERVAL_MILLIS = 50;
+    private static final long MAX_POLL_INTERVAL_MILLIS = 1000;
     private static final int                            PREPARED_STATEMENT_CACHE_CAPACITY = 500;
     private static final int                            OFFSET_COLUMNS = 4;
+    private static final int                            WINDOW_TRANSACTIONS = 1000;
+    private static final int                            MAX_READER_THREADS = 4;
+    private static final int                            FETCH_SIZE = 1000;
+    private static final int                            PROBE_TABLES = 100;
+    // 为过程或函数 cdc.fn_cdc_get_all_changes_ ...  提供的参数数目不足(LSN超出捕获实例的有效范围)
+    private static final int                            INSUFFICIENT_ARGUMENTS_ERROR = 313;
     private final        Map<String, PreparedStatement> preparedStatementCache = new ConcurrentHashMap<>(PREPARED_STATEMENT_CACHE_CAPACITY);
     private final        Lock                           connectLock = new ReentrantLock();
     private volatile     boolean                        connected;
     private volatile     boolean                        connectionClosed;
+    private volatile     boolean                        changeTablesExpired;
     private static       Set<String>                    tables;
     private static       Set<SqlServerChangeTable>      changeTables;
     private              DatabaseConnectorMapper        connectorMapper;
     private              Worker                         worker;
+    private              ExecutorService                reader;
     private              Lsn                            lastLsn;
     private              String                         serverName;
 
@@ -81,6 +99,12 @@ public class SqlServerExtractor extends AbstractExtractor {
             readChangeTables();
             readLastLsn();
 
+            final AtomicInteger index = new AtomicInteger();
+            reader = Executors.newFixedThreadPool(Math.max(1, Math.min(changeTables.size(), MAX_READER_THREADS)), r -> {
+                Thread thread = new Thread(r, new StringBuilder("cdc-reader-").append(serverName).append("-").append(index.getAndIncrement()).toString());
+                thread.setDaemon(true);
+                return thread;
+            });
             worker = new Worker();
             worker.setName(new StringBuilder("cdc-parser-").append(serverName).append("_").append(RandomUtil.nextInt(1, 100)).toString());
             worker.setDaemon(false);
@@ -101,6 +125,10 @@ public class SqlServerExtractor extends AbstractExtractor {
                 worker.interrupt();
                 worker = null;
             }
+            if (null != reader) {
+                reader.shutdownNow();
+                reader = null;
+            }
             disableTableCDC();
             preparedStatementCache.values().forEach(this::close);
             preparedStatementCache.clear();
@@ -132,6 +160,7 @@ public class SqlServerExtractor extends AbstractExtractor {
             lastLsn = queryAndMap(GET_MAX_LSN, rs -> new Lsn(rs.getBytes(1)));
             if (null != lastLsn && lastLsn.isAvailable()) {
                 snapshot.put(LSN_POSITION, lastLsn.toString());
+                markPosition();
                 return;
             }
             // Shouldn't happen if the agent is running, but it is better to guard against such situation
@@ -177,6 +206,16 @@ public class SqlServerExtractor extends AbstractExtractor {
         });
     }
 
+    private void refreshChangeTables() {
+        Set<SqlServerChangeTable> expired = changeTables;
+        readChangeTables();
+        if (null == changeTables) {
+            changeTables = expired;
+            return;
+        }
+        changeTablesExpired = false;
+    }
+
     private void disableTableCDC() {
         if (!CollectionUtils.isEmpty(tables)) {
             tables.forEach(table -> execute(DISABLE_TABLE_CDC.replace(STATEMENTS_PLACEHOLDER, table)));
@@ -221,54 +260,170 @@ public class SqlServerExtractor extends AbstractExtractor {
         });
     }
 
-    private void pull(Lsn stopLsn) {
-        Lsn startLsn = queryAndMap(GET_INCREMENT_LSN, statement -> statement.setBytes(1, lastLsn.getBinary()), rs -> Lsn.valueOf(rs.getBytes(1)));
-        changeTables.forEach(changeTable -> {
-            final String query = GET_ALL_CHANGES_FOR_TABLE.replace(STATEMENTS_PLACEHOLDER, changeTable.getCaptureInstance());
-            List<CDCEvent> list = queryAndMapList(query, statement -> {
-                statement.setBytes(1, startLsn.getBinary());
-                statement.setBytes(2, stopLsn.getBinary());
-            }, rs -> {
-                int columnCount = rs.getMetaData().getColumnCount();
-                List<Object> row = null;
-                List<CDCEvent> data = new ArrayList<>();
-                while (rs.next()) {
-                    // skip update before
-                    final int operation = rs.getInt(3);
-                    if (TableOperationEnum.isUpdateBefore(operation)) {
-                        continue;
-                    }
-                    row = new ArrayList<>(columnCount - OFFSET_COLUMNS);
-                    for (int i = OFFSET_COLUMNS + 1; i <= columnCount; i++) {
-                        row.add(rs.getObject(i));
-                    }
-                    data.add(new CDCEvent(changeTable.getTableName(), operation, row));
-                }
-                return data;
-            });
-
-            if (!CollectionUtils.isEmpty(list)) {
-                parseEvent(list);
-            }
-        });
+    /**
+     * 窗口结束位置: 从开始位置起第{@link #WINDOW_TRANSACTIONS}个事务的提交位置, 不超过最大LSN
+     *
+     * @param startLsn
+     * @param maxLsn
+     * @return null: 查询失败
+     */
+    private Lsn getWindowStopLsn(Lsn startLsn, Lsn maxLsn) {
+        Lsn stopLsn = queryAndMap(GET_WINDOW_STOP_LSN, statement -> {
+            statement.setInt(1, WINDOW_TRANSACTIONS);
+            statement.setBytes(2, startLsn.getBinary());
+            statement.setBytes(3, maxLsn.getBinary());
+        }, rs -> Lsn.valueOf(rs.getBytes(1)));
+        if (null == stopLsn) {
+            return null;
+        }
+        // 窗口内没有提交的事务
+        return stopLsn.isAvailable() ? stopLsn : maxLsn;
     }
 
-    private void parseEvent(List<CDCEvent> list) {
-        for (CDCEvent event : list) {
-            int code = event.getCode();
-            if (TableOperationEnum.isUpdateAfter(code)) {
-                changedEvent(new RowChangedEvent(event.getTableName(), ConnectorConstant.OPERTION_UPDATE, Collections.EMPTY_LIST, event.getRow()));
+    /**
+     * 并行读取窗口内所有变更表
+     *
+     * @param startLsn
+     * @param stopLsn
+     * @return false: 读取失败
+     * @throws InterruptedException
+     */
+    private boolean pull(Lsn startLsn, Lsn stopLsn) throws InterruptedException {
+        Map<SqlServerChangeTable, Lsn> ranges = new LinkedHashMap<>();
+        for (SqlServerChangeTable changeTable : changeTables) {
+            // 变更表启用之前没有数据
+            Lsn tableStartLsn = Lsn.valueOf(changeTable.getStartLsn());
+            if (tableStartLsn.compareTo(stopLsn) > 0) {
                 continue;
             }
+            ranges.put(changeTable, tableStartLsn.compareTo(startLsn) > 0 ? tableStartLsn : startLsn);
+        }
 
-            if (TableOperationEnum.isInsert(code)) {
-                changedEvent(new RowChangedEvent(event.getTableName(), ConnectorConstant.OPERTION_INSERT, Collections.EMPTY_LIST, event.getRow()));
-                continue;
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (SqlServerChangeTable changeTable : getChangedTables(ranges, stopLsn)) {
+            final Lsn fromLsn = ranges.get(changeTable);
+            tasks.add(() -> pull(changeTable, fromLsn, stopLsn));
+        }
+
+        boolean success = true;
+        for (Future<Boolean> future : reader.invokeAll(tasks)) {
+            try {
+                success &= future.get();
+            } catch (ExecutionException e) {
+                logger.error(e.getMessage());
+                success = false;
             }
+        }
+        return success;
+    }
 
-            if (TableOperationEnum.isDelete(code)) {
-                changedEvent(new RowChangedEvent(event.getTableName(), ConnectorConstant.OPERTION_DELETE, event.getRow(), Collections.EMPTY_LIST));
+    /**
+     * 检测窗口内有数据的变更表(按变更表[__$start_lsn]索引查找), 检测失败时返回全部变更表
+     *
+     * @param ranges  变更表 -> 开始位置
+     * @param stopLsn
+     * @return
+     */
+    private List<SqlServerChangeTable> getChangedTables(Map<SqlServerChangeTable, Lsn> ranges, Lsn stopLsn) {
+        List<SqlServerChangeTable> candidates = new ArrayList<>(ranges.keySet());
+        List<SqlServerChangeTable> changed = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += PROBE_TABLES) {
+            final List<SqlServerChangeTable> batch = candidates.subList(from, Math.min(from + PROBE_TABLES, candidates.size()));
+            StringBuilder sql = new StringBuilder();
+            for (int i = 0; i < batch.size(); i++) {
+                SqlServerChangeTable changeTable = batch.get(i);
+                if (i > 0) {
+                    sql.append(" UNION ALL ");
+                }
+                sql.append("SELECT ").append(i).append(" WHERE EXISTS (SELECT 1 FROM cdc.[").append(changeTable.getCaptureInstance())
+                        .append("_CT] WHERE [__$start_lsn] BETWEEN ").append(toLiteral(ranges.get(changeTable))).append(" AND ")
+                        .append(toLiteral(stopLsn)).append(")");
             }
+            try {
+                connectorMapper.execute(databaseTemplate -> {
+                    Statement statement = null;
+                    ResultSet rs = null;
+                    try {
+                        statement = databaseTemplate.getConnection().createStatement();
+                        rs = statement.executeQuery(sql.toString());
+                        while (rs.next()) {
+                            changed.add(batch.get(rs.getInt(1)));
+                        }
+                    } finally {
+                        close(rs);
+                        close(statement);
+                    }
+                    return true;
+                });
+            } catch (Exception e) {
+                logger.warn("检测变更表异常:{}", e.getMessage());
+                return candidates;
+            }
+        }
+        return changed;
+    }
+
+    private String toLiteral(Lsn lsn) {
+        return "0x" + lsn.toString().replace(":", "");
+    }
+
+    private boolean pull(SqlServerChangeTable changeTable, Lsn startLsn, Lsn stopLsn) {
+        final String query = GET_ALL_CHANGES_FOR_TABLE.replace(STATEMENTS_PLACEHOLDER, changeTable.getCaptureInstance());
+        try {
+            return connectorMapper.executeInTransaction(mapper -> mapper.execute(databaseTemplate -> {
+                PreparedStatement ps = null;
+                ResultSet rs = null;
+                try {
+                    ps = databaseTemplate.getConnection().prepareStatement(query);
+                    ps.setFetchSize(FETCH_SIZE);
+                    ps.setBytes(1, startLsn.getBinary());
+                    ps.setBytes(2, stopLsn.getBinary());
+                    rs = ps.executeQuery();
+                    final int columnCount = rs.getMetaData().getColumnCount();
+                    while (rs.next()) {
+                        // skip update before
+                        final int operation = rs.getInt(3);
+                        if (TableOperationEnum.isUpdateBefore(operation)) {
+                            continue;
+                        }
+                        List<Object> row = new ArrayList<>(columnCount - OFFSET_COLUMNS);
+                        for (int i = OFFSET_COLUMNS + 1; i <= columnCount; i++) {
+                            row.add(rs.getObject(i));
+                        }
+                        parseEvent(new CDCEvent(changeTable.getTableName(), operation, row));
+                    }
+                } catch (SQLServerException e) {
+                    // 清理作业已移动捕获实例的起始位置, 重新读取变更表后重试
+                    if (INSUFFICIENT_ARGUMENTS_ERROR == e.getErrorCode()) {
+                        changeTablesExpired = true;
+                    }
+                    throw e;
+                } finally {
+                    close(rs);
+                    close(ps);
+                }
+                return true;
+            }));
+        } catch (Exception e) {
+            logger.error("读取变更表[{}]失败:{}", changeTable.getCaptureInstance(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void parseEvent(CDCEvent event) {
+        int code = event.getCode();
+        if (TableOperationEnum.isUpdateAfter(code)) {
+            changedEvent(new RowChangedEvent(event.getTableName(), ConnectorConstant.OPERTION_UPDATE, Collections.EMPTY_LIST, event.getRow()));
+            return;
+        }
+
+        if (TableOperationEnum.isInsert(code)) {
+            changedEvent(new RowChangedEvent(event.getTableName(), ConnectorConstant.OPERTION_INSERT, Collections.EMPTY_LIST, event.getRow()));
+            return;
+        }
+
+        if (TableOperationEnum.isDelete(code)) {
+            changedEvent(new RowChangedEvent(event.getTableName(), ConnectorConstant.OPERTION_DELETE, event.getRow(), Collections.EMPTY_LIST));
         }
     }
 
@@ -321,8 +476,6 @@ public class SqlServerExtractor extends AbstractExtractor {
             try {
                 rs = ps.executeQuery();
                 return mapper.apply(rs);
-            } catch (SQLServerException e) {
-                // 为过程或函数 cdc.fn_cdc_get_all_changes_ ...  提供的参数数目不足。
             } catch (Exception e) {
                 logger.error(e.getMessage());
             } finally {
@@ -337,18 +490,38 @@ public class SqlServerExtractor extends AbstractExtractor {
 
         @Override
         public void run() {
+            long interval = MIN_POLL_INTERVAL_MILLIS;
             while (!isInterrupted() && connected) {
                 try {
-                    Lsn stopLsn = queryAndMap(GET_MAX_LSN, rs -> new Lsn(rs.getBytes(1)));
-                    if (null == stopLsn || !stopLsn.isAvailable() || stopLsn.compareTo(lastLsn) <= 0) {
-                        TimeUnit.MILLISECONDS.sleep(DEFAULT_POLL_INTERVAL_MILLIS);
+                    Lsn maxLsn = queryAndMap(GET_MAX_LSN, rs -> new Lsn(rs.getBytes(1)));
+                    if (null == maxLsn || !maxLsn.isAvailable() || maxLsn.compareTo(lastLsn) <= 0) {
+                        // 无变更, 逐步增加轮询间隔
+                        TimeUnit.MILLISECONDS.sleep(interval);
+                        interval = Math.min(interval << 1, MAX_POLL_INTERVAL_MILLIS);
                         continue;
                     }
-
-                    pull(stopLsn);
-
-                    lastLsn = stopLsn;
-                    snapshot.put(LSN_POSITION, lastLsn.toString());
+                    interval = MIN_POLL_INTERVAL_MILLIS;
+
+                    // 分段读取到最大LSN, 每个窗口完成后记录增量点
+                    while (!isInterrupted() && connected && lastLsn.compareTo(maxLsn) < 0) {
+                        Lsn startLsn = queryAndMap(GET_INCREMENT_LSN, statement -> statement.setBytes(1, lastLsn.getBinary()), rs -> Lsn.valueOf(rs.getBytes(1)));
+                        if (null == startLsn) {
+                            break;
+                        }
+                        Lsn stopLsn = getWindowStopLsn(startLsn, maxLsn);
+                        // 不能确定窗口时重试, 不一次读取全部积压的变更
+                        if (null == stopLsn || !pull(startLsn, stopLsn)) {
+                            TimeUnit.MILLISECONDS.sleep(MAX_POLL_INTERVAL_MILLIS);
+                            if (changeTablesExpired) {
+                                refreshChangeTables();
+                            }
+                            break;
+                        }
+
+                        lastLsn = stopLsn;
+                        snapshot.put(LSN_POSITION, lastLsn.toString());
+                        markPosition();
+                    }
                 } catch (InterruptedException e) {
                     break;
                 }
@@ -0,0 +1,120 @@
+package org.dbsyncer.listener;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/26 22:40
+ */
+public class OffsetTrackerTest {
+
+    @Test
+    public void testCommitLowWatermark() {
+        OffsetTracker tracker = new OffsetTracker(position("0"));
+        MockDispatcher dispatcher = new MockDispatcher();
+        tracker.mark(new long[]{1, 0}, position("1"));
+        tracker.mark(new long[]{1, 2}, position("2"));
+        tracker.mark(new long[]{3, 2}, position("3"));
+
+        dispatcher.completed = new long[]{0, 0};
+        Assert.assertEquals(position("0"), tracker.commit(dispatcher));
+
+        dispatcher.completed = new long[]{1, 0};
+        Assert.assertEquals(position("1"), tracker.commit(dispatcher));
+
+        // 后面的增量点已完成, 但之前的增量点未完成
+        dispatcher.completed = new long[]{1, 1};
+        Assert.assertEquals(position("1"), tracker.commit(dispatcher));
+
+        dispatcher.completed = new long[]{3, 2};
+        Assert.assertEquals(position("3"), tracker.commit(dispatcher));
+    }
+
+    @Test
+    public void testMergePosition() {
+        OffsetTracker tracker = new OffsetTracker(position("0"));
+        MockDispatcher dispatcher = new MockDispatcher();
+        tracker.mark(new long[]{1}, position("1"));
+        // 没有新的事件, 合并为最新的增量点
+        tracker.mark(new long[]{1}, position("2"));
+
+        dispatcher.completed = new long[]{1};
+        Assert.assertEquals(position("2"), tracker.commit(dispatcher));
+    }
+
+    @Test
+    public void testSyncPosition() {
+        OffsetTracker tracker = new OffsetTracker(null);
+        Assert.assertEquals(Collections.emptyMap(), tracker.commit(null));
+
+        // 同步处理的增量点可以直接提交
+        tracker.mark(null, position("1"));
+        Assert.assertEquals(position("1"), tracker.commit(null));
+
+        // 之前有异步分发的增量点未完成时, 不能跳过
+        MockDispatcher dispatcher = new MockDispatcher();
+        dispatcher.completed = new long[]{0};
+        tracker.mark(new long[]{1}, position("2"));
+        tracker.mark(null, position("3"));
+        Assert.assertEquals(position("1"), tracker.commit(null));
+        Assert.assertEquals(position("1"), tracker.commit(dispatcher));
+
+        dispatcher.completed = new long[]{1};
+        Assert.assertEquals(position("3"), tracker.commit(dispatcher));
+    }
+
+    @Test
+    public void testSnapshotCopy() {
+        Map<String, String> snapshot = position("1");
+        OffsetTracker tracker = new OffsetTracker(snapshot);
+        snapshot.put("position", "2");
+        tracker.mark(null, snapshot);
+        snapshot.put("position", "3");
+
+        Map<String, String> committed = tracker.commit(null);
+        Assert.assertEquals(position("2"), committed);
+        committed.put("position", "4");
+        Assert.assertEquals(position("2"), tracker.commit(null));
+    }
+
+    private Map<String, String> position(String position) {
+        Map<String, String> map = new HashMap<>();
+        map.put("position", position);
+        return map;
+    }
+
+    final class MockDispatcher implements Dispatcher {
+        private long[] completed;
+
+        @Override
+        public long[] mark() {
+            return completed;
+        }
+
+        @Override
+        public boolean isCompleted(long[] mark) {
+            for (int i = 0; i < mark.length; i++) {
+                if (completed[i] < mark[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public LaneMetric getMetric() {
+            return new LaneMetric();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.dbsyncer.listener.spool;
+
+import org.dbsyncer.common.event.LazyValue;
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.listener.ListenerException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/26 21:10
+ */
+public class RowChangedEventCodecTest {
+
+    @Test
+    public void testEncodeAndDecode() {
+        Timestamp timestamp = Timestamp.valueOf("2021-12-26 21:10:30.123456789");
+        BitSet bitSet = new BitSet();
+        bitSet.set(1);
+        bitSet.set(9);
+        List<Object> before = Arrays.asList(1, "中文abc", null, 2L, (short) 3, (byte) 4, true, 1.5f, 2.5d);
+        List<Object> after = Arrays.asList(new BigDecimal("-12345.6700"), new BigInteger("123456789012345678901234567890"),
+                timestamp, java.sql.Date.valueOf("2021-12-26"), Time.valueOf("21:10:30"), new Date(1640524230000L), bitSet,
+                LocalDateTime.of(2021, 12, 26, 21, 10, 30), "");
+
+        RowChangedEvent event = decode(new RowChangedEvent("my_user", "UPDATE", before, after));
+        Assert.assertEquals("my_user", event.getTableName());
+        Assert.assertEquals("UPDATE", event.getEvent());
+        Assert.assertEquals(before, event.getBeforeData());
+        Assert.assertEquals(after, event.getAfterData());
+        Assert.assertEquals(-12345.67d, ((BigDecimal) event.getAfterData().get(0)).doubleValue(), 0);
+        Assert.assertEquals(4, ((BigDecimal) event.getAfterData().get(0)).scale());
+        Assert.assertEquals(123456789, ((Timestamp) event.getAfterData().get(2)).getNanos());
+        Assert.assertEquals(Date.class, event.getAfterData().get(5).getClass());
+    }
+
+    @Test
+    public void testBytes() {
+        byte[] bytes = new byte[]{0, -1, 127, -128};
+        RowChangedEvent event = decode(new RowChangedEvent("t", "INSERT", Collections.emptyList(), Arrays.asList(bytes, new byte[0])));
+        Assert.assertTrue(event.getBeforeData().isEmpty());
+        Assert.assertArrayEquals(bytes, (byte[]) event.getAfterData().get(0));
+        Assert.assertArrayEquals(new byte[0], (byte[]) event.getAfterData().get(1));
+    }
+
+    @Test
+    public void testNull() {
+        RowChangedEvent event = decode(new RowChangedEvent(null, "DELETE", Arrays.asList((Object) null), null));
+        Assert.assertNull(event.getTableName());
+        Assert.assertEquals(Collections.singletonList(null), event.getBeforeData());
+        Assert.assertNull(event.getAfterData());
+    }
+
+    @Test
+    public void testLazyValue() {
+        LazyValue value = () -> "解析后";
+        RowChangedEvent event = decode(new RowChangedEvent("t", "INSERT", Collections.emptyList(), Arrays.asList(value)));
+        Assert.assertEquals("解析后", event.getAfterData().get(0));
+    }
+
+    @Test(expected = ListenerException.class)
+    public void testUnsupportedType() {
+        List<Object> after = new ArrayList<>();
+        after.add(new Object());
+        RowChangedEventCodec.encode(new RowChangedEvent("t", "INSERT", Collections.emptyList(), after));
+    }
+
+    private RowChangedEvent decode(RowChangedEvent event) {
+        return RowChangedEventCodec.decode(RowChangedEventCodec.encode(event));
+    }
+
+}
@@ -0,0 +1,209 @@
+package org.dbsyncer.listener.spool;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/26 20:30
+ */
+public class SpoolTest {
+
+    private static final int HEADER_SIZE = 8;
+
+    private File dir;
+
+    @Before
+    public void init() throws IOException {
+        dir = Files.createTempDirectory("spool").toFile();
+    }
+
+    @After
+    public void destroy() {
+        File[] files = dir.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testReplayAfterReopen() throws InterruptedException {
+        Spool spool = new Spool(dir);
+        long a = spool.append(bytes("a"));
+        spool.append(bytes("b"));
+        spool.append(bytes("c"));
+        Assert.assertEquals("a", poll(spool));
+        Assert.assertEquals(a, spool.getReadOffset());
+        spool.ack(a);
+        spool.close();
+
+        // 从确认位置重放
+        spool = new Spool(dir);
+        Assert.assertEquals(a, spool.getReadOffset());
+        Assert.assertEquals("b", poll(spool));
+        Assert.assertEquals("c", poll(spool));
+        Assert.assertNull(spool.poll(10));
+        spool.close();
+    }
+
+    @Test
+    public void testTruncateCorruptedTail() throws IOException, InterruptedException {
+        Spool spool = new Spool(dir);
+        long a = spool.append(bytes("a"));
+        spool.append(bytes("b"));
+        spool.close();
+
+        // 最后一条记录校验失败
+        try (RandomAccessFile raf = new RandomAccessFile(segment(0), "rw")) {
+            raf.seek(a + HEADER_SIZE);
+            raf.write('x');
+        }
+
+        spool = new Spool(dir);
+        Assert.assertEquals("a", poll(spool));
+        Assert.assertNull(spool.poll(10));
+        // 从截断位置继续写入
+        Assert.assertEquals(a + HEADER_SIZE + 1, spool.append(bytes("c")));
+        Assert.assertEquals("c", poll(spool));
+        spool.close();
+    }
+
+    @Test
+    public void testTruncateTornRecord() throws IOException, InterruptedException {
+        Spool spool = new Spool(dir);
+        spool.append(bytes("a"));
+        long b = spool.append(bytes("b"));
+        spool.close();
+
+        // 只写入了长度, 数据未写入
+        try (RandomAccessFile raf = new RandomAccessFile(segment(0), "rw")) {
+            raf.seek(b);
+            raf.writeInt(16);
+        }
+
+        spool = new Spool(dir);
+        Assert.assertEquals("a", poll(spool));
+        Assert.assertEquals("b", poll(spool));
+        Assert.assertNull(spool.poll(10));
+        Assert.assertEquals(b + HEADER_SIZE + 1, spool.append(bytes("c")));
+        Assert.assertEquals("c", poll(spool));
+        spool.close();
+    }
+
+    @Test
+    public void testRollSegment() throws InterruptedException {
+        Spool spool = new Spool(dir, 64);
+        String data = repeat('a', 20);
+        Assert.assertEquals(28, spool.append(bytes(data)));
+        Assert.assertEquals(56, spool.append(bytes(data)));
+        // 剩余空间不足, 切换到下一段
+        Assert.assertEquals(92, spool.append(bytes(data)));
+        Assert.assertTrue(segment(64).exists());
+
+        // 超过段大小的记录单独成段
+        String large = repeat('b', 100);
+        Assert.assertEquals(128 + HEADER_SIZE + 100, spool.append(bytes(large)));
+        Assert.assertEquals(HEADER_SIZE + 100 + 4, segment(128).length());
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(data, poll(spool));
+        }
+        Assert.assertEquals(large, poll(spool));
+        Assert.assertNull(spool.poll(10));
+        spool.close();
+
+        // 重启后按段顺序重放
+        spool = new Spool(dir, 64);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(data, poll(spool));
+        }
+        Assert.assertEquals(large, poll(spool));
+        spool.close();
+    }
+
+    @Test
+    public void testAckDeleteSegment() throws InterruptedException {
+        Spool spool = new Spool(dir, 64);
+        String data = repeat('a', 20);
+        long[] offsets = new long[5];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = spool.append(bytes(data));
+            Assert.assertEquals(data, poll(spool));
+        }
+        Assert.assertEquals(3, segments());
+
+        // 第一段已全部确认
+        spool.ack(offsets[3]);
+        Assert.assertFalse(segment(0).exists());
+        Assert.assertEquals(2, segments());
+
+        // 保留当前写入段
+        spool.ack(offsets[4]);
+        Assert.assertFalse(segment(64).exists());
+        Assert.assertEquals(1, segments());
+
+        // 确认位置不回退
+        spool.ack(offsets[0]);
+        spool.close();
+
+        spool = new Spool(dir, 64);
+        Assert.assertEquals(offsets[4], spool.getReadOffset());
+        Assert.assertNull(spool.poll(10));
+        spool.append(bytes("c"));
+        Assert.assertEquals("c", poll(spool));
+        spool.close();
+    }
+
+    @Test
+    public void testClear() throws InterruptedException {
+        Spool spool = new Spool(dir);
+        long a = spool.append(bytes("a"));
+        spool.clear();
+        Assert.assertEquals(a, spool.getReadOffset());
+        Assert.assertNull(spool.poll(10));
+        spool.close();
+
+        spool = new Spool(dir);
+        Assert.assertNull(spool.poll(10));
+        spool.close();
+    }
+
+    private File segment(long base) {
+        return new File(dir, String.format("%020d.spool", base));
+    }
+
+    private int segments() {
+        return dir.listFiles((d, name) -> name.endsWith(".spool")).length;
+    }
+
+    private String poll(Spool spool) throws InterruptedException {
+        byte[] data = spool.poll(1000);
+        Assert.assertNotNull(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String repeat(char c, int count) {
+        StringBuilder s = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            s.append(c);
+        }
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,206 @@
+package org.dbsyncer.listener;
+
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.connector.constant.ConnectorConstant;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/26 23:10
+ */
+public class TransactionSchedulerTest {
+
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * 已执行的事务(按第一条变更的值标识)
+     */
+    private final List<String> applied = new CopyOnWriteArrayList<>();
+
+    /**
+     * 执行前等待的事务
+     */
+    private final Map<String, CountDownLatch> blocked = new ConcurrentHashMap<>();
+
+    private final List<Exception> interrupted = new CopyOnWriteArrayList<>();
+
+    private TransactionScheduler scheduler;
+
+    @After
+    public void destroy() {
+        blocked.values().forEach(CountDownLatch::countDown);
+        if (null != scheduler) {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    public void testParallel() throws InterruptedException {
+        scheduler = createScheduler(2);
+        block("tx1");
+        scheduler.schedule(transaction("tx1", 1));
+        // 不同主键的事务不等待
+        scheduler.schedule(transaction("tx2", 2));
+        await(() -> applied.contains("tx2"));
+        Assert.assertFalse(applied.contains("tx1"));
+
+        // 低水位停在未完成的事务之前
+        long[] mark = scheduler.mark();
+        Assert.assertArrayEquals(new long[]{2}, mark);
+        Assert.assertFalse(scheduler.isCompleted(new long[]{1}));
+        Assert.assertFalse(scheduler.isCompleted(mark));
+
+        release("tx1");
+        await(() -> scheduler.isCompleted(mark));
+        Assert.assertEquals(Arrays.asList("tx2", "tx1"), applied);
+    }
+
+    @Test
+    public void testConflict() throws InterruptedException {
+        scheduler = createScheduler(2);
+        block("tx1");
+        scheduler.schedule(transaction("tx1", 1));
+        // 修改相同主键, 依赖之前的事务
+        Thread producer = schedule(transaction("tx2", 3, 1));
+        TimeUnit.MILLISECONDS.sleep(100);
+        Assert.assertTrue(producer.isAlive());
+        Assert.assertTrue(applied.isEmpty());
+
+        release("tx1");
+        producer.join(TIMEOUT);
+        await(() -> scheduler.isCompleted(new long[]{2}));
+        Assert.assertEquals(Arrays.asList("tx1", "tx2"), applied);
+        Assert.assertEquals(1, scheduler.getMetric().getConflicts());
+    }
+
+    @Test
+    public void testNoPrimaryKey() throws InterruptedException {
+        scheduler = createScheduler(2);
+        block("tx1");
+        block("tx2");
+        scheduler.schedule(transaction("tx1", 1));
+        // 无主键的表与之前和之后的事务串行
+        Thread producer = schedule(Collections.singletonList(event("my_log", "tx2", 2)));
+        TimeUnit.MILLISECONDS.sleep(100);
+        Assert.assertTrue(producer.isAlive());
+
+        release("tx1");
+        producer.join(TIMEOUT);
+        Thread next = schedule(transaction("tx3", 3));
+        TimeUnit.MILLISECONDS.sleep(100);
+        Assert.assertTrue(next.isAlive());
+
+        release("tx2");
+        next.join(TIMEOUT);
+        await(() -> scheduler.isCompleted(new long[]{3}));
+        Assert.assertEquals(Arrays.asList("tx1", "tx2", "tx3"), applied);
+    }
+
+    @Test
+    public void testWorkers() throws InterruptedException {
+        scheduler = createScheduler(1);
+        block("tx1");
+        scheduler.schedule(transaction("tx1", 1));
+        // 无空闲线程时等待
+        Thread producer = schedule(transaction("tx2", 2));
+        TimeUnit.MILLISECONDS.sleep(100);
+        Assert.assertTrue(producer.isAlive());
+
+        release("tx1");
+        producer.join(TIMEOUT);
+        await(() -> scheduler.isCompleted(new long[]{2}));
+        Assert.assertEquals(Arrays.asList("tx1", "tx2"), applied);
+    }
+
+    @Test
+    public void testFailure() throws InterruptedException {
+        scheduler = createScheduler(2);
+        scheduler.schedule(transaction("error", 1));
+        await(() -> !interrupted.isEmpty());
+        Assert.assertEquals("error", interrupted.get(0).getMessage());
+
+        // 失败的事务不计为完成, 之后的事务不再执行
+        Assert.assertFalse(scheduler.isCompleted(new long[]{1}));
+        scheduler.schedule(transaction("tx2", 2));
+        TimeUnit.MILLISECONDS.sleep(100);
+        Assert.assertTrue(applied.isEmpty());
+        Assert.assertFalse(scheduler.isCompleted(new long[]{1}));
+        Assert.assertEquals(1, interrupted.size());
+    }
+
+    private TransactionScheduler createScheduler(int workers) {
+        Map<String, int[]> primaryKeyIndex = new HashMap<>();
+        primaryKeyIndex.put("my_user", new int[]{0});
+        return new TransactionScheduler("test", workers, primaryKeyIndex, events -> {
+            String name = (String) events.get(0).getAfterData().get(1);
+            CountDownLatch latch = blocked.get(name);
+            if (null != latch) {
+                try {
+                    latch.await(TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if ("error".equals(name)) {
+                throw new ListenerException(name);
+            }
+            applied.add(name);
+        }, interrupted::add);
+    }
+
+    private Thread schedule(List<RowChangedEvent> events) {
+        Thread thread = new Thread(() -> scheduler.schedule(events));
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void block(String name) {
+        blocked.put(name, new CountDownLatch(1));
+    }
+
+    private void release(String name) {
+        blocked.remove(name).countDown();
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("timeout", System.currentTimeMillis() < deadline);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    /**
+     * 修改主键时包含修改前后的主键
+     */
+    private List<RowChangedEvent> transaction(String name, int id, int... beforeId) {
+        List<RowChangedEvent> events = new ArrayList<>();
+        if (beforeId.length > 0) {
+            events.add(new RowChangedEvent("my_user", ConnectorConstant.OPERTION_UPDATE, Arrays.asList(beforeId[0], name), Arrays.asList(id, name)));
+            return events;
+        }
+        events.add(event("my_user", name, id));
+        return events;
+    }
+
+    private RowChangedEvent event(String tableName, String name, int id) {
+        return new RowChangedEvent(tableName, ConnectorConstant.OPERTION_INSERT, Collections.emptyList(), Arrays.asList(id, name));
+    }
+
+}
@@ -8,10 +8,12 @@ import org.dbsyncer.connector.config.Table;
 import org.dbsyncer.connector.enums.ConnectorEnum;
 import org.dbsyncer.connector.enums.FilterEnum;
 import org.dbsyncer.connector.enums.OperationEnum;
+import org.dbsyncer.listener.LaneMetric;
 import org.dbsyncer.listener.enums.QuartzFilterEnum;
 import org.dbsyncer.parser.enums.ConvertEnum;
 import org.dbsyncer.parser.model.*;
 import org.dbsyncer.plugin.config.Plugin;
+import org.dbsyncer.parser.pipeline.PipelineMetric;
 import org.dbsyncer.storage.enums.StorageDataStatusEnum;
 import org.dbsyncer.storage.query.Query;
 
@@ -74,6 +76,8 @@ public interface Manager extends Executor {
 
     long getCount(String connectorId, Map<String, String> command);
 
+    long getCountEstimate(String connectorId, Map<String, String> command);
+
     // Meta
     String addMeta(ConfigModel model);
 
@@ -122,6 +126,12 @@ public interface Manager extends Executor {
     // StorageDataStatusEnum
     List<StorageDataStatusEnum> getStorageDataStatusEnumAll();
 
+    // 全量同步管道
+    PipelineMetric getPipelineMetric();
+
+    // 增量同步通道
+    LaneMetric getLaneMetric();
+
     // Plugin
     List<Plugin> getPluginAll();
 
@@ -9,12 +9,14 @@ import org.dbsyncer.connector.config.Table;
 import org.dbsyncer.connector.enums.ConnectorEnum;
 import org.dbsyncer.connector.enums.FilterEnum;
 import org.dbsyncer.connector.enums.OperationEnum;
+import org.dbsyncer.listener.LaneMetric;
 import org.dbsyncer.listener.enums.QuartzFilterEnum;
 import org.dbsyncer.manager.config.OperationConfig;
 import org.dbsyncer.manager.config.QueryConfig;
 import org.dbsyncer.manager.enums.GroupStrategyEnum;
 import org.dbsyncer.manager.enums.HandlerEnum;
 import org.dbsyncer.manager.puller.Puller;
+import org.dbsyncer.manager.puller.impl.IncrementPuller;
 import org.dbsyncer.manager.template.impl.OperationTemplate;
 import org.dbsyncer.parser.Parser;
 import org.dbsyncer.parser.enums.ConvertEnum;
@@ -23,6 +25,7 @@ import org.dbsyncer.parser.enums.ModelEnum;
 import org.dbsyncer.parser.logger.LogService;
 import org.dbsyncer.parser.logger.LogType;
 import org.dbsyncer.parser.model.*;
+import org.dbsyncer.parser.pipeline.PipelineMetric;
 import org.dbsyncer.plugin.PluginFactory;
 import org.dbsyncer.plugin.config.Plugin;
 import org.dbsyncer.storage.StorageService;
@@ -65,6 +68,9 @@ public class ManagerFactory implements Manager, ApplicationListener<ClosedEvent>
     @Autowired
     private Map<String, Puller> map;
 
+    @Autowired
+    private IncrementPuller incrementPuller;
+
     @Override
     public ConnectorMapper connect(ConnectorConfig config) {
         return parser.connect(config);
@@ -188,6 +194,11 @@ public class ManagerFactory implements Manager, ApplicationListener<ClosedEvent>
         return parser.getCount(connectorId, command);
     }
 
+    @Override
+    public long getCountEstimate(String connectorId, Map<String, String> command) {
+        return parser.getCountEstimate(connectorId, command);
+    }
+
     @Override
     public String addMeta(ConfigModel model) {
         return operationTemplate.execute(new OperationConfig(model, HandlerEnum.OPR_ADD.getHandler()));
@@ -297,6 +308,16 @@ public class ManagerFactory implements Manager, ApplicationListener<ClosedEvent>
         return parser.getStorageDataStatusEnumAll();
     }
 
+    @Override
+    public PipelineMetric getPipelineMetric() {
+        return parser.getPipelineMetric();
+    }
+
+    @Override
+    public LaneMetric getLaneMetric() {
+        return incrementPuller.getLaneMetric();
+    }
+
     @Override
     public List<Plugin> getPluginAll() {
         return pluginFactory.getPluginAll();
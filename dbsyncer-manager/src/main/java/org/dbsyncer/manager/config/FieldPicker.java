@@ -1,5 +1,6 @@
 package org.dbsyncer.manager.config;
 
+import org.dbsyncer.common.event.LazyValue;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.CompareFilter;
@@ -23,6 +24,7 @@ public class FieldPicker {
     private boolean filterSwitch;
     private List<Filter> add;
     private List<Filter> or;
+    private int[] projection;
 
     public FieldPicker(TableGroup tableGroup) {
         this.tableGroup = tableGroup;
@@ -40,7 +42,7 @@ public class FieldPicker {
             final int size = list.size() - 1;
             index.forEach(node -> {
                 if (node.i <= size) {
-                    data.put(node.name, list.get(node.i));
+                    data.put(node.name, LazyValue.resolve(list.get(node.i)));
                 }
             });
             return data;
@@ -90,6 +92,43 @@ public class FieldPicker {
         return pass;
     }
 
+    /**
+     * 根据过滤条件过滤删除的行, 值为空的条件视为可能成立
+     * <p>变更跟踪的删除只有主键值, 非主键条件无法判断, 不能丢弃删除</p>
+     *
+     * @param row
+     * @return
+     */
+    public boolean filterDelete(Map<String, Object> row) {
+        if (!filterSwitch) {
+            return true;
+        }
+        CompareFilter filter = null;
+        Object value = null;
+        for (Filter f : or) {
+            value = row.get(f.getName());
+            if (null == value) {
+                return true;
+            }
+            filter = FilterEnum.getCompareFilter(f.getFilter());
+            if (filter.compare(String.valueOf(value), f.getValue())) {
+                return true;
+            }
+        }
+
+        for (Filter f : add) {
+            value = row.get(f.getName());
+            if (null == value) {
+                continue;
+            }
+            filter = FilterEnum.getCompareFilter(f.getFilter());
+            if (!filter.compare(String.valueOf(value), f.getValue())) {
+                return false;
+            }
+        }
+        return !add.isEmpty();
+    }
+
     private void init(List<Filter> filter, List<Field> column, List<FieldMapping> fieldMapping) {
         // column  => [1, 86, 0, 中文, 2020-05-15T12:17:22.000+0800, 备注信息]
         Assert.notEmpty(column, "读取字段不能为空.");
@@ -102,7 +141,8 @@ public class FieldPicker {
             or = filter.stream().filter(f -> StringUtil.equals(f.getOperation(), OperationEnum.OR.getName())).collect(Collectors.toList());
         }
 
-        // 记录字段索引 [{"ID":0},{"NAME":1}]
+        // 记录字段索引 [{"ID":0},{"NAME":1}], 只读取映射、过滤和主键字段
+        Set<String> picked = getPickedFields(filter, fieldMapping);
         index = new LinkedList<>();
         int size = column.size();
         String k = null;
@@ -110,10 +150,46 @@ public class FieldPicker {
         for (int i = 0; i < size; i++) {
             field = column.get(i);
             k = field.isUnmodifiabled() ? field.getLabelName() : field.getName();
-            index.add(new Node(k, i));
+            if (null == picked || field.isPk() || picked.contains(k)) {
+                index.add(new Node(k, i));
+            }
         }
         Assert.notEmpty(index, "同步映射关系不能为空.");
         this.indexSize = index.size();
+        this.projection = null == picked ? null : index.stream().mapToInt(node -> node.i).toArray();
+    }
+
+    /**
+     * 获取读取的字段, 配置插件时插件可以使用全部字段, 返回null
+     *
+     * @param filter
+     * @param fieldMapping
+     * @return
+     */
+    private Set<String> getPickedFields(List<Filter> filter, List<FieldMapping> fieldMapping) {
+        if (null != tableGroup.getPlugin()) {
+            return null;
+        }
+        Set<String> picked = new HashSet<>();
+        fieldMapping.forEach(m -> {
+            Field source = m.getSource();
+            if (null != source) {
+                picked.add(source.isUnmodifiabled() ? source.getLabelName() : source.getName());
+            }
+        });
+        if (!CollectionUtils.isEmpty(filter)) {
+            filter.forEach(f -> picked.add(f.getName()));
+        }
+        return picked;
+    }
+
+    /**
+     * 读取的字段下标, 读取全部字段时返回null
+     *
+     * @return
+     */
+    public int[] getProjection() {
+        return projection;
     }
 
     public TableGroup getTableGroup() {
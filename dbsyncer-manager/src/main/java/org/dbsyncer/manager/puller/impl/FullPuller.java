@@ -3,6 +3,7 @@ package org.dbsyncer.manager.puller.impl;
 import org.dbsyncer.common.event.FullRefreshEvent;
 import org.dbsyncer.common.model.Task;
 import org.dbsyncer.manager.Manager;
+import org.dbsyncer.manager.ManagerException;
 import org.dbsyncer.manager.puller.AbstractPuller;
 import org.dbsyncer.parser.Parser;
 import org.dbsyncer.parser.logger.LogService;
@@ -18,9 +19,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 全量同步
@@ -91,11 +97,58 @@ public class FullPuller extends AbstractPuller implements ApplicationListener<Fu
         task.setEndTime(now);
         flush(task);
 
-        for (TableGroup t : list) {
-            if (!task.isRunning()) {
-                break;
+        // 按数据量从大到小排序, 优先同步大表
+        List<TableGroup> groups = new ArrayList<>(list);
+        groups.sort((a, b) -> Long.compare(b.getSourceTable().getCount(), a.getSourceTable().getCount()));
+
+        // 多表并行同步
+        int threadNum = Math.max(1, Math.min(mapping.getThreadNum(), groups.size()));
+        final AtomicInteger index = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threadNum, r -> {
+            Thread thread = new Thread(r, new StringBuilder("full-").append(task.getId()).append("-").append(index.getAndIncrement()).toString());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final CountDownLatch latch = new CountDownLatch(groups.size());
+        final AtomicInteger failed = new AtomicInteger();
+        for (TableGroup t : groups) {
+            executor.execute(() -> {
+                try {
+                    if (task.isRunning()) {
+                        parser.execute(task, mapping, t);
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    logger.error("[{}] >> [{}] 同步异常", t.getSourceTable().getName(), t.getTargetTable().getName(), e);
+                    logService.log(LogType.SystemLog.ERROR, e.getMessage());
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            // 中止未完成的表, 保留续读参数
+            Thread.currentThread().interrupt();
+            task.stop();
+            executor.shutdownNow();
+            throw new ManagerException(String.format("全量同步被中断:%s", task.getId()));
+        } finally {
+            executor.shutdown();
+        }
+
+        // 有表同步失败时不记录结束时间, 保留续读参数, 重新启动后跳过已完成的表
+        if (0 < failed.get()) {
+            throw new ManagerException(String.format("%s张表同步失败, 可重新启动继续同步未完成的表.", failed.get()));
+        }
+
+        // 全部完成, 清除续读参数(中止时保留, 重新启动后跳过已完成的表)
+        if (task.isRunning()) {
+            Map<String, String> params = manager.getMeta(task.getId()).getMap();
+            synchronized (params) {
+                params.clear();
             }
-            parser.execute(task, mapping, t);
         }
 
         // 记录结束时间
@@ -109,7 +162,10 @@ public class FullPuller extends AbstractPuller implements ApplicationListener<Fu
 
         meta.setBeginTime(task.getBeginTime());
         meta.setEndTime(task.getEndTime());
-        manager.editMeta(meta);
+        // 多表并行时, 避免序列化与更新续读参数冲突
+        synchronized (meta.getMap()) {
+            manager.editMeta(meta);
+        }
     }
 
 }
\ No newline at end of file
@@ -12,17 +12,22 @@ import org.dbsyncer.connector.config.Table;
 import org.dbsyncer.connector.constant.ConnectorConstant;
 import org.dbsyncer.listener.AbstractExtractor;
 import org.dbsyncer.listener.Extractor;
+import org.dbsyncer.listener.LaneMetric;
 import org.dbsyncer.listener.Listener;
 import org.dbsyncer.listener.config.ListenerConfig;
 import org.dbsyncer.listener.enums.ListenerTypeEnum;
 import org.dbsyncer.listener.quartz.AbstractQuartzExtractor;
 import org.dbsyncer.listener.quartz.ScheduledTaskJob;
 import org.dbsyncer.listener.quartz.ScheduledTaskService;
+import org.dbsyncer.listener.spool.Spool;
 import org.dbsyncer.manager.Manager;
 import org.dbsyncer.manager.ManagerException;
 import org.dbsyncer.manager.config.FieldPicker;
 import org.dbsyncer.manager.puller.AbstractPuller;
 import org.dbsyncer.parser.Parser;
+import org.dbsyncer.parser.increment.IncrementBuffer;
+import org.dbsyncer.parser.increment.IncrementBufferHandler;
+import org.dbsyncer.parser.increment.IncrementTransaction;
 import org.dbsyncer.parser.logger.LogService;
 import org.dbsyncer.parser.logger.LogType;
 import org.dbsyncer.parser.model.Connector;
@@ -38,13 +43,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
 import javax.annotation.PostConstruct;
+import java.io.File;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * 增量同步
@@ -79,10 +87,14 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
     @Autowired
     private Executor taskExecutor;
 
+    private static final String SPOOL_PATH = "data" + File.separator + "spool" + File.separator;
+
     private String key;
 
     private Map<String, Extractor> map = new ConcurrentHashMap<>();
 
+    private Map<String, IncrementBuffer> buffers = new ConcurrentHashMap<>();
+
     @PostConstruct
     private void init() {
         key = UUIDUtil.getUUID();
@@ -128,10 +140,29 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
             extractor.close();
         }
         map.remove(metaId);
+        IncrementBuffer buffer = buffers.remove(metaId);
+        if (null != buffer) {
+            buffer.close();
+        }
         publishClosedEvent(metaId);
         logger.info("关闭成功:{}", metaId);
     }
 
+    /**
+     * 获取所有增量任务的通道积压指标
+     *
+     * @return
+     */
+    public LaneMetric getLaneMetric() {
+        LaneMetric metric = new LaneMetric();
+        map.values().forEach(extractor -> {
+            if (extractor instanceof AbstractExtractor) {
+                metric.merge(((AbstractExtractor) extractor).getLaneMetric());
+            }
+        });
+        return metric;
+    }
+
     @Override
     public void run() {
         // 定时同步增量信息
@@ -161,13 +192,21 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
             return extractor;
         }
 
-        // 基于日志抽取
-        if (ListenerTypeEnum.isLog(listenerType)) {
-            AbstractExtractor extractor = listener.getExtractor(ListenerTypeEnum.LOG.getType(), connectorConfig.getConnectorType(), AbstractExtractor.class);
+        // 基于日志或变更跟踪抽取
+        if (ListenerTypeEnum.isLog(listenerType) || ListenerTypeEnum.isTracking(listenerType)) {
+            AbstractExtractor extractor = listener.getExtractor(listenerType, connectorConfig.getConnectorType(), AbstractExtractor.class);
             LogListener logListener = new LogListener(mapping, list, extractor);
             Set<String> filterTable = new HashSet<>();
             logListener.getTablePicker().forEach((k, fieldPickers) -> filterTable.add(k));
             extractor.setFilterTable(filterTable);
+            extractor.setPrimaryKeyIndex(getPrimaryKeyIndex(list));
+            extractor.setProjection(getProjection(logListener.getTablePicker()));
+            extractor.setLaneNum(mapping.getLaneNum());
+            extractor.setLaneQueueSize(mapping.getLaneQueueSize());
+            extractor.setTransactionSize(mapping.getTransactionSize());
+            if (mapping.isSpool()) {
+                extractor.setSpool(new Spool(new File(SPOOL_PATH + mapping.getMetaId())));
+            }
             setExtractorConfig(extractor, connectorConfig, listenerConfig, meta.getMap(), logListener);
             return extractor;
         }
@@ -175,6 +214,44 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
         throw new ManagerException("未知的监听配置.");
     }
 
+    /**
+     * 获取数据源表主键下标, 用于按主键分配增量通道
+     *
+     * @param list
+     * @return
+     */
+    private Map<String, int[]> getPrimaryKeyIndex(List<TableGroup> list) {
+        Map<String, int[]> primaryKeyIndex = new HashMap<>();
+        list.forEach(t -> {
+            final Table table = t.getSourceTable();
+            List<Field> column = table.getColumn();
+            if (CollectionUtils.isEmpty(column)) {
+                return;
+            }
+            int[] index = IntStream.range(0, column.size()).filter(i -> column.get(i).isPk()).toArray();
+            primaryKeyIndex.putIfAbsent(table.getName(), index);
+        });
+        return primaryKeyIndex;
+    }
+
+    /**
+     * 获取数据源表需要解析的列下标(所有表关系读取字段的并集), 存在读取全部字段的关系时不裁剪
+     *
+     * @param tablePicker
+     * @return
+     */
+    private Map<String, int[]> getProjection(Map<String, List<FieldPicker>> tablePicker) {
+        Map<String, int[]> projection = new HashMap<>();
+        tablePicker.forEach((tableName, pickers) -> {
+            if (pickers.stream().anyMatch(picker -> null == picker.getProjection())) {
+                return;
+            }
+            int[] index = pickers.stream().flatMapToInt(picker -> IntStream.of(picker.getProjection())).distinct().sorted().toArray();
+            projection.put(tableName, index);
+        });
+        return projection;
+    }
+
     private void setExtractorConfig(AbstractExtractor extractor, ConnectorConfig connector, ListenerConfig listener,
                                     Map<String, String> snapshot, Event event) {
         extractor.setTaskExecutor(taskExecutor);
@@ -182,7 +259,8 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
         extractor.setScheduledTaskService(scheduledTaskService);
         extractor.setConnectorConfig(connector);
         extractor.setListenerConfig(listener);
-        extractor.setSnapshot(snapshot);
+        // 增量点由抽取器按低水位提交, 避免未处理完成的增量点随Meta持久化
+        extractor.setSnapshot(new HashMap<>(snapshot));
         extractor.addListener(event);
     }
 
@@ -190,6 +268,33 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
         protected Mapping mapping;
         protected String metaId;
         protected AtomicBoolean changed = new AtomicBoolean();
+        protected IncrementBuffer buffer;
+
+        protected void initBuffer(Mapping mapping) {
+            this.mapping = mapping;
+            this.metaId = mapping.getMetaId();
+            // 按表关系批量写入, 达到单次写入条数或等待超时后处理, 处理过程有异常向上抛
+            final int window = mapping.getCoalesceWindow();
+            this.buffer = new IncrementBuffer(metaId, new IncrementBufferHandler() {
+                @Override
+                public void handle(TableGroup group, List<RowChangedEvent> events) {
+                    parser.execute(mapping, group, events);
+                }
+
+                @Override
+                public void coalesced(TableGroup group, int count) {
+                    // 合并掉的变更已由最终结果生效, 计为成功
+                    Meta meta = manager.getMeta(metaId);
+                    if (null != meta) {
+                        meta.getSuccess().getAndAdd(count);
+                    }
+                }
+            }, mapping.getBatchNum(), window > 0 ? window : IncrementBuffer.DEFAULT_MAX_WAIT, mapping.getLaneNum(), window > 0);
+            IncrementBuffer old = buffers.put(metaId, buffer);
+            if (null != old) {
+                old.close();
+            }
+        }
 
         @Override
         public void flushEvent(Map<String, String> map) {
@@ -204,6 +309,8 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
 
         @Override
         public void forceFlushEvent(Map<String, String> map) {
+            // 先处理缓存的增量数据, 再持久化增量点(处理失败时抛出异常, 不持久化增量点)
+            buffer.flush();
             Meta meta = manager.getMeta(metaId);
             if (null != meta) {
                 meta.setMap(map);
@@ -245,8 +352,7 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
         private List<FieldPicker> tablePicker;
 
         public QuartzListener(Mapping mapping, List<TableGroup> list) {
-            this.mapping = mapping;
-            this.metaId = mapping.getMetaId();
+            initBuffer(mapping);
             this.tablePicker = new LinkedList<>();
             list.forEach(t -> tablePicker.add(new FieldPicker(PickerUtil.mergeTableGroupConfig(mapping, t))));
         }
@@ -256,8 +362,7 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
             final FieldPicker picker = tablePicker.get(rowChangedEvent.getTableGroupIndex());
             rowChangedEvent.setTableName(picker.getTableGroup().getSourceTable().getName());
 
-            // 处理过程有异常向上抛
-            parser.execute(mapping, picker.getTableGroup(), rowChangedEvent);
+            buffer.offer(picker.getTableGroup(), rowChangedEvent);
 
             // 标记有变更记录
             changed.compareAndSet(false, true);
@@ -292,8 +397,7 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
         private static final int MAX_LOG_CACHE_SIZE = 128;
 
         public LogListener(Mapping mapping, List<TableGroup> list, Extractor extractor) {
-            this.mapping = mapping;
-            this.metaId = mapping.getMetaId();
+            initBuffer(mapping);
             this.extractor = extractor;
             this.tablePicker = new LinkedHashMap<>();
             this.eventCounter = new AtomicInteger();
@@ -309,18 +413,8 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
 
         @Override
         public void changedEvent(RowChangedEvent rowChangedEvent) {
-            // 处理过程有异常向上抛
-            List<FieldPicker> pickers = tablePicker.get(rowChangedEvent.getTableName());
-            if (!CollectionUtils.isEmpty(pickers)) {
-                pickers.parallelStream().forEach(picker -> {
-                    final Map<String, Object> before = picker.getColumns(rowChangedEvent.getBeforeData());
-                    final Map<String, Object> after = picker.getColumns(rowChangedEvent.getAfterData());
-                    if (picker.filter(StringUtil.equals(ConnectorConstant.OPERTION_DELETE, rowChangedEvent.getEvent()) ? before : after)) {
-                        rowChangedEvent.setBefore(before);
-                        rowChangedEvent.setAfter(after);
-                        parser.execute(mapping, picker.getTableGroup(), rowChangedEvent);
-                    }
-                });
+            // 同一表关系的变更按顺序放入缓冲
+            if (pick(rowChangedEvent, buffer::offer)) {
                 // 标记有变更记录
                 changed.compareAndSet(false, true);
                 eventCounter.set(0);
@@ -334,6 +428,44 @@ public class IncrementPuller extends AbstractPuller implements ScheduledTaskJob,
             }
         }
 
+        @Override
+        public void changedEvent(List<RowChangedEvent> events) {
+            // 同一源库事务在目标源同一事务中写入, 处理过程有异常向上抛
+            IncrementTransaction transaction = new IncrementTransaction();
+            events.forEach(e -> pick(e, transaction::add));
+            if (transaction.isEmpty()) {
+                return;
+            }
+            parser.execute(mapping, transaction);
+            // 标记有变更记录
+            changed.compareAndSet(false, true);
+        }
+
+        /**
+         * 按表关系筛选变更, 每个关系使用独立的事件对象
+         *
+         * @param rowChangedEvent
+         * @param consumer
+         * @return 是否有监听该表的关系
+         */
+        private boolean pick(RowChangedEvent rowChangedEvent, BiConsumer<TableGroup, RowChangedEvent> consumer) {
+            List<FieldPicker> pickers = tablePicker.get(rowChangedEvent.getTableName());
+            if (CollectionUtils.isEmpty(pickers)) {
+                return false;
+            }
+            pickers.forEach(picker -> {
+                final Map<String, Object> before = picker.getColumns(rowChangedEvent.getBeforeData());
+                final Map<String, Object> after = picker.getColumns(rowChangedEvent.getAfterData());
+                final boolean delete = StringUtil.equals(ConnectorConstant.OPERTION_DELETE, rowChangedEvent.getEvent());
+                if (delete ? picker.filterDelete(before) : picker.filter(after)) {
+                    RowChangedEvent event = new RowChangedEvent(0, rowChangedEvent.getEvent(), before, after);
+                    event.setTableName(rowChangedEvent.getTableName());
+                    consumer.accept(picker.getTableGroup(), event);
+                }
+            });
+            return true;
+        }
+
         public Map<String, List<FieldPicker>> getTablePicker() {
             return tablePicker;
         }
@@ -0,0 +1,89 @@
+package org.dbsyncer.manager.config;
+
+import org.dbsyncer.connector.config.Field;
+import org.dbsyncer.connector.config.Filter;
+import org.dbsyncer.connector.enums.FilterEnum;
+import org.dbsyncer.connector.enums.OperationEnum;
+import org.dbsyncer.parser.model.FieldMapping;
+import org.dbsyncer.parser.model.TableGroup;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/27 21:30
+ */
+public class FieldPickerTest {
+
+    @Test
+    public void testFilter() {
+        FieldPicker picker = createPicker(filter(OperationEnum.AND, "name", FilterEnum.EQUAL, "a"));
+        Assert.assertTrue(picker.filter(picker.getColumns(Arrays.asList(1, "a"))));
+        Assert.assertFalse(picker.filter(picker.getColumns(Arrays.asList(1, "b"))));
+        // 新增和修改的行, 条件字段为空时不同步
+        Assert.assertFalse(picker.filter(picker.getColumns(Arrays.asList(1, null))));
+    }
+
+    @Test
+    public void testDeleteWithKeyOnly() {
+        // 变更跟踪的删除只有主键值
+        List<Object> keyOnly = Arrays.asList(1, null);
+
+        FieldPicker picker = createPicker(filter(OperationEnum.AND, "name", FilterEnum.EQUAL, "a"));
+        Assert.assertTrue(picker.filterDelete(picker.getColumns(keyOnly)));
+        Assert.assertTrue(picker.filterDelete(picker.getColumns(Arrays.asList(1, "a"))));
+        Assert.assertFalse(picker.filterDelete(picker.getColumns(Arrays.asList(1, "b"))));
+
+        picker = createPicker(filter(OperationEnum.OR, "name", FilterEnum.EQUAL, "a"));
+        Assert.assertTrue(picker.filterDelete(picker.getColumns(keyOnly)));
+        Assert.assertFalse(picker.filterDelete(picker.getColumns(Arrays.asList(1, "b"))));
+    }
+
+    @Test
+    public void testDeleteWithKeyFilter() {
+        // 主键条件仍然生效
+        FieldPicker picker = createPicker(filter(OperationEnum.AND, "id", FilterEnum.GT, "1"),
+                filter(OperationEnum.AND, "name", FilterEnum.EQUAL, "a"));
+        Assert.assertTrue(picker.filterDelete(picker.getColumns(Arrays.asList(2, null))));
+        Assert.assertFalse(picker.filterDelete(picker.getColumns(Arrays.asList(1, null))));
+
+        picker = createPicker(filter(OperationEnum.OR, "id", FilterEnum.EQUAL, "1"));
+        Assert.assertTrue(picker.filterDelete(picker.getColumns(Arrays.asList(1, null))));
+        Assert.assertFalse(picker.filterDelete(picker.getColumns(Arrays.asList(2, null))));
+    }
+
+    @Test
+    public void testDeleteWithoutFilter() {
+        FieldPicker picker = createPicker();
+        Map<String, Object> row = picker.getColumns(Arrays.asList(1, null));
+        Assert.assertTrue(picker.filterDelete(row));
+        Assert.assertTrue(picker.filterDelete(Collections.EMPTY_MAP));
+    }
+
+    private FieldPicker createPicker(Filter... filter) {
+        List<Field> column = new ArrayList<>();
+        column.add(new Field("id", "INT", Types.INTEGER, true));
+        column.add(new Field("name", "VARCHAR", Types.VARCHAR));
+        List<FieldMapping> fieldMapping = new ArrayList<>();
+        column.forEach(field -> fieldMapping.add(new FieldMapping(field, field)));
+        return new FieldPicker(new TableGroup(), column.subList(0, 1), Arrays.asList(filter), column, fieldMapping);
+    }
+
+    private Filter filter(OperationEnum operation, String name, FilterEnum filterEnum, String value) {
+        Filter filter = new Filter();
+        filter.setOperation(operation.getName());
+        filter.setName(name);
+        filter.setFilter(filterEnum.getName());
+        filter.setValue(value);
+        return filter;
+    }
+
+}
@@ -4,6 +4,7 @@ import org.dbsyncer.common.model.Paging;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.constant.ConnectorConstant;
+import org.dbsyncer.listener.LaneMetric;
 import org.dbsyncer.manager.Manager;
 import org.dbsyncer.monitor.enums.MetricEnum;
 import org.dbsyncer.monitor.enums.StatisticEnum;
@@ -13,6 +14,7 @@ import org.dbsyncer.monitor.model.MetricResponse;
 import org.dbsyncer.monitor.model.Sample;
 import org.dbsyncer.parser.model.Mapping;
 import org.dbsyncer.parser.model.Meta;
+import org.dbsyncer.parser.pipeline.PipelineMetric;
 import org.dbsyncer.storage.constant.ConfigConstant;
 import org.dbsyncer.storage.enums.StorageDataStatusEnum;
 import org.dbsyncer.storage.query.Query;
@@ -116,6 +118,20 @@ public class MonitorFactory implements Monitor {
         list.add(createMetricResponse(ThreadPoolMetricEnum.ACTIVE, pool.getActiveCount()));
         list.add(createMetricResponse(ThreadPoolMetricEnum.COMPLETED, pool.getCompletedTaskCount()));
         list.add(createMetricResponse(ThreadPoolMetricEnum.REMAINING_CAPACITY, pool.getQueue().remainingCapacity()));
+
+        // 全量同步管道积压
+        PipelineMetric pipelineMetric = manager.getPipelineMetric();
+        list.add(createMetricResponse(ThreadPoolMetricEnum.PIPELINE_TRANSFORM_QUEUE_UP, pipelineMetric.getTransformQueueUp()));
+        list.add(createMetricResponse(ThreadPoolMetricEnum.PIPELINE_WRITE_QUEUE_UP, pipelineMetric.getWriteQueueUp()));
+
+        // 增量同步通道积压, 队列已满时暂停读取
+        LaneMetric laneMetric = manager.getLaneMetric();
+        list.add(createMetricResponse(ThreadPoolMetricEnum.LANE_QUEUE_UP, laneMetric.getQueueUp()));
+        list.add(createMetricResponse(ThreadPoolMetricEnum.LANE_REMAINING_CAPACITY, laneMetric.getQueueCapacity() - laneMetric.getQueueUp()));
+        list.add(createMetricResponse(ThreadPoolMetricEnum.LANE_STALL_TIME, laneMetric.getStallTime()));
+        // 按事务并行写入
+        list.add(createMetricResponse(ThreadPoolMetricEnum.LANE_TRANSACTION_PARALLELISM, String.format("%.2f", laneMetric.getParallelism())));
+        list.add(createMetricResponse(ThreadPoolMetricEnum.LANE_TRANSACTION_CONFLICTS, laneMetric.getConflicts()));
         return list;
     }
 
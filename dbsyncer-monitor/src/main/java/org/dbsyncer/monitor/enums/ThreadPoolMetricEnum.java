@@ -28,7 +28,35 @@ public enum ThreadPoolMetricEnum {
     /**
      * 空闲队列
      */
-    REMAINING_CAPACITY("thread.pool.remaining.capacity", "线程池", "空闲队列");
+    REMAINING_CAPACITY("thread.pool.remaining.capacity", "线程池", "空闲队列"),
+    /**
+     * 全量同步待转换
+     */
+    PIPELINE_TRANSFORM_QUEUE_UP("full.pipeline.transform.queue.up", "全量同步", "待转换"),
+    /**
+     * 全量同步待写入
+     */
+    PIPELINE_WRITE_QUEUE_UP("full.pipeline.write.queue.up", "全量同步", "待写入"),
+    /**
+     * 增量同步待处理
+     */
+    LANE_QUEUE_UP("increment.lane.queue.up", "增量同步", "待处理"),
+    /**
+     * 增量同步空闲队列
+     */
+    LANE_REMAINING_CAPACITY("increment.lane.remaining.capacity", "增量同步", "空闲队列"),
+    /**
+     * 增量同步读取累计阻塞时长(毫秒)
+     */
+    LANE_STALL_TIME("increment.lane.stall.time", "增量同步", "阻塞时长(ms)"),
+    /**
+     * 增量同步事务平均并行度
+     */
+    LANE_TRANSACTION_PARALLELISM("increment.lane.transaction.parallelism", "增量同步", "事务并行度"),
+    /**
+     * 增量同步写集合冲突等待的事务数
+     */
+    LANE_TRANSACTION_CONFLICTS("increment.lane.transaction.conflicts", "增量同步", "事务冲突");
 
     private String code;
     private String group;
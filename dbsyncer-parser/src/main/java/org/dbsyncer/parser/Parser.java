@@ -11,9 +11,11 @@ import org.dbsyncer.connector.enums.FilterEnum;
 import org.dbsyncer.connector.enums.OperationEnum;
 import org.dbsyncer.listener.enums.QuartzFilterEnum;
 import org.dbsyncer.parser.enums.ConvertEnum;
+import org.dbsyncer.parser.increment.IncrementTransaction;
 import org.dbsyncer.parser.model.Connector;
 import org.dbsyncer.parser.model.Mapping;
 import org.dbsyncer.parser.model.TableGroup;
+import org.dbsyncer.parser.pipeline.PipelineMetric;
 import org.dbsyncer.storage.enums.StorageDataStatusEnum;
 
 import java.util.List;
@@ -84,6 +86,15 @@ public interface Parser {
      */
     long getCount(String connectorId, Map<String, String> command);
 
+    /**
+     * 获取估算总数(读取统计信息)，不支持时返回-1
+     *
+     * @param connectorId
+     * @param command
+     * @return
+     */
+    long getCountEstimate(String connectorId, Map<String, String> command);
+
     /**
      * 解析连接器配置为Connector
      *
@@ -144,6 +155,13 @@ public interface Parser {
      */
     List<StorageDataStatusEnum> getStorageDataStatusEnumAll();
 
+    /**
+     * 获取全量同步管道队列积压
+     *
+     * @return
+     */
+    PipelineMetric getPipelineMetric();
+
     /**
      * 全量同步
      *
@@ -161,4 +179,21 @@ public interface Parser {
      * @param rowChangedEvent
      */
     void execute(Mapping mapping, TableGroup tableGroup, RowChangedEvent rowChangedEvent);
+
+    /**
+     * 增量同步(批量, 同一事件类型)
+     *
+     * @param mapping
+     * @param tableGroup
+     * @param events
+     */
+    void execute(Mapping mapping, TableGroup tableGroup, List<RowChangedEvent> events);
+
+    /**
+     * 增量同步(源库事务, 目标源同一事务中写入)
+     *
+     * @param mapping
+     * @param transaction
+     */
+    void execute(Mapping mapping, IncrementTransaction transaction);
 }
\ No newline at end of file
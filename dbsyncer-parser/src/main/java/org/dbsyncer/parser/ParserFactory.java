@@ -19,9 +19,14 @@ import org.dbsyncer.listener.enums.QuartzFilterEnum;
 import org.dbsyncer.parser.enums.ConvertEnum;
 import org.dbsyncer.parser.enums.ParserEnum;
 import org.dbsyncer.parser.flush.FlushService;
+import org.dbsyncer.parser.increment.IncrementTransaction;
 import org.dbsyncer.parser.logger.LogType;
 import org.dbsyncer.parser.model.*;
+import org.dbsyncer.parser.pipeline.Page;
+import org.dbsyncer.parser.pipeline.Pipeline;
+import org.dbsyncer.parser.pipeline.PipelineMetric;
 import org.dbsyncer.parser.util.ConvertUtil;
+import org.dbsyncer.parser.util.CursorUtil;
 import org.dbsyncer.parser.util.PickerUtil;
 import org.dbsyncer.plugin.PluginFactory;
 import org.dbsyncer.storage.enums.StorageDataStatusEnum;
@@ -37,11 +42,16 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Types;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executor;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * @author AE86
@@ -53,6 +63,11 @@ public class ParserFactory implements Parser {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    /**
+     * 单表按主键区间并行读写的最大线程数
+     */
+    private static final int MAX_RANGE_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
     @Autowired
     private ConnectorFactory connectorFactory;
 
@@ -72,6 +87,11 @@ public class ParserFactory implements Parser {
     @Autowired
     private ApplicationContext applicationContext;
 
+    /**
+     * 运行中的全量同步管道
+     */
+    private final Set<Pipeline> pipelines = ConcurrentHashMap.newKeySet();
+
     @Override
     public ConnectorMapper connect(ConnectorConfig config) {
         return connectorFactory.connect(config);
@@ -158,6 +178,12 @@ public class ParserFactory implements Parser {
         return connectorFactory.getCount(connectorMapper, command);
     }
 
+    @Override
+    public long getCountEstimate(String connectorId, Map<String, String> command) {
+        ConnectorMapper connectorMapper = connectorFactory.connect(getConnectorConfig(connectorId));
+        return connectorFactory.getCountEstimate(connectorMapper, command);
+    }
+
     @Override
     public Connector parseConnector(String json) {
         try {
@@ -235,6 +261,17 @@ public class ParserFactory implements Parser {
         return Arrays.asList(StorageDataStatusEnum.values());
     }
 
+    @Override
+    public PipelineMetric getPipelineMetric() {
+        long transformQueueUp = 0;
+        long writeQueueUp = 0;
+        for (Pipeline pipeline : pipelines) {
+            transformQueueUp += pipeline.getTransformQueueUp();
+            writeQueueUp += pipeline.getWriteQueueUp();
+        }
+        return new PipelineMetric().setTransformQueueUp(transformQueueUp).setWriteQueueUp(writeQueueUp);
+    }
+
     @Override
     public void execute(Task task, Mapping mapping, TableGroup tableGroup) {
         final String metaId = task.getId();
@@ -255,47 +292,74 @@ public class ParserFactory implements Parser {
         // 获取同步字段
         Picker picker = new Picker(fieldMapping);
 
-        // 检查分页参数
+        // 检查表同步状态(中断后跳过已完成的表)
+        final String tableGroupId = tableGroup.getId();
         Map<String, String> params = getMeta(metaId).getMap();
-        params.putIfAbsent(ParserEnum.PAGE_INDEX.getCode(), ParserEnum.PAGE_INDEX.getDefaultValue());
+        if (Boolean.parseBoolean(getParam(params, tableGroupId, ParserEnum.FINISHED))) {
+            logger.info("已完成全量同步, 跳过:{}, [{}] >> [{}]", metaId, sTableName, tTableName);
+            return;
+        }
+
+        // 检查分页参数和游标参数(支持主键续读)
+        List<String> primaryKeys = getPrimaryKeys(group.getSourceTable());
+        Object[] cursors = CursorUtil.decode(getParam(params, tableGroupId, ParserEnum.CURSOR));
         int pageSize = mapping.getReadNum();
-        int batchSize = mapping.getBatchNum();
         ConnectorMapper sConnectionMapper = connectorFactory.connect(sConfig);
         ConnectorMapper tConnectionMapper = connectorFactory.connect(tConfig);
 
-        for (; ; ) {
-            if (!task.isRunning()) {
-                logger.warn("任务被中止:{}", metaId);
-                break;
+        // 单表按主键区间拆分, 并行读写
+        if (mapping.getSplitNum() > 1) {
+            List<Object[]> ranges = getRanges(params, tableGroupId, sConnectionMapper, command, group.getSourceTable(), mapping.getSplitNum());
+            if (null != ranges) {
+                executeRanges(task, mapping, tableGroupId, group, sConnectionMapper, tConnectionMapper, ranges);
+                return;
             }
+        }
 
-            // 1、获取数据源数据
-            int pageIndex = Integer.parseInt(params.get(ParserEnum.PAGE_INDEX.getCode()));
-            Result reader = connectorFactory.reader(sConnectionMapper, new ReaderConfig(command, new ArrayList<>(), pageIndex, pageSize));
-            List<Map> data = reader.getData();
-            if (CollectionUtils.isEmpty(data)) {
-                params.clear();
-                logger.info("完成全量同步任务:{}, [{}] >> [{}]", metaId, sTableName, tTableName);
-                break;
-            }
-
-            // 2、映射字段
-            List<Map> target = picker.pickData(reader.getData());
-
-            // 3、参数转换
-            ConvertUtil.convert(group.getConvert(), target);
+        // 无主键时不能按主键续读, 流式读取避免深分页
+        if (CollectionUtils.isEmpty(primaryKeys) && StringUtil.isNotBlank(command.get(ConnectorConstant.OPERTION_QUERY_STREAM))) {
+            executeStream(task, mapping, tableGroupId, group, picker, sConnectionMapper, tConnectionMapper);
+            return;
+        }
 
-            // 4、插件转换
-            pluginFactory.convert(group.getPlugin(), data, target);
+        // 读取 -> 转换 -> 写入, 读取下一页时上一页在转换或写入
+        boolean completed = false;
+        int pageIndex = Integer.parseInt(getParam(params, tableGroupId, ParserEnum.PAGE_INDEX));
+        Pipeline pipeline = createPipeline(task, mapping, tableGroupId, group, picker, tConnectionMapper, true);
+        RuntimeException cause = null;
+        try {
+            for (; ; ) {
+                if (!task.isRunning()) {
+                    logger.warn("任务被中止:{}", metaId);
+                    break;
+                }
+                if (pipeline.isFailed()) {
+                    break;
+                }
 
-            // 5、写入目标源
-            Result writer = writeBatch(tConnectionMapper, command, picker.getTargetFields(), target, batchSize);
+                // 1、获取数据源数据
+                Result reader = connectorFactory.reader(sConnectionMapper, new ReaderConfig(command, new ArrayList<>(), pageIndex, pageSize, cursors));
+                List<Map> data = reader.getData();
+                if (CollectionUtils.isEmpty(data)) {
+                    completed = true;
+                    break;
+                }
+                cursors = getLastCursors(data, primaryKeys);
 
-            // 6、更新结果
-            flush(task, writer, target);
+                // 2、交给转换和写入阶段(队列满时阻塞)
+                pipeline.put(new Page(pageIndex++, cursors, data));
+            }
+        } catch (RuntimeException e) {
+            cause = e;
+            throw e;
+        } finally {
+            // 3、等待已读取的数据写完
+            closePipeline(pipeline, cause);
+        }
 
-            // 7、更新分页数
-            params.put(ParserEnum.PAGE_INDEX.getCode(), String.valueOf(++pageIndex));
+        if (completed) {
+            finish(params, tableGroupId);
+            logger.info("完成全量同步任务:{}, [{}] >> [{}]", metaId, sTableName, tTableName);
         }
     }
 
@@ -325,6 +389,326 @@ public class ParserFactory implements Parser {
         flush(metaId, writer, event, picker.getTargetMapList());
     }
 
+    @Override
+    public void execute(Mapping mapping, TableGroup tableGroup, List<RowChangedEvent> events) {
+        if (CollectionUtils.isEmpty(events)) {
+            return;
+        }
+        // 单条、强制更新或目标源不支持合并写入时, 逐条同步
+        boolean single = events.size() == 1 || events.stream().anyMatch(RowChangedEvent::isForceUpdate);
+        if (single || !isSupportedBatch(tableGroup, events.get(0).getEvent())) {
+            events.forEach(e -> execute(mapping, tableGroup, e));
+            return;
+        }
+        final String metaId = mapping.getMetaId();
+
+        ConnectorMapper tConnectorMapper = connectorFactory.connect(getConnectorConfig(mapping.getTargetConnectorId()));
+        // 1、获取批量写入数据
+        WriterBatchConfig config = getWriterBatchConfig(metaId, tableGroup, events);
+
+        // 2、写入目标源
+        Result writer = connectorFactory.writer(tConnectorMapper, config);
+
+        // 3、更新结果
+        flush(metaId, writer, config.getEvent(), config.getData());
+    }
+
+    @Override
+    public void execute(Mapping mapping, IncrementTransaction transaction) {
+        if (null == transaction || transaction.isEmpty()) {
+            return;
+        }
+        List<IncrementTransaction.Batch> batches = transaction.getBatches();
+        // 强制更新或目标源不支持合并写入时, 按批同步
+        boolean supported = batches.stream().allMatch(b -> isSupportedBatch(b.getTableGroup(), b.getEvent())
+                && b.getEvents().stream().noneMatch(RowChangedEvent::isForceUpdate));
+        if (!supported) {
+            batches.forEach(b -> execute(mapping, b.getTableGroup(), b.getEvents()));
+            return;
+        }
+        final String metaId = mapping.getMetaId();
+
+        ConnectorMapper tConnectorMapper = connectorFactory.connect(getConnectorConfig(mapping.getTargetConnectorId()));
+        // 1、获取批量写入数据
+        List<WriterBatchConfig> configs = new ArrayList<>(batches.size());
+        batches.forEach(b -> configs.add(getWriterBatchConfig(metaId, b.getTableGroup(), b.getEvents())));
+
+        // 2、同一事务中写入目标源
+        List<Result> writer = connectorFactory.writer(tConnectorMapper, configs);
+
+        // 3、更新结果
+        for (int i = 0; i < configs.size(); i++) {
+            flush(metaId, writer.get(i), configs.get(i).getEvent(), configs.get(i).getData());
+        }
+    }
+
+    /**
+     * 目标源是否支持合并写入(删除按主键, 新增和修改按主键插入或更新)
+     *
+     * @param tableGroup
+     * @param event
+     * @return
+     */
+    private boolean isSupportedBatch(TableGroup tableGroup, String event) {
+        return StringUtil.equals(ConnectorConstant.OPERTION_DELETE, event) || StringUtil.isNotBlank(tableGroup.getCommand().get(ConnectorConstant.OPERTION_UPSERT));
+    }
+
+    /**
+     * 获取批量写入配置(映射字段、参数转换、插件转换, 同一主键只保留最后一次变更)
+     *
+     * @param metaId
+     * @param tableGroup
+     * @param events
+     * @return
+     */
+    private WriterBatchConfig getWriterBatchConfig(String metaId, TableGroup tableGroup, List<RowChangedEvent> events) {
+        final String event = events.get(0).getEvent();
+        final boolean delete = StringUtil.equals(ConnectorConstant.OPERTION_DELETE, event);
+        // 1、获取映射字段
+        List<Map> source = new ArrayList<>(events.size());
+        events.forEach(e -> source.add(delete ? e.getBefore() : e.getAfter()));
+        Picker picker = new Picker(tableGroup.getFieldMapping());
+        List<Map> target = picker.pickData(source);
+
+        // 2、参数转换
+        ConvertUtil.convert(tableGroup.getConvert(), target);
+
+        // 3、插件转换
+        for (int i = 0; i < target.size(); i++) {
+            pluginFactory.convert(tableGroup.getPlugin(), event, source.get(i), target.get(i));
+        }
+
+        // 4、同一主键只保留最后一次变更, 保证按序生效
+        List<Map> data = distinct(picker.getTargetFields(), target);
+        getMeta(metaId).getSuccess().getAndAdd(target.size() - data.size());
+        return new WriterBatchConfig(tableGroup.getCommand(), picker.getTargetFields(), data).setEvent(event).setUpsert(true);
+    }
+
+    /**
+     * 按主键区间并行读写, 每个区间由独立线程续读
+     *
+     * @param task
+     * @param mapping
+     * @param tableGroupId
+     * @param group
+     * @param sConnectionMapper
+     * @param tConnectionMapper
+     * @param ranges
+     */
+    private void executeRanges(Task task, Mapping mapping, String tableGroupId, TableGroup group, ConnectorMapper sConnectionMapper, ConnectorMapper tConnectionMapper,
+                               List<Object[]> ranges) {
+        final String metaId = task.getId();
+        final Map<String, String> params = getMeta(metaId).getMap();
+        final String sTableName = group.getSourceTable().getName();
+        final String tTableName = group.getTargetTable().getName();
+        final String pk = getPrimaryKeys(group.getSourceTable()).get(0);
+        final int pageSize = mapping.getReadNum();
+
+        // 区间线程独立于taskExecutor, 避免与批量写入任务互相等待
+        final int threads = Math.max(1, Math.min(ranges.size(), MAX_RANGE_THREADS));
+        final AtomicInteger index = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, new StringBuilder("range-").append(sTableName).append("-").append(index.getAndIncrement()).toString());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final CountDownLatch latch = new CountDownLatch(ranges.size());
+        final AtomicBoolean failed = new AtomicBoolean();
+        for (Object[] range : ranges) {
+            executor.execute(() -> {
+                try {
+                    Picker picker = new Picker(group.getFieldMapping());
+                    while (task.isRunning() && !Thread.currentThread().isInterrupted() && !isFinished(range)) {
+                        // 1、获取区间数据
+                        Object[] args = new Object[] {range[0], range[1]};
+                        Result reader = connectorFactory.reader(sConnectionMapper, new ReaderConfig(group.getCommand(), new ArrayList<>(), 1, pageSize).setRange(args));
+                        List<Map> data = reader.getData();
+                        Object last = CollectionUtils.isEmpty(data) ? null : data.get(data.size() - 1).get(pk);
+
+                        // 2、写入目标源
+                        if (!CollectionUtils.isEmpty(data)) {
+                            write(task, mapping, group, picker, tConnectionMapper, data);
+                        }
+
+                        // 3、更新区间进度(读完或最后一页时标记完成)
+                        updateRange(params, tableGroupId, ranges, range, null == last || data.size() < pageSize ? range[1] : last);
+                    }
+                } catch (Exception e) {
+                    failed.set(true);
+                    logger.error("区间[{}, {}]同步异常", range[0], range[1], e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            // 中断时停止区间线程, 未完成的区间保留进度, 不标记表已完成
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            logger.warn("区间同步被中断:{}, [{}] >> [{}]", metaId, sTableName, tTableName);
+            return;
+        } finally {
+            executor.shutdown();
+        }
+
+        if (!task.isRunning()) {
+            logger.warn("任务被中止:{}", metaId);
+            return;
+        }
+        if (failed.get()) {
+            throw new ParserException(String.format("数据源表[%s]同步到目标源表[%s]失败, 可重新启动继续同步未完成区间.", sTableName, tTableName));
+        }
+        finish(params, tableGroupId);
+        logger.info("完成全量同步任务:{}, [{}] >> [{}]", metaId, sTableName, tTableName);
+    }
+
+    /**
+     * 流式读取(一次查询逐行读取), 每满一页写入目标源
+     * <p>无主键时查询没有确定的顺序, 跳过已同步的行不能准确续读, 中断后从头重新同步
+     *
+     * @param task
+     * @param mapping
+     * @param tableGroupId
+     * @param group
+     * @param picker
+     * @param sConnectionMapper
+     * @param tConnectionMapper
+     */
+    private void executeStream(Task task, Mapping mapping, String tableGroupId, TableGroup group, Picker picker, ConnectorMapper sConnectionMapper,
+                               ConnectorMapper tConnectionMapper) {
+        final String metaId = task.getId();
+        final Map<String, String> params = getMeta(metaId).getMap();
+        final int pageSize = mapping.getReadNum();
+        if (1 < Integer.parseInt(getParam(params, tableGroupId, ParserEnum.PAGE_INDEX))) {
+            logger.warn("无主键的表不支持续读, 重新同步:{}, [{}] >> [{}]", metaId, group.getSourceTable().getName(), group.getTargetTable().getName());
+        }
+
+        final AtomicInteger pageIndex = new AtomicInteger(1);
+        final AtomicReference<List<Map>> data = new AtomicReference<>(new ArrayList<>(pageSize));
+        Pipeline pipeline = createPipeline(task, mapping, tableGroupId, group, picker, tConnectionMapper, false);
+        RuntimeException cause = null;
+        try {
+            connectorFactory.reader(sConnectionMapper, new ReaderConfig(group.getCommand(), new ArrayList<>(), 1, pageSize), row -> {
+                if (!task.isRunning() || pipeline.isFailed()) {
+                    return false;
+                }
+                data.get().add(row);
+                if (data.get().size() >= pageSize) {
+                    pipeline.put(new Page(pageIndex.getAndIncrement(), null, data.getAndSet(new ArrayList<>(pageSize))));
+                }
+                return true;
+            });
+            if (task.isRunning() && !CollectionUtils.isEmpty(data.get())) {
+                pipeline.put(new Page(pageIndex.get(), null, data.get()));
+            }
+        } catch (RuntimeException e) {
+            cause = e;
+            throw e;
+        } finally {
+            closePipeline(pipeline, cause);
+        }
+
+        if (!task.isRunning()) {
+            logger.warn("任务被中止:{}", metaId);
+            return;
+        }
+        finish(params, tableGroupId);
+        logger.info("完成全量同步任务:{}, [{}] >> [{}]", metaId, group.getSourceTable().getName(), group.getTargetTable().getName());
+    }
+
+    /**
+     * 创建全量同步管道, 写入后更新分页数和游标
+     *
+     * @param task
+     * @param mapping
+     * @param tableGroupId
+     * @param group
+     * @param picker
+     * @param tConnectionMapper
+     * @param resumable         是否记录续读进度
+     * @return
+     */
+    private Pipeline createPipeline(Task task, Mapping mapping, String tableGroupId, TableGroup group, Picker picker, ConnectorMapper tConnectionMapper,
+                                    boolean resumable) {
+        final Map<String, String> params = getMeta(task.getId()).getMap();
+        final List<Field> primaryKeys = getPrimaryKeyFields(group.getSourceTable());
+        final String name = new StringBuilder(group.getSourceTable().getName()).append("-").append(group.getTargetTable().getName()).toString();
+        Pipeline pipeline = new Pipeline(name, mapping.getPipelineQueueSize(), page -> page.setTarget(transform(group, picker, page.getData())), page -> {
+            Result writer = writeBatch(tConnectionMapper, mapping, group.getCommand(), picker.getTargetFields(), page.getTarget());
+            flush(task, writer, page.getTarget());
+            if (!resumable) {
+                return;
+            }
+
+            putParam(params, tableGroupId, ParserEnum.PAGE_INDEX, String.valueOf(page.getPageIndex() + 1));
+            // 按主键类型保存游标, 主键值为空时清除游标, 续读时按页数读取
+            if (!CollectionUtils.isEmpty(primaryKeys)) {
+                String cursor = CursorUtil.encode(primaryKeys, page.getCursors());
+                putParam(params, tableGroupId, ParserEnum.CURSOR, null != cursor ? cursor : ParserEnum.CURSOR.getDefaultValue());
+            }
+        });
+        pipelines.add(pipeline);
+        pipeline.start();
+        return pipeline;
+    }
+
+    /**
+     * 关闭管道, 读取异常时不被管道异常覆盖
+     *
+     * @param pipeline
+     * @param cause    读取异常
+     */
+    private void closePipeline(Pipeline pipeline, Throwable cause) {
+        try {
+            pipeline.close(cause);
+        } finally {
+            pipelines.remove(pipeline);
+        }
+    }
+
+    /**
+     * 映射字段、参数转换、插件转换
+     *
+     * @param group
+     * @param picker
+     * @param data
+     * @return
+     */
+    private List<Map> transform(TableGroup group, Picker picker, List<Map> data) {
+        // 1、映射字段
+        List<Map> target = picker.pickData(data);
+
+        // 2、参数转换
+        ConvertUtil.convert(group.getConvert(), target);
+
+        // 3、插件转换
+        pluginFactory.convert(group.getPlugin(), data, target);
+        return target;
+    }
+
+    /**
+     * 映射字段、参数转换、插件转换、写入目标源、更新结果
+     *
+     * @param task
+     * @param mapping
+     * @param group
+     * @param picker
+     * @param tConnectionMapper
+     * @param data
+     */
+    private void write(Task task, Mapping mapping, TableGroup group, Picker picker, ConnectorMapper tConnectionMapper, List<Map> data) {
+        // 1、映射字段、参数转换、插件转换
+        List<Map> target = transform(group, picker, data);
+
+        // 2、写入目标源
+        Result writer = writeBatch(tConnectionMapper, mapping, group.getCommand(), picker.getTargetFields(), target);
+
+        // 3、更新结果
+        flush(task, writer, target);
+    }
+
     /**
      * 更新缓存
      *
@@ -359,6 +743,204 @@ public class ParserFactory implements Parser {
         flushService.asyncWrite(metaId, event, success, data, error);
     }
 
+    /**
+     * 按主键去重, 保留最后一次变更
+     *
+     * @param fields
+     * @param data
+     * @return
+     */
+    private List<Map> distinct(List<Field> fields, List<Map> data) {
+        List<String> pks = fields.stream().filter(f -> null != f && f.isPk()).map(Field::getName).collect(Collectors.toList());
+        if (CollectionUtils.isEmpty(pks)) {
+            return data;
+        }
+        Map<List<Object>, Map> rows = new LinkedHashMap<>();
+        data.forEach(row -> {
+            List<Object> key = new ArrayList<>(pks.size());
+            pks.forEach(pk -> key.add(row.get(pk)));
+            rows.remove(key);
+            rows.put(key, row);
+        });
+        return rows.size() == data.size() ? data : new ArrayList<>(rows.values());
+    }
+
+    /**
+     * 获取数据源表主键
+     *
+     * @param table
+     * @return
+     */
+    private List<String> getPrimaryKeys(Table table) {
+        return getPrimaryKeyFields(table).stream().map(Field::getName).collect(Collectors.toList());
+    }
+
+    private List<Field> getPrimaryKeyFields(Table table) {
+        List<Field> primaryKeys = new ArrayList<>();
+        if (!CollectionUtils.isEmpty(table.getColumn())) {
+            table.getColumn().forEach(f -> {
+                if (f.isPk()) {
+                    primaryKeys.add(f);
+                }
+            });
+        }
+        return primaryKeys;
+    }
+
+    /**
+     * 获取主键区间(左开右闭), 中断后只返回未完成的区间
+     *
+     * @param params
+     * @param tableGroupId
+     * @param connectorMapper
+     * @param command
+     * @param table
+     * @param splitNum
+     * @return
+     */
+    private List<Object[]> getRanges(Map<String, String> params, String tableGroupId, ConnectorMapper connectorMapper, Map<String, String> command, Table table,
+                                     int splitNum) {
+        // 仅支持单个数值类型主键
+        if (StringUtil.isBlank(command.get(ConnectorConstant.OPERTION_QUERY_RANGE)) || !isNumberPrimaryKey(table)) {
+            return null;
+        }
+
+        // 续读未完成的区间
+        List<Object[]> ranges = new ArrayList<>();
+        String range = getParam(params, tableGroupId, ParserEnum.RANGE);
+        if (StringUtil.isNotBlank(range)) {
+            List<List> list = JsonUtil.jsonToArray(range, List.class);
+            list.forEach(r -> ranges.add(new Object[] {new BigDecimal(String.valueOf(r.get(0))), new BigDecimal(String.valueOf(r.get(1)))}));
+            ranges.removeIf(r -> isFinished(r));
+            return ranges;
+        }
+
+        // 按[MIN, MAX]均分区间, 例如[1, 100]拆分2个区间: (0, 50], (50, 100]
+        Object[] boundary = connectorFactory.getRangeBoundary(connectorMapper, command);
+        if (null == boundary || null == boundary[0] || null == boundary[1]) {
+            return null;
+        }
+        BigDecimal min = new BigDecimal(String.valueOf(boundary[0])).setScale(0, RoundingMode.FLOOR).subtract(BigDecimal.ONE);
+        BigDecimal max = new BigDecimal(String.valueOf(boundary[1])).setScale(0, RoundingMode.CEILING);
+        BigDecimal step = max.subtract(min).divide(BigDecimal.valueOf(splitNum), 0, RoundingMode.CEILING).max(BigDecimal.ONE);
+        BigDecimal start = min;
+        while (start.compareTo(max) < 0) {
+            BigDecimal end = start.add(step).min(max);
+            ranges.add(new Object[] {start, end});
+            start = end;
+        }
+        updateRange(params, tableGroupId, ranges, null, null);
+        return ranges;
+    }
+
+    /**
+     * 更新区间进度
+     *
+     * @param params
+     * @param tableGroupId
+     * @param ranges
+     * @param range
+     * @param cursor 区间内最后一行的主键值
+     */
+    private void updateRange(Map<String, String> params, String tableGroupId, List<Object[]> ranges, Object[] range, Object cursor) {
+        synchronized (ranges) {
+            if (null != range) {
+                range[0] = cursor;
+            }
+            List<String[]> list = new ArrayList<>(ranges.size());
+            ranges.forEach(r -> list.add(new String[] {String.valueOf(r[0]), String.valueOf(r[1])}));
+            putParam(params, tableGroupId, ParserEnum.RANGE, JsonUtil.objToJson(list));
+        }
+    }
+
+    /**
+     * 获取表同步参数(多表并行同步, 参数按映射关系隔离)
+     *
+     * @param params
+     * @param tableGroupId
+     * @param parserEnum
+     * @return
+     */
+    private String getParam(Map<String, String> params, String tableGroupId, ParserEnum parserEnum) {
+        String value;
+        synchronized (params) {
+            value = params.get(parserEnum.getKey(tableGroupId));
+        }
+        return null != value ? value : parserEnum.getDefaultValue();
+    }
+
+    private void putParam(Map<String, String> params, String tableGroupId, ParserEnum parserEnum, String value) {
+        synchronized (params) {
+            params.put(parserEnum.getKey(tableGroupId), value);
+        }
+    }
+
+    /**
+     * 标记表已完成, 清除续读参数
+     *
+     * @param params
+     * @param tableGroupId
+     */
+    private void finish(Map<String, String> params, String tableGroupId) {
+        synchronized (params) {
+            params.remove(ParserEnum.PAGE_INDEX.getKey(tableGroupId));
+            params.remove(ParserEnum.CURSOR.getKey(tableGroupId));
+            params.remove(ParserEnum.RANGE.getKey(tableGroupId));
+            params.put(ParserEnum.FINISHED.getKey(tableGroupId), Boolean.TRUE.toString());
+        }
+    }
+
+    private boolean isFinished(Object[] range) {
+        return new BigDecimal(String.valueOf(range[0])).compareTo(new BigDecimal(String.valueOf(range[1]))) >= 0;
+    }
+
+    private boolean isNumberPrimaryKey(Table table) {
+        List<Field> pks = new ArrayList<>();
+        if (!CollectionUtils.isEmpty(table.getColumn())) {
+            table.getColumn().forEach(f -> {
+                if (f.isPk()) {
+                    pks.add(f);
+                }
+            });
+        }
+        if (1 != pks.size()) {
+            return false;
+        }
+        switch (pks.get(0).getType()) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 获取最后一行数据的主键值
+     *
+     * @param data
+     * @param primaryKeys
+     * @return
+     */
+    private Object[] getLastCursors(List<Map> data, List<String> primaryKeys) {
+        if (CollectionUtils.isEmpty(primaryKeys)) {
+            return null;
+        }
+        Map row = data.get(data.size() - 1);
+        Object[] cursors = new Object[primaryKeys.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = row.get(primaryKeys.get(i));
+            if (null == cursors[i]) {
+                return null;
+            }
+        }
+        return cursors;
+    }
+
     /**
      * 获取Meta(注: 没有bean拷贝, 便于直接更新缓存)
      *
@@ -402,18 +984,20 @@ public class ParserFactory implements Parser {
      * 批量写入
      *
      * @param connectorMapper
+     * @param mapping
      * @param command
      * @param fields
      * @param target
-     * @param batchSize
      * @return
      */
-    private Result writeBatch(ConnectorMapper connectorMapper, Map<String, String> command, List<Field> fields, List<Map> target, int batchSize) {
+    private Result writeBatch(ConnectorMapper connectorMapper, Mapping mapping, Map<String, String> command, List<Field> fields, List<Map> target) {
+        final int batchSize = mapping.getBatchNum();
+        final boolean bulkLoad = mapping.isBulkLoad();
         // 总数
         int total = target.size();
         // 单次任务
         if (total <= batchSize) {
-            return connectorFactory.writer(connectorMapper, new WriterBatchConfig(command, fields, target));
+            return connectorFactory.writer(connectorMapper, new WriterBatchConfig(command, fields, target).setBulkLoad(bulkLoad));
         }
 
         // 批量任务, 拆分
@@ -427,7 +1011,7 @@ public class ParserFactory implements Parser {
         for (int i = 0; i < taskSize; i++) {
             taskExecutor.execute(() -> {
                 try {
-                    Result w = parallelTask(batchSize, queue, connectorMapper, command, fields);
+                    Result w = parallelTask(batchSize, queue, connectorMapper, command, fields, bulkLoad);
                     // CAS
                     result.getFailData().addAll(w.getFailData());
                     result.getFail().getAndAdd(w.getFail().get());
@@ -448,7 +1032,7 @@ public class ParserFactory implements Parser {
     }
 
     private Result parallelTask(int batchSize, Queue<Map> queue, ConnectorMapper connectorMapper, Map<String, String> command,
-                                List<Field> fields) {
+                                List<Field> fields, boolean bulkLoad) {
         List<Map> data = new ArrayList<>();
         for (int j = 0; j < batchSize; j++) {
             Map poll = queue.poll();
@@ -457,7 +1041,7 @@ public class ParserFactory implements Parser {
             }
             data.add(poll);
         }
-        return connectorFactory.writer(connectorMapper, new WriterBatchConfig(command, fields, data));
+        return connectorFactory.writer(connectorMapper, new WriterBatchConfig(command, fields, data).setBulkLoad(bulkLoad));
     }
 
 }
\ No newline at end of file
@@ -12,7 +12,19 @@ public enum ParserEnum {
     /**
      * 页数
      */
-    PAGE_INDEX("pageIndex", "1");
+    PAGE_INDEX("pageIndex", "1"),
+    /**
+     * 游标(上一页最后一行的主键值)
+     */
+    CURSOR("cursor", ""),
+    /**
+     * 主键区间(按区间拆分并行读取)
+     */
+    RANGE("range", ""),
+    /**
+     * 表已完成同步
+     */
+    FINISHED("finished", "false");
 
     /**
      * 编码
@@ -28,6 +40,16 @@ public enum ParserEnum {
         this.defaultValue = defaultValue;
     }
 
+    /**
+     * 获取表同步参数key, 例如 tableGroupId_pageIndex
+     *
+     * @param tableGroupId
+     * @return
+     */
+    public String getKey(String tableGroupId) {
+        return tableGroupId + "_" + code;
+    }
+
     public String getCode() {
         return code;
     }
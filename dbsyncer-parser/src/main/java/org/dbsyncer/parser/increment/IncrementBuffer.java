@@ -0,0 +1,368 @@
+package org.dbsyncer.parser.increment;
+
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.connector.config.Field;
+import org.dbsyncer.connector.constant.ConnectorConstant;
+import org.dbsyncer.parser.model.TableGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 增量批量缓冲: 按表关系缓存连续的相同操作, 达到条数或等待时间后批量处理
+ * <pre>
+ *     INSERT 1, INSERT 2, UPDATE 1, UPDATE 3, DELETE 2 => [INSERT 1, 2], [UPDATE 1, 3], [DELETE 2]
+ * </pre>
+ * 操作变化时先处理已缓存的数据, 同一表关系按顺序处理, 保证同一主键的变更顺序
+ * <p>按主键哈希拆分为多个分区, 不同分区可由多个线程并行处理, 同一主键始终进入同一分区
+ * <p>修改主键的变更不放入缓冲: 先处理该表关系所有分区已缓存的数据, 再单独处理该变更
+ * <p>开启合并时, 等待时间内同一主键的变更合并为一条:
+ * <pre>
+ *     INSERT + UPDATE => INSERT(最新数据)
+ *     INSERT + DELETE => 抵消
+ *     UPDATE + UPDATE => UPDATE(最新数据)
+ *     UPDATE + DELETE => DELETE
+ *     DELETE + INSERT => UPDATE(最新数据)
+ * </pre>
+ * 合并后按DELETE, INSERT, UPDATE分批处理, 不同主键之间没有先后依赖; 修改主键的变更不合并
+ * <p>处理异常向调用方抛出; 定时处理失败时记录异常, 之后放入或处理数据都抛出该异常, 避免持久化未处理成功的增量点
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/04 20:05
+ */
+public final class IncrementBuffer {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 默认最长等待时间(毫秒)
+     */
+    public static final long DEFAULT_MAX_WAIT = 50;
+
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+
+    private final Map<String, List<String>> primaryKeys = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final IncrementBufferHandler handler;
+
+    private final int batchSize;
+
+    private final long maxWait;
+
+    private final int partitions;
+
+    private final boolean coalesce;
+
+    /**
+     * 定时处理的异常
+     */
+    private volatile RuntimeException failure;
+
+    public IncrementBuffer(String name, IncrementBufferHandler handler, int batchSize, long maxWait) {
+        this(name, handler, batchSize, maxWait, 1, false);
+    }
+
+    public IncrementBuffer(String name, IncrementBufferHandler handler, int batchSize, long maxWait, int partitions) {
+        this(name, handler, batchSize, maxWait, partitions, false);
+    }
+
+    /**
+     * @param name       名称(定时线程名)
+     * @param handler    批量处理器
+     * @param batchSize  批量条数
+     * @param maxWait    最长等待时间(毫秒), 开启合并时为合并窗口
+     * @param partitions 分区数
+     * @param coalesce   是否合并同一主键的变更
+     */
+    public IncrementBuffer(String name, IncrementBufferHandler handler, int batchSize, long maxWait, int partitions, boolean coalesce) {
+        this.handler = handler;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxWait = Math.max(1, maxWait);
+        this.partitions = Math.max(1, partitions);
+        this.coalesce = coalesce;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, new StringBuilder("increment-buffer-").append(name).toString());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushExpired, this.maxWait, this.maxWait, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 放入变更数据, 达到批量条数时在调用线程处理
+     *
+     * @param tableGroup
+     * @param event
+     */
+    public void offer(TableGroup tableGroup, RowChangedEvent event) {
+        checkFailure();
+        if (isKeyChanged(tableGroup, event)) {
+            // 旧主键的变更可能缓存在其他分区
+            for (int i = 0; i < partitions; i++) {
+                Buffer buffer = buffers.get(getBufferKey(tableGroup, i));
+                if (null != buffer) {
+                    buffer.flush();
+                }
+            }
+            handler.handle(tableGroup, Collections.singletonList(event));
+            return;
+        }
+        String key = getBufferKey(tableGroup, partitions > 1 ? partition(tableGroup, event) : 0);
+        buffers.computeIfAbsent(key, k -> coalesce && !getPrimaryKeys(tableGroup).isEmpty() ? new CoalesceBuffer(tableGroup) : new Buffer(tableGroup)).offer(event);
+    }
+
+    /**
+     * 处理所有已缓存的数据(持久化增量点之前调用)
+     */
+    public void flush() {
+        checkFailure();
+        buffers.values().forEach(Buffer::flush);
+    }
+
+    /**
+     * 处理已缓存的数据并停止定时任务, 已处理失败时丢弃缓存的数据(由未提交的增量点重新抽取)
+     */
+    public void close() {
+        scheduler.shutdownNow();
+        if (null != failure) {
+            return;
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("增量批量处理异常", e);
+        }
+    }
+
+    private void checkFailure() {
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    private String getBufferKey(TableGroup tableGroup, int partition) {
+        return partitions > 1 ? new StringBuilder(tableGroup.getId()).append("_").append(partition).toString() : tableGroup.getId();
+    }
+
+    private boolean isKeyChanged(TableGroup tableGroup, RowChangedEvent event) {
+        if (!StringUtil.equals(ConnectorConstant.OPERTION_UPDATE, event.getEvent())) {
+            return false;
+        }
+        List<String> pks = getPrimaryKeys(tableGroup);
+        Object[] before = getKey(pks, event.getBefore());
+        Object[] after = getKey(pks, event.getAfter());
+        return null != before && null != after && !Arrays.deepEquals(before, after);
+    }
+
+    private int partition(TableGroup tableGroup, RowChangedEvent event) {
+        List<String> pks = getPrimaryKeys(tableGroup);
+        Map<String, Object> data = StringUtil.equals(ConnectorConstant.OPERTION_DELETE, event.getEvent()) ? event.getBefore() : event.getAfter();
+        Object[] key = getKey(pks, data);
+        if (null == key) {
+            return 0;
+        }
+        return (Arrays.deepHashCode(key) & Integer.MAX_VALUE) % partitions;
+    }
+
+    private List<String> getPrimaryKeys(TableGroup tableGroup) {
+        return primaryKeys.computeIfAbsent(tableGroup.getId(), k -> {
+            List<Field> column = tableGroup.getSourceTable().getColumn();
+            return CollectionUtils.isEmpty(column) ? Collections.emptyList() : column.stream().filter(f -> f.isPk()).map(f -> f.getName()).collect(Collectors.toList());
+        });
+    }
+
+    private Object[] getKey(List<String> pks, Map<String, Object> data) {
+        if (CollectionUtils.isEmpty(pks) || CollectionUtils.isEmpty(data)) {
+            return null;
+        }
+        Object[] key = new Object[pks.size()];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = data.get(pks.get(i));
+        }
+        return key;
+    }
+
+    private void flushExpired() {
+        if (null != failure) {
+            return;
+        }
+        final long now = Instant.now().toEpochMilli();
+        for (Buffer buffer : buffers.values()) {
+            if (!buffer.isExpired(now)) {
+                continue;
+            }
+            try {
+                buffer.flush();
+            } catch (RuntimeException e) {
+                failure = e;
+                logger.error("增量批量处理异常:{}", buffer.tableGroup.getSourceTable().getName(), e);
+                return;
+            }
+        }
+    }
+
+    class Buffer {
+        protected final TableGroup tableGroup;
+        private List<RowChangedEvent> events = new ArrayList<>();
+        private String event;
+        protected volatile long firstTime;
+
+        Buffer(TableGroup tableGroup) {
+            this.tableGroup = tableGroup;
+        }
+
+        synchronized void offer(RowChangedEvent rowChangedEvent) {
+            if (!events.isEmpty() && !StringUtil.equals(event, rowChangedEvent.getEvent())) {
+                flush();
+            }
+            if (events.isEmpty()) {
+                event = rowChangedEvent.getEvent();
+                firstTime = Instant.now().toEpochMilli();
+            }
+            events.add(rowChangedEvent);
+            if (events.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            if (events.isEmpty()) {
+                return;
+            }
+            List<RowChangedEvent> list = events;
+            events = new ArrayList<>();
+            handle(list);
+        }
+
+        boolean isExpired(long now) {
+            return !events.isEmpty() && now - firstTime >= maxWait;
+        }
+
+        protected void handle(List<RowChangedEvent> list) {
+            handler.handle(tableGroup, list);
+        }
+    }
+
+    final class CoalesceBuffer extends Buffer {
+        private final List<String> pks;
+        private Map<List<Object>, RowChangedEvent> changes = new LinkedHashMap<>();
+        private int received;
+
+        CoalesceBuffer(TableGroup tableGroup) {
+            super(tableGroup);
+            this.pks = getPrimaryKeys(tableGroup);
+        }
+
+        @Override
+        synchronized void offer(RowChangedEvent rowChangedEvent) {
+            List<Object> key = coalesceKey(rowChangedEvent);
+            if (null == key) {
+                // 缺少主键, 先处理已合并的数据, 保证顺序
+                flush();
+                handle(Collections.singletonList(rowChangedEvent));
+                return;
+            }
+            if (changes.isEmpty()) {
+                firstTime = Instant.now().toEpochMilli();
+            }
+            received++;
+            RowChangedEvent merged = merge(changes.remove(key), rowChangedEvent);
+            if (null != merged) {
+                changes.put(key, merged);
+            }
+            if (changes.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        @Override
+        synchronized void flush() {
+            if (changes.isEmpty()) {
+                if (received > 0) {
+                    handler.coalesced(tableGroup, received);
+                    received = 0;
+                }
+                return;
+            }
+            Collection<RowChangedEvent> values = changes.values();
+            final int merged = received - values.size();
+            changes = new LinkedHashMap<>();
+            received = 0;
+
+            Map<String, List<RowChangedEvent>> group = new LinkedHashMap<>();
+            group.put(ConnectorConstant.OPERTION_DELETE, new ArrayList<>());
+            group.put(ConnectorConstant.OPERTION_INSERT, new ArrayList<>());
+            group.put(ConnectorConstant.OPERTION_UPDATE, new ArrayList<>());
+            values.forEach(e -> group.computeIfAbsent(e.getEvent(), k -> new ArrayList<>()).add(e));
+            group.values().forEach(list -> {
+                if (!list.isEmpty()) {
+                    handle(list);
+                }
+            });
+            if (merged > 0) {
+                handler.coalesced(tableGroup, merged);
+            }
+        }
+
+        @Override
+        boolean isExpired(long now) {
+            return (!changes.isEmpty() || received > 0) && now - firstTime >= maxWait;
+        }
+
+        private List<Object> coalesceKey(RowChangedEvent event) {
+            boolean delete = StringUtil.equals(ConnectorConstant.OPERTION_DELETE, event.getEvent());
+            Object[] key = getKey(pks, delete ? event.getBefore() : event.getAfter());
+            return null != key ? Arrays.asList(key) : null;
+        }
+
+        private RowChangedEvent merge(RowChangedEvent prev, RowChangedEvent next) {
+            if (null == prev) {
+                return next;
+            }
+            final String p = prev.getEvent();
+            final String n = next.getEvent();
+            final boolean forceUpdate = prev.isForceUpdate() || next.isForceUpdate();
+            if (StringUtil.equals(ConnectorConstant.OPERTION_INSERT, p)) {
+                if (StringUtil.equals(ConnectorConstant.OPERTION_UPDATE, n)) {
+                    return create(prev, ConnectorConstant.OPERTION_INSERT, prev.getBefore(), next.getAfter(), forceUpdate);
+                }
+                if (StringUtil.equals(ConnectorConstant.OPERTION_DELETE, n)) {
+                    return null;
+                }
+            }
+            if (StringUtil.equals(ConnectorConstant.OPERTION_UPDATE, p) && StringUtil.equals(ConnectorConstant.OPERTION_UPDATE, n)) {
+                return create(prev, ConnectorConstant.OPERTION_UPDATE, prev.getBefore(), next.getAfter(), forceUpdate);
+            }
+            if (StringUtil.equals(ConnectorConstant.OPERTION_DELETE, p) && StringUtil.equals(ConnectorConstant.OPERTION_INSERT, n)) {
+                return create(prev, ConnectorConstant.OPERTION_UPDATE, prev.getBefore(), next.getAfter(), forceUpdate);
+            }
+            // UPDATE + DELETE 等其他情况保留最后一次变更
+            return forceUpdate == next.isForceUpdate() ? next : create(next, n, next.getBefore(), next.getAfter(), forceUpdate);
+        }
+
+        private RowChangedEvent create(RowChangedEvent origin, String event, Map<String, Object> before, Map<String, Object> after, boolean forceUpdate) {
+            RowChangedEvent e = new RowChangedEvent(origin.getTableGroupIndex(), event, before, after, forceUpdate);
+            e.setTableName(origin.getTableName());
+            return e;
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.dbsyncer.parser.increment;
+
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.parser.model.TableGroup;
+
+import java.util.List;
+
+/**
+ * 增量批量处理器, 同一批数据属于同一表关系且操作相同
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/04 20:12
+ */
+public interface IncrementBufferHandler {
+
+    void handle(TableGroup tableGroup, List<RowChangedEvent> events);
+
+    /**
+     * 合并掉的变更数
+     *
+     * @param tableGroup
+     * @param count
+     */
+    default void coalesced(TableGroup tableGroup, int count) {
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.dbsyncer.parser.increment;
+
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.parser.model.TableGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 源库事务: 按顺序缓存变更, 相邻的同一表关系且操作相同的变更合并为一批
+ * <pre>
+ *     A.INSERT 1, A.INSERT 2, B.UPDATE 1, A.DELETE 2 => [A.INSERT 1, 2], [B.UPDATE 1], [A.DELETE 2]
+ * </pre>
+ * 所有批次在目标源同一事务中按顺序写入
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/16 21:20
+ */
+public final class IncrementTransaction {
+
+    private final List<Batch> batches = new ArrayList<>();
+
+    private int size;
+
+    public void add(TableGroup tableGroup, RowChangedEvent event) {
+        Batch last = batches.isEmpty() ? null : batches.get(batches.size() - 1);
+        if (null == last || !StringUtil.equals(last.tableGroup.getId(), tableGroup.getId()) || !StringUtil.equals(last.event, event.getEvent())) {
+            last = new Batch(tableGroup, event.getEvent());
+            batches.add(last);
+        }
+        last.events.add(event);
+        size++;
+    }
+
+    public List<Batch> getBatches() {
+        return batches;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    public static final class Batch {
+        private final TableGroup tableGroup;
+        private final String event;
+        private final List<RowChangedEvent> events = new ArrayList<>();
+
+        Batch(TableGroup tableGroup, String event) {
+            this.tableGroup = tableGroup;
+            this.event = event;
+        }
+
+        public TableGroup getTableGroup() {
+            return tableGroup;
+        }
+
+        public String getEvent() {
+            return event;
+        }
+
+        public List<RowChangedEvent> getEvents() {
+            return events;
+        }
+    }
+
+}
@@ -46,6 +46,33 @@ public class Mapping extends AbstractConfigModel {
     // 单次写入
     private int batchNum = 200;
 
+    // 单表拆分线程数(按主键区间并行读取)
+    private int splitNum = 1;
+
+    // 并行同步表数
+    private int threadNum = 1;
+
+    // 全量管道阶段之间最多缓存的页数
+    private int pipelineQueueSize = 2;
+
+    // 原生批量导入(失败时转为批量写入)
+    private boolean bulkLoad;
+
+    // 增量并行通道数(按表名+主键分配, 同一主键按序处理)
+    private int laneNum = 4;
+
+    // 增量通道队列大小
+    private int laneQueueSize = 1000;
+
+    // 增量事件先写入本地缓存, 重启后重放未处理的事件
+    private boolean spool;
+
+    // 增量合并窗口(毫秒), 窗口内同一主键的变更合并后写入, 0表示不合并
+    private int coalesceWindow;
+
+    // 按源库事务分组写入(日志模式), 超过该行数时分块提交, 0表示不分组
+    private int transactionSize;
+
     public String getSourceConnectorId() {
         return sourceConnectorId;
     }
@@ -123,4 +150,85 @@ public class Mapping extends AbstractConfigModel {
         return this;
     }
 
+    public int getSplitNum() {
+        return splitNum;
+    }
+
+    public Mapping setSplitNum(int splitNum) {
+        this.splitNum = splitNum;
+        return this;
+    }
+
+    public int getThreadNum() {
+        return threadNum;
+    }
+
+    public Mapping setThreadNum(int threadNum) {
+        this.threadNum = threadNum;
+        return this;
+    }
+
+    public int getPipelineQueueSize() {
+        return pipelineQueueSize;
+    }
+
+    public Mapping setPipelineQueueSize(int pipelineQueueSize) {
+        this.pipelineQueueSize = pipelineQueueSize;
+        return this;
+    }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public Mapping setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+        return this;
+    }
+
+    public int getLaneNum() {
+        return laneNum;
+    }
+
+    public Mapping setLaneNum(int laneNum) {
+        this.laneNum = laneNum;
+        return this;
+    }
+
+    public int getLaneQueueSize() {
+        return laneQueueSize;
+    }
+
+    public Mapping setLaneQueueSize(int laneQueueSize) {
+        this.laneQueueSize = laneQueueSize;
+        return this;
+    }
+
+    public boolean isSpool() {
+        return spool;
+    }
+
+    public Mapping setSpool(boolean spool) {
+        this.spool = spool;
+        return this;
+    }
+
+    public int getCoalesceWindow() {
+        return coalesceWindow;
+    }
+
+    public Mapping setCoalesceWindow(int coalesceWindow) {
+        this.coalesceWindow = coalesceWindow;
+        return this;
+    }
+
+    public int getTransactionSize() {
+        return transactionSize;
+    }
+
+    public Mapping setTransactionSize(int transactionSize) {
+        this.transactionSize = transactionSize;
+        return this;
+    }
+
 }
\ No newline at end of file
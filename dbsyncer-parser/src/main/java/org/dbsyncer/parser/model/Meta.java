@@ -9,7 +9,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * <p>驱动同步元信息</p>
  * <pre>
- *     全量同步: 存放分页数
+ *     全量同步: 按映射关系存放分页数/游标(上一页最后一行的主键值)/主键区间/是否完成
  *     增量同步:定时>时间戳; 日志>binlogFileName/binlogPosition/主从节点信息等
  * </pre>
  *
@@ -0,0 +1,65 @@
+package org.dbsyncer.parser.pipeline;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 管道中传递的一页数据
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/11/29 21:12
+ */
+public final class Page {
+
+    /**
+     * 结束标记
+     */
+    static final Page END = new Page(0, null, null);
+
+    /**
+     * 页数
+     */
+    private final int pageIndex;
+
+    /**
+     * 最后一行的主键值
+     */
+    private final Object[] cursors;
+
+    /**
+     * 数据源数据
+     */
+    private final List<Map> data;
+
+    /**
+     * 转换后的目标源数据
+     */
+    private List<Map> target;
+
+    public Page(int pageIndex, Object[] cursors, List<Map> data) {
+        this.pageIndex = pageIndex;
+        this.cursors = cursors;
+        this.data = data;
+    }
+
+    public int getPageIndex() {
+        return pageIndex;
+    }
+
+    public Object[] getCursors() {
+        return cursors;
+    }
+
+    public List<Map> getData() {
+        return data;
+    }
+
+    public List<Map> getTarget() {
+        return target;
+    }
+
+    public void setTarget(List<Map> target) {
+        this.target = target;
+    }
+}
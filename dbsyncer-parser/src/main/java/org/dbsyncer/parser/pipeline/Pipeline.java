@@ -0,0 +1,157 @@
+package org.dbsyncer.parser.pipeline;
+
+import org.dbsyncer.parser.ParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 全量同步管道: 读取 -> 转换 -> 写入
+ * <pre>
+ *     读取: 调用线程按页读取数据源, 放入转换队列
+ *     转换: 独立线程映射字段/参数转换/插件转换, 放入写入队列
+ *     写入: 独立线程批量写入目标源(批量内部由taskExecutor并行)并更新进度
+ * </pre>
+ * 队列有界, 下游处理不过来时阻塞上游(背压), 数据源和目标源IO互相重叠
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/11/29 21:08
+ */
+public final class Pipeline {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final BlockingQueue<Page> transformQueue;
+
+    private final BlockingQueue<Page> writeQueue;
+
+    private final ExecutorService executor;
+
+    private final CountDownLatch latch = new CountDownLatch(2);
+
+    private final PipelineHandler transformer;
+
+    private final PipelineHandler writer;
+
+    private volatile Exception error;
+
+    /**
+     * @param name        线程名称
+     * @param capacity    阶段之间最多缓存的页数
+     * @param transformer 转换
+     * @param writer      写入
+     */
+    public Pipeline(String name, int capacity, PipelineHandler transformer, PipelineHandler writer) {
+        this.transformQueue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.writeQueue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.transformer = transformer;
+        this.writer = writer;
+        final AtomicInteger index = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, new StringBuilder("pipeline-").append(name).append("-").append(index.getAndIncrement()).toString());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        // 转换
+        executor.execute(() -> run(transformQueue, transformer, writeQueue));
+        // 写入
+        executor.execute(() -> run(writeQueue, writer, null));
+    }
+
+    /**
+     * 放入一页数据, 转换队列已满时阻塞
+     *
+     * @param page
+     */
+    public void put(Page page) {
+        try {
+            transformQueue.put(page);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserException(e.getMessage());
+        }
+    }
+
+    public boolean isFailed() {
+        return null != error;
+    }
+
+    /**
+     * 等待队列中的数据处理完成
+     */
+    public void close() {
+        close(null);
+    }
+
+    /**
+     * 等待队列中的数据处理完成, 读取异常时作为抑制异常附加到管道异常上, 不覆盖读取异常
+     *
+     * @param cause 读取异常
+     */
+    public void close(Throwable cause) {
+        ParserException e = null;
+        try {
+            transformQueue.put(Page.END);
+            latch.await();
+            if (isFailed()) {
+                e = new ParserException(error.getMessage(), error);
+            }
+        } catch (InterruptedException ex) {
+            // 中断时停止转换和写入线程
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            e = new ParserException("等待管道完成被中断", ex);
+        } finally {
+            executor.shutdown();
+        }
+        if (null != e) {
+            if (null == cause) {
+                throw e;
+            }
+            cause.addSuppressed(e);
+        }
+    }
+
+    public int getTransformQueueUp() {
+        return transformQueue.size();
+    }
+
+    public int getWriteQueueUp() {
+        return writeQueue.size();
+    }
+
+    private void run(BlockingQueue<Page> queue, PipelineHandler handler, BlockingQueue<Page> next) {
+        try {
+            for (; ; ) {
+                Page page = queue.take();
+                // 出现异常后只消费不处理, 避免阻塞上游
+                if (Page.END != page && !isFailed()) {
+                    try {
+                        handler.handle(page);
+                    } catch (Exception e) {
+                        error = e;
+                        logger.error("管道处理异常", e);
+                    }
+                }
+                if (null != next && (Page.END == page || !isFailed())) {
+                    next.put(page);
+                }
+                if (Page.END == page) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        } finally {
+            latch.countDown();
+        }
+    }
+
+}
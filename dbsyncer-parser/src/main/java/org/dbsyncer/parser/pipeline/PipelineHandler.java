@@ -0,0 +1,14 @@
+package org.dbsyncer.parser.pipeline;
+
+/**
+ * 管道阶段处理器
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/11/29 21:16
+ */
+public interface PipelineHandler {
+
+    void handle(Page page);
+
+}
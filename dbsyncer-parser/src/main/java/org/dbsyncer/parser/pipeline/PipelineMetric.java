@@ -0,0 +1,39 @@
+package org.dbsyncer.parser.pipeline;
+
+/**
+ * 管道队列积压指标
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/11/29 22:05
+ */
+public final class PipelineMetric {
+
+    /**
+     * 待转换
+     */
+    private long transformQueueUp;
+
+    /**
+     * 待写入
+     */
+    private long writeQueueUp;
+
+    public long getTransformQueueUp() {
+        return transformQueueUp;
+    }
+
+    public PipelineMetric setTransformQueueUp(long transformQueueUp) {
+        this.transformQueueUp = transformQueueUp;
+        return this;
+    }
+
+    public long getWriteQueueUp() {
+        return writeQueueUp;
+    }
+
+    public PipelineMetric setWriteQueueUp(long writeQueueUp) {
+        this.writeQueueUp = writeQueueUp;
+        return this;
+    }
+}
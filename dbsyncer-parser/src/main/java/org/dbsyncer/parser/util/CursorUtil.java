@@ -0,0 +1,161 @@
+package org.dbsyncer.parser.util;
+
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.JsonUtil;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.connector.config.Field;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 游标(上一页最后一行的主键值)序列化, 按主键字段类型保存, 续读时还原为对应类型的参数
+ * <pre>
+ *  [{"type":4,"value":"100"},{"type":93,"value":"2021-12-01 10:00:00.0"}]
+ * </pre>
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/24 20:10
+ */
+public abstract class CursorUtil {
+
+    private static final String TYPE = "type";
+    private static final String VALUE = "value";
+
+    private CursorUtil() {
+    }
+
+    /**
+     * 序列化游标, 主键值为空时返回null(不能按主键续读)
+     *
+     * @param primaryKeys 主键字段
+     * @param cursors     主键值
+     * @return
+     */
+    public static String encode(List<Field> primaryKeys, Object[] cursors) {
+        if (null == cursors || CollectionUtils.isEmpty(primaryKeys) || primaryKeys.size() != cursors.length) {
+            return null;
+        }
+        List<Map<String, Object>> list = new ArrayList<>(cursors.length);
+        for (int i = 0; i < cursors.length; i++) {
+            if (null == cursors[i]) {
+                return null;
+            }
+            Map<String, Object> cursor = new HashMap<>(2);
+            cursor.put(TYPE, primaryKeys.get(i).getType());
+            cursor.put(VALUE, toString(cursors[i]));
+            list.add(cursor);
+        }
+        return JsonUtil.objToJson(list);
+    }
+
+    /**
+     * 解析游标, 兼容旧版本保存的字符串数组["1","abc"]
+     *
+     * @param cursor
+     * @return
+     */
+    public static Object[] decode(String cursor) {
+        if (StringUtil.isBlank(cursor)) {
+            return null;
+        }
+        List<Object> list = JsonUtil.jsonToArray(cursor, Object.class);
+        if (CollectionUtils.isEmpty(list)) {
+            return null;
+        }
+        Object[] cursors = new Object[list.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            Object c = list.get(i);
+            if (c instanceof Map) {
+                Map m = (Map) c;
+                Object value = m.get(VALUE);
+                if (null == value) {
+                    return null;
+                }
+                cursors[i] = toObject(Integer.parseInt(String.valueOf(m.get(TYPE))), String.valueOf(value));
+                continue;
+            }
+            if (null == c) {
+                return null;
+            }
+            cursors[i] = String.valueOf(c);
+        }
+        return cursors;
+    }
+
+    private static String toString(Object value) {
+        if (value instanceof byte[]) {
+            return Base64.getEncoder().encodeToString((byte[]) value);
+        }
+        if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value).toString();
+        }
+        if (value instanceof LocalDate) {
+            return Date.valueOf((LocalDate) value).toString();
+        }
+        if (value instanceof LocalTime) {
+            return Time.valueOf((LocalTime) value).toString();
+        }
+        if (value instanceof java.util.Date && !(value instanceof Timestamp) && !(value instanceof Date) && !(value instanceof Time)) {
+            return new Timestamp(((java.util.Date) value).getTime()).toString();
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return String.valueOf(value);
+    }
+
+    private static Object toObject(int type, String value) {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return Integer.valueOf(value);
+            case Types.BIGINT:
+                return new BigInteger(value).bitLength() < 64 ? (Object) Long.valueOf(value) : new BigDecimal(value);
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return new BigDecimal(value);
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return Double.valueOf(value);
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return "1".equals(value) || Boolean.parseBoolean(value);
+            case Types.DATE:
+                return toDate(value);
+            case Types.TIME:
+                return Time.valueOf(value);
+            case Types.TIMESTAMP:
+                return Timestamp.valueOf(value);
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return Base64.getDecoder().decode(value);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Oracle的DATE包含时间, 读取为Timestamp
+     */
+    private static Object toDate(String value) {
+        return value.length() > 10 ? Timestamp.valueOf(value) : Date.valueOf(value);
+    }
+
+}
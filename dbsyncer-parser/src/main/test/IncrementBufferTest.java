@@ -0,0 +1,277 @@
+package org.dbsyncer.parser.increment;
+
+import org.dbsyncer.common.event.RowChangedEvent;
+import org.dbsyncer.connector.config.Field;
+import org.dbsyncer.connector.config.Table;
+import org.dbsyncer.connector.constant.ConnectorConstant;
+import org.dbsyncer.parser.model.TableGroup;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author AE86
+ * @version 1.0.0
+ * @date 2021/12/26 22:00
+ */
+public class IncrementBufferTest {
+
+    private static final String INSERT = ConnectorConstant.OPERTION_INSERT;
+    private static final String UPDATE = ConnectorConstant.OPERTION_UPDATE;
+    private static final String DELETE = ConnectorConstant.OPERTION_DELETE;
+
+    private final List<List<RowChangedEvent>> batches = new ArrayList<>();
+
+    private final AtomicInteger coalesced = new AtomicInteger();
+
+    private final IncrementBufferHandler handler = new IncrementBufferHandler() {
+        @Override
+        public void handle(TableGroup tableGroup, List<RowChangedEvent> events) {
+            synchronized (batches) {
+                batches.add(events);
+            }
+        }
+
+        @Override
+        public void coalesced(TableGroup tableGroup, int count) {
+            coalesced.addAndGet(count);
+        }
+    };
+
+    private TableGroup tableGroup;
+
+    private IncrementBuffer buffer;
+
+    @Before
+    public void init() {
+        List<Field> column = new ArrayList<>();
+        column.add(new Field("id", "INT", Types.INTEGER, true));
+        column.add(new Field("name", "VARCHAR", Types.VARCHAR));
+        tableGroup = new TableGroup().setSourceTable(new Table("my_user", null, column));
+        tableGroup.setId("tableGroup");
+    }
+
+    @After
+    public void destroy() {
+        if (null != buffer) {
+            buffer.close();
+        }
+    }
+
+    @Test
+    public void testInsertAndUpdate() {
+        buffer = coalesceBuffer(1);
+        buffer.offer(tableGroup, insert(1, "a"));
+        buffer.offer(tableGroup, update(1, "a", 1, "b"));
+        buffer.flush();
+
+        Assert.assertEquals(1, batches.size());
+        assertEvent(batches.get(0).get(0), INSERT, 1, "b");
+        Assert.assertEquals(1, coalesced.get());
+    }
+
+    @Test
+    public void testInsertAndDelete() {
+        buffer = coalesceBuffer(1);
+        buffer.offer(tableGroup, insert(1, "a"));
+        buffer.offer(tableGroup, delete(1, "a"));
+        buffer.flush();
+
+        // 相互抵消, 两条变更都计为合并
+        Assert.assertTrue(batches.isEmpty());
+        Assert.assertEquals(2, coalesced.get());
+    }
+
+    @Test
+    public void testUpdateAndUpdate() {
+        buffer = coalesceBuffer(1);
+        buffer.offer(tableGroup, update(1, "a", 1, "b"));
+        buffer.offer(tableGroup, update(1, "b", 1, "c"));
+        buffer.flush();
+
+        Assert.assertEquals(1, batches.size());
+        RowChangedEvent event = batches.get(0).get(0);
+        assertEvent(event, UPDATE, 1, "c");
+        Assert.assertEquals("a", event.getBefore().get("name"));
+        Assert.assertEquals(1, coalesced.get());
+    }
+
+    @Test
+    public void testUpdateAndDelete() {
+        buffer = coalesceBuffer(1);
+        buffer.offer(tableGroup, update(1, "a", 1, "b"));
+        buffer.offer(tableGroup, delete(1, "b"));
+        buffer.flush();
+
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals(DELETE, batches.get(0).get(0).getEvent());
+        Assert.assertEquals(1, batches.get(0).get(0).getBefore().get("id"));
+        Assert.assertEquals(1, coalesced.get());
+    }
+
+    @Test
+    public void testDeleteAndInsert() {
+        buffer = coalesceBuffer(1);
+        buffer.offer(tableGroup, delete(1, "a"));
+        buffer.offer(tableGroup, insert(1, "b"));
+        buffer.flush();
+
+        Assert.assertEquals(1, batches.size());
+        assertEvent(batches.get(0).get(0), UPDATE, 1, "b");
+        Assert.assertEquals(1, coalesced.get());
+    }
+
+    @Test
+    public void testFlushOrder() {
+        buffer = coalesceBuffer(1);
+        buffer.offer(tableGroup, update(1, "a", 1, "b"));
+        buffer.offer(tableGroup, insert(2, "a"));
+        buffer.offer(tableGroup, delete(3, "a"));
+        buffer.offer(tableGroup, insert(4, "a"));
+        buffer.flush();
+
+        // 不同主键之间没有依赖, 按DELETE, INSERT, UPDATE分批
+        Assert.assertEquals(3, batches.size());
+        Assert.assertEquals(DELETE, batches.get(0).get(0).getEvent());
+        Assert.assertEquals(2, batches.get(1).size());
+        assertEvent(batches.get(1).get(0), INSERT, 2, "a");
+        assertEvent(batches.get(1).get(1), INSERT, 4, "a");
+        assertEvent(batches.get(2).get(0), UPDATE, 1, "b");
+        Assert.assertEquals(0, coalesced.get());
+    }
+
+    @Test
+    public void testCoalescedCount() {
+        buffer = coalesceBuffer(1);
+        buffer.offer(tableGroup, insert(1, "a"));
+        buffer.offer(tableGroup, update(1, "a", 1, "b"));
+        buffer.offer(tableGroup, update(1, "b", 1, "c"));
+        buffer.offer(tableGroup, insert(2, "a"));
+        buffer.flush();
+
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals(2, batches.get(0).size());
+        Assert.assertEquals(2, coalesced.get());
+
+        // 计数已清零
+        buffer.flush();
+        Assert.assertEquals(2, coalesced.get());
+    }
+
+    @Test
+    public void testKeyChanged() {
+        buffer = coalesceBuffer(1);
+        buffer.offer(tableGroup, update(1, "a", 1, "b"));
+        buffer.offer(tableGroup, update(1, "b", 2, "b"));
+        buffer.offer(tableGroup, insert(1, "c"));
+        buffer.flush();
+
+        // 修改主键前先处理已缓存的数据, 修改主键的变更单独处理
+        Assert.assertEquals(3, batches.size());
+        assertEvent(batches.get(0).get(0), UPDATE, 1, "b");
+        Assert.assertEquals(1, batches.get(1).size());
+        assertEvent(batches.get(1).get(0), UPDATE, 2, "b");
+        Assert.assertEquals(1, batches.get(1).get(0).getBefore().get("id"));
+        assertEvent(batches.get(2).get(0), INSERT, 1, "c");
+    }
+
+    @Test
+    public void testKeyChangedFlushAllPartitions() {
+        buffer = coalesceBuffer(4);
+        for (int i = 1; i <= 8; i++) {
+            buffer.offer(tableGroup, insert(i, "a"));
+        }
+        buffer.offer(tableGroup, update(1, "a", 100, "a"));
+
+        // 旧主键所在分区及其他分区都已处理
+        int inserted = 0;
+        for (int i = 0; i < batches.size() - 1; i++) {
+            inserted += batches.get(i).size();
+        }
+        Assert.assertEquals(8, inserted);
+        List<RowChangedEvent> last = batches.get(batches.size() - 1);
+        Assert.assertEquals(1, last.size());
+        assertEvent(last.get(0), UPDATE, 100, "a");
+    }
+
+    @Test
+    public void testBatchByEvent() {
+        buffer = new IncrementBuffer("test", handler, 2, TimeUnit.MINUTES.toMillis(1));
+        buffer.offer(tableGroup, insert(1, "a"));
+        buffer.offer(tableGroup, insert(2, "a"));
+        buffer.offer(tableGroup, update(1, "a", 1, "b"));
+        buffer.offer(tableGroup, delete(2, "a"));
+        buffer.flush();
+
+        // 达到批量条数或操作变化时处理, 不合并
+        Assert.assertEquals(3, batches.size());
+        Assert.assertEquals(2, batches.get(0).size());
+        Assert.assertEquals(UPDATE, batches.get(1).get(0).getEvent());
+        Assert.assertEquals(DELETE, batches.get(2).get(0).getEvent());
+        Assert.assertEquals(0, coalesced.get());
+    }
+
+    @Test
+    public void testExpiredFailure() throws InterruptedException {
+        final RuntimeException error = new RuntimeException("write failed");
+        buffer = new IncrementBuffer("test", (group, events) -> {
+            throw error;
+        }, 100, 1);
+        buffer.offer(tableGroup, insert(1, "a"));
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        // 定时处理失败后, 放入和处理数据都抛出该异常
+        try {
+            buffer.offer(tableGroup, insert(2, "a"));
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertSame(error, e);
+        }
+        try {
+            buffer.flush();
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertSame(error, e);
+        }
+    }
+
+    private IncrementBuffer coalesceBuffer(int partitions) {
+        return new IncrementBuffer("test", handler, 100, TimeUnit.MINUTES.toMillis(1), partitions, true);
+    }
+
+    private void assertEvent(RowChangedEvent event, String type, int id, String name) {
+        Assert.assertEquals(type, event.getEvent());
+        Assert.assertEquals(id, event.getAfter().get("id"));
+        Assert.assertEquals(name, event.getAfter().get("name"));
+    }
+
+    private RowChangedEvent insert(int id, String name) {
+        return new RowChangedEvent(0, INSERT, new HashMap<>(), row(id, name));
+    }
+
+    private RowChangedEvent update(int beforeId, String beforeName, int afterId, String afterName) {
+        return new RowChangedEvent(0, UPDATE, row(beforeId, beforeName), row(afterId, afterName));
+    }
+
+    private RowChangedEvent delete(int id, String name) {
+        return new RowChangedEvent(0, DELETE, row(id, name), new HashMap<>());
+    }
+
+    private Map<String, Object> row(int id, String name) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("name", name);
+        return row;
+    }
+
+}
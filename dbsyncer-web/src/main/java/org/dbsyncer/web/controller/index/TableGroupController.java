@@ -72,6 +72,17 @@ public class TableGroupController extends BaseController {
         }
     }
 
+    @PostMapping("/refreshCount")
+    @ResponseBody
+    public RestResult refreshCount(@RequestParam(value = "id") String id) {
+        try {
+            return RestResult.restSuccess(tableGroupService.refreshCount(id));
+        } catch (Exception e) {
+            logger.error(e.getLocalizedMessage(), e.getClass());
+            return RestResult.restFail(e.getMessage());
+        }
+    }
+
     @GetMapping("/get")
     @ResponseBody
     public RestResult get(@RequestParam(value = "id") String id) {
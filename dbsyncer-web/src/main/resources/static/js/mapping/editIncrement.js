@@ -17,13 +17,17 @@ function bindMappingIncrementStrategyConfigChange(){
     showIncrementStrategyConfig(value);
 }
 
-// 显示增量策略配置（日志/定时）
+// 显示增量策略配置（日志/变更跟踪/定时）
 function showIncrementStrategyConfig($value){
     var $dqlConfig = $("#mappingIncrementStrategyDQLConfig");
     var $quartzConfig = $("#mappingIncrementStrategyQuartzConfig");
     if('log' == $value){
         $quartzConfig.addClass("hidden");
         $dqlConfig.removeClass("hidden");
+    }else if('tracking' == $value){
+        // 变更跟踪无需额外配置
+        $quartzConfig.addClass("hidden");
+        $dqlConfig.addClass("hidden");
     }else{
         $dqlConfig.addClass("hidden");
         $quartzConfig.removeClass("hidden");
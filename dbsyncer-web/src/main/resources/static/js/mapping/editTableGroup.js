@@ -170,4 +170,15 @@ $(function() {
     $("#tableGroupBackBtn").bind('click', function(){
         backMappingPage($(this));
     });
+
+    // 统计总数(后台执行)
+    $("#tableGroupCountBtn").bind('click', function(){
+        doPoster("/tableGroup/refreshCount", {id: $(this).attr("tableGroupId")}, function (data) {
+            if (data.success == true) {
+                bootGrowl(data.resultValue ? "正在统计总数，完成后刷新页面查看." : "总数统计中，请稍后.", "success");
+            } else {
+                bootGrowl(data.resultValue, "danger");
+            }
+        });
+    });
 });
\ No newline at end of file